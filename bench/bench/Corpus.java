@@ -0,0 +1,131 @@
+package bench;
+
+import static java.util.stream.Collectors.toList;
+
+import jiro.java.lang.ParagraphReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * ベンチマーク用のテキストを生成するクラス。
+ */
+public final class Corpus {
+
+  private static final String JAPANESE =
+    "あいうえおかきくけこさしすせそたちつてとなにぬねのはひふへほまみむめもやゆよらりるれろわをん"
+    + "アイウエオカキクケコ、。「」！？私名前文章折返確認画面表示";
+
+  private static final String[] ENGLISH = {
+    "hello", "world", "message", "window", "actor", "script", "format",
+    "line-break", "under_score", "RPG", "Maker", "MV", "text", "editor"
+  };
+
+  private static final String[] ACTORS = {
+    "【ハロルド】", "【テレーズ】", "【マーシャ】", "【ルキウス】", "Ac-chan"
+  };
+
+  private Corpus() {}
+
+  /**
+   * 乱数で段落リストを生成する。
+   * @param paragraphCount 段落数
+   * @param paragraphLength １段落の行数
+   * @param lineLength １行の文字数の目安
+   * @param japaneseRatio 日本語の割合 (0.0 - 1.0)
+   * @param seed 乱数の種
+   * @return 段落リスト
+   */
+  public static List<List<String>> generate(//{{{
+      int paragraphCount
+      , int paragraphLength
+      , int lineLength
+      , double japaneseRatio
+      , long seed
+      )
+  {
+    Random random = new Random(seed);
+    List<List<String>> paragraphList = new ArrayList<>(paragraphCount);
+
+    for (int i=0; i<paragraphCount; i++) {
+      List<String> paragraph = new ArrayList<>(paragraphLength + 1);
+      if (random.nextInt(4) == 0)
+        paragraph.add("# " + ACTORS[random.nextInt(ACTORS.length)]);
+
+      for (int j=0; j<paragraphLength; j++)
+        paragraph.add(createLine(random, lineLength, japaneseRatio));
+
+      paragraphList.add(paragraph);
+    }
+
+    return paragraphList;
+  }//}}}
+
+  /**
+   * 乱数で１行の文字列を生成する。
+   * @param lineLength １行の文字数の目安
+   * @param japaneseRatio 日本語の割合 (0.0 - 1.0)
+   * @param seed 乱数の種
+   * @return 文字列
+   */
+  public static String generateLine(int lineLength, double japaneseRatio, long seed) {//{{{
+    return createLine(new Random(seed), lineLength, japaneseRatio);
+  }//}}}
+
+  /**
+   * input ディレクトリのテキストファイルを段落リストとして読み込む。
+   * @param dir input ディレクトリ
+   * @return 段落リスト
+   * @throws IOException 読み取りに失敗した場合
+   */
+  public static List<List<String>> load(File dir) throws IOException {//{{{
+    File[] files = dir.listFiles((d, name) -> name.endsWith(".txt"));
+    if (files == null || files.length == 0)
+      throw new IOException("テキストファイルが存在しません。 - dir : " + dir);
+    Arrays.sort(files);
+
+    List<List<String>> paragraphList = new ArrayList<>();
+    for (File file : files) {
+      try (ParagraphReader reader = new ParagraphReader(file.toPath())) {
+        paragraphList.addAll(reader.readAllParagraphs());
+      }
+    }
+    return paragraphList;
+  }//}}}
+
+  /**
+   * 段落リストを行リストに平坦化する。
+   * @param paragraphList 段落リスト
+   * @return 行リスト
+   */
+  public static List<String> lines(List<List<String>> paragraphList) {//{{{
+    return paragraphList.stream()
+      .flatMap(List::stream)
+      .collect(toList());
+  }//}}}
+
+  private static String createLine(Random random, int lineLength, double japaneseRatio) {//{{{
+    StringBuilder sb = new StringBuilder(lineLength + 16);
+    while (sb.length() < lineLength) {
+      if (random.nextDouble() < japaneseRatio) {
+        int count = 1 + random.nextInt(8);
+        for (int i=0; i<count; i++)
+          sb.append(JAPANESE.charAt(random.nextInt(JAPANESE.length())));
+      } else {
+        if (0 < sb.length())
+          sb.append(' ');
+        sb.append(ENGLISH[random.nextInt(ENGLISH.length)]);
+        if (random.nextInt(6) == 0)
+          sb.append(random.nextBoolean() ? '.' : ',');
+      }
+    }
+    if (random.nextInt(5) == 0)
+      sb.append("@name");
+    return sb.toString();
+  }//}}}
+
+}
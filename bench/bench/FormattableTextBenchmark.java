@@ -0,0 +1,106 @@
+package bench;
+
+import jiro.java.lang.Brackets;
+import jiro.java.lang.FormattableText;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>
+ * FormattableTextの整形処理のベンチマーク。
+ * </p><p>
+ * corpusが"input"の場合は input ディレクトリのテキストファイルを、それ以外の
+ * 場合は段落数、段落の行数、１行の文字数、日本語の割合を指定して生成したテキ
+ * ストを使用する。
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormattableTextBenchmark {
+
+  /** "generated" または "input" */
+  @Param({"generated", "input"})
+  public String corpus;
+
+  @Param({"1000"})
+  public int paragraphCount;
+
+  @Param({"3"})
+  public int paragraphLength;
+
+  @Param({"80"})
+  public int lineLength;
+
+  @Param({"0.8"})
+  public double japaneseRatio;
+
+  /** 有効にするオプション。actor, return, indent, brackets, joining の組み合わせ */
+  @Param({"return", "actor+return+indent+brackets", "actor+return+joining"})
+  public String options;
+
+  @Param({"54"})
+  public int returnSize;
+
+  /** input ディレクトリ */
+  @Param({"input"})
+  public String inputDir;
+
+  private FormattableText text;
+  private FormattableText bracketedText;
+
+  @Setup
+  public void setup() throws IOException {//{{{
+    List<List<String>> paragraphList = "input".equals(corpus)
+      ? Corpus.load(new File(inputDir))
+      : Corpus.generate(paragraphCount, paragraphLength, lineLength, japaneseRatio, 1L);
+
+    text = new FormattableText.Builder(paragraphList)
+      .actorNameOption(options.contains("actor"))
+      .returnOption(options.contains("return"))
+      .returnSize(returnSize)
+      .indentOption(options.contains("indent"))
+      .indentSize(2)
+      .bracketsOption(options.contains("brackets"))
+      .brackets(Brackets.TYPE1)
+      .joiningOption(options.contains("joining"))
+      .build();
+
+    // 個別の段階は前の段階を終えたテキストに対して計測する
+    bracketedText = text.addActorName().replaceActorName().formatPutBrackets();
+  }//}}}
+
+  @Benchmark
+  public FormattableText format() {//{{{
+    return text.format();
+  }//}}}
+
+  @Benchmark
+  public FormattableText formatPutBrackets() {//{{{
+    return text.formatPutBrackets();
+  }//}}}
+
+  @Benchmark
+  public FormattableText formatCarriageReturn() {//{{{
+    return bracketedText.formatCarriageReturn();
+  }//}}}
+
+}
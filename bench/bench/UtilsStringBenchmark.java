@@ -0,0 +1,65 @@
+package bench;
+
+import jiro.java.lang.UtilsString;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * UtilsStringの文字幅計算と単語分割のベンチマーク。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtilsStringBenchmark {
+
+  /** １行の文字数の目安 */
+  @Param({"16", "64", "512"})
+  public int lineLength;
+
+  /** 日本語の割合 */
+  @Param({"0.0", "0.5", "1.0"})
+  public double japaneseRatio;
+
+  private String line;
+  private char[] chars;
+
+  @Setup
+  public void setup() {//{{{
+    line  = Corpus.generateLine(lineLength, japaneseRatio, 1L);
+    chars = line.toCharArray();
+  }//}}}
+
+  @Benchmark
+  public List<String> splitToWord() {//{{{
+    return UtilsString.splitToWord(line);
+  }//}}}
+
+  @Benchmark
+  public int stringLength() {//{{{
+    return UtilsString.stringLength(line);
+  }//}}}
+
+  @Benchmark
+  public void charLength(Blackhole bh) {//{{{
+    for (char ch : chars)
+      bh.consume(UtilsString.charLength(ch));
+  }//}}}
+
+}
@@ -0,0 +1,253 @@
+package app;
+
+import jiro.java.lang.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * ディレクトリ配下のテキストファイルをまとめて整形するバッチクラス。
+ * </p><p>
+ * 入力ディレクトリ配下の.txtファイルを、出力ディレクトリの同じ相対パスに整形
+ * して書き出す。<br>
+ * ファイルはワークスティーリングのForkJoinPoolで並列に処理する。
+ * </p><p>
+ * 処理結果はマニフェストに記録し、内容と整形オプションが前回と同じファイルは
+ * 次回の実行で処理を省略する。<br>
+ * 整形オプションのハッシュ値には整形処理の版(TextFormatter#VERSION)も含めるため、
+ * 整形結果が変わる更新の後は、すべてのファイルを整形し直す。
+ * </p>
+ */
+public class Batch {
+
+  private static final Charset UTF_8 = StandardCharsets.UTF_8;
+
+  private static final String EXTENSION     = ".txt";
+  private static final String MANIFEST_NAME = ".mvte-manifest";
+
+  // 全角27文字で折り返し
+  private static final int RETURN_SIZE   = 27 * 2;
+  private static final int INDENT_SIZE   = 2;
+  private static final Brackets BRACKETS = Brackets.TYPE1;
+
+  private static final String USAGE = String.join(System.lineSeparator()
+      , "usage: java app.Batch [options] <input dir> <output dir>"
+      , "  --manifest <file>     マニフェストファイル (default: <output dir>/" + MANIFEST_NAME + ")"
+      , "  --threads <n>         並列数 (default: CPU数)"
+      , "  --return-size <n>     折り返し幅 (default: " + RETURN_SIZE + ")"
+      , "  --indent-size <n>     インデント幅 (default: " + INDENT_SIZE + ")"
+      , "  --kinsoku             禁則処理を行う"
+      , "  --force               マニフェストを無視してすべて整形する"
+      );
+
+  private final Path inputDir;
+  private final Path outputDir;
+  private final Path manifestFile;
+  private final int threads;
+  private final boolean force;
+  private final TextFormatter formatter;
+  private final String optionHash;
+
+  private final AtomicInteger doneCount      = new AtomicInteger(0);
+  private final AtomicInteger formattedCount = new AtomicInteger(0);
+  private final AtomicInteger skippedCount   = new AtomicInteger(0);
+  private final AtomicInteger failedCount    = new AtomicInteger(0);
+  private final AtomicLong formattedBytes    = new AtomicLong(0);
+
+  // constructor
+
+  private Batch(Path inputDir, Path outputDir, Path manifestFile, int threads, boolean force, TextFormatter formatter) {//{{{
+    this.inputDir     = inputDir;
+    this.outputDir    = outputDir;
+    this.manifestFile = manifestFile;
+    this.threads      = threads;
+    this.force        = force;
+    this.formatter    = formatter;
+    this.optionHash   = Manifest.hash(TextFormatter.VERSION + "/" + formatter.getFingerprint());
+  }//}}}
+
+  // main
+
+  public static void main(String... args) {//{{{
+    Path inputDir = null;
+    Path outputDir = null;
+    Path manifestFile = null;
+    int threads = Runtime.getRuntime().availableProcessors();
+    int returnSize = RETURN_SIZE;
+    int indentSize = INDENT_SIZE;
+    boolean kinsoku = false;
+    boolean force = false;
+
+    try {
+      for (int i=0; i<args.length; i++) {
+        switch (args[i]) {
+          case "--manifest":    manifestFile = Paths.get(args[++i]);          break;
+          case "--threads":     threads      = Integer.parseInt(args[++i]);   break;
+          case "--return-size": returnSize   = Integer.parseInt(args[++i]);   break;
+          case "--indent-size": indentSize   = Integer.parseInt(args[++i]);   break;
+          case "--kinsoku":     kinsoku      = true;                          break;
+          case "--force":       force        = true;                          break;
+          default:
+            if      (inputDir == null)  inputDir  = Paths.get(args[i]);
+            else if (outputDir == null) outputDir = Paths.get(args[i]);
+            else throw new IllegalArgumentException("不明な引数です。 - " + args[i]);
+        }
+      }
+      if (outputDir == null)
+        throw new IllegalArgumentException("入力ディレクトリと出力ディレクトリを指定する必要があります。");
+      if (threads <= 0)
+        throw new IllegalArgumentException("threadsには正の数を指定する必要があります。 - threads : " + threads);
+    } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+      System.err.println(e instanceof ArrayIndexOutOfBoundsException ? "オプションの値がありません。" : e.getMessage());
+      System.err.println(USAGE);
+      System.exit(2);
+      return;
+    }
+
+    TextFormatter formatter = new FormattableText.Builder()
+      .actorNameOption(true)
+      .returnOption(true)
+      .returnSize(returnSize)
+      .indentOption(true)
+      .indentSize(indentSize)
+      .bracketsOption(true)
+      .brackets(BRACKETS)
+      .joiningOption(false)
+      .kinsokuOption(kinsoku)
+      .buildFormatter();
+
+    if (manifestFile == null)
+      manifestFile = outputDir.resolve(MANIFEST_NAME);
+
+    try {
+      boolean ok = new Batch(inputDir, outputDir, manifestFile, threads, force, formatter).run();
+      System.exit(ok ? 0 : 1);
+    } catch (IOException e) {
+      e.printStackTrace();
+      System.exit(1);
+    }
+  }//}}}
+
+  // private methods
+
+  /**
+   * すべてのファイルを整形する。
+   * @return 失敗したファイルがない場合は{@code true}
+   */
+  private boolean run() throws IOException {//{{{
+    List<Path> files;
+    try (Stream<Path> stream = Files.walk(inputDir)) {
+      files = stream
+        .filter(Files::isRegularFile)
+        .filter(p -> p.getFileName().toString().endsWith(EXTENSION))
+        .sorted()
+        .collect(Collectors.toList());
+    }
+
+    Manifest manifest = force ? new Manifest() : Manifest.load(manifestFile);
+    manifest.retainAll(files.stream().map(this::relativize).collect(Collectors.toList()));
+
+    long start = System.nanoTime();
+
+    List<Callable<Void>> tasks = new ArrayList<>(files.size());
+    for (Path file : files)
+      tasks.add(() -> { process(file, files.size(), manifest); return null; });
+
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      for (Future<Void> f : pool.invokeAll(tasks))
+        f.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("処理が中断されました。", e);
+    } catch (ExecutionException e) {
+      throw new IOException(e.getCause());
+    } finally {
+      pool.shutdown();
+    }
+
+    manifest.save(manifestFile);
+
+    double seconds = Math.max(System.nanoTime() - start, 1L) / 1e9;
+    System.out.println(String.format(
+          "formatted %d, skipped %d, failed %d / %d files in %.2f s (%.1f files/s, %.2f MB/s)"
+          , formattedCount.get(), skippedCount.get(), failedCount.get(), files.size()
+          , seconds
+          , formattedCount.get() / seconds
+          , formattedBytes.get() / seconds / (1024 * 1024)
+          ));
+
+    return failedCount.get() == 0;
+  }//}}}
+
+  /**
+   * １ファイルを整形する。前回から変化していない場合は省略する。
+   */
+  private void process(Path file, int total, Manifest manifest) {//{{{
+    String path = relativize(file);
+    Path out = outputDir.resolve(path);
+
+    String status;
+    try {
+      byte[] bytes = Files.readAllBytes(file);
+      String contentHash = Manifest.hash(bytes);
+
+      if (manifest.isUpToDate(path, contentHash, optionHash) && Files.exists(out)) {
+        skippedCount.incrementAndGet();
+        status = "skipped";
+      } else {
+        Files.createDirectories(out.toAbsolutePath().getParent());
+        try (
+            Reader reader = new InputStreamReader(
+              new ByteArrayInputStream(bytes)
+              , UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPORT)
+              );
+            Writer writer = Files.newBufferedWriter(out, UTF_8)
+            )
+        {
+          formatter.format(reader, writer);
+        }
+
+        manifest.put(path, contentHash, optionHash);
+        formattedCount.incrementAndGet();
+        formattedBytes.addAndGet(bytes.length);
+        status = "formatted";
+      }
+    } catch (IOException | RuntimeException e) {
+      manifest.remove(path);
+      failedCount.incrementAndGet();
+      status = "failed (" + e + ")";
+    }
+
+    int done = doneCount.incrementAndGet();
+    System.out.println(String.format("[%d/%d] %s : %s", done, total, path, status));
+  }//}}}
+
+  /**
+   * 入力ディレクトリからの相対パスを/区切りで返す。
+   */
+  private String relativize(Path file) {//{{{
+    return inputDir.relativize(file).toString().replace('\\', '/');
+  }//}}}
+
+}
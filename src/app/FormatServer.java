@@ -0,0 +1,446 @@
+package app;
+
+import jiro.java.lang.*;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * テキストの整形をHTTPで提供するローカルサーバクラス。
+ * </p><p>
+ * エディタのプラグインなどから呼び出すたびにJVMを起動せずに済むよう、起動済
+ * みのJVMで整形を行う。<br>
+ * サーバはループバックアドレスだけで待ち受ける。
+ * </p>
+ * <pre>
+ * POST /format?returnSize=54&amp;indentSize=2&amp;brackets=TYPE1&amp;output=json
+ *   本文: UTF-8のテキスト
+ *   応答: 整形済みのウィンドウ (output=json|text|mv|mz)
+ *   mv、mzではnameFormat(既定値は%s)でアクター名の書式を指定できる
+ *   mv、mzでは制御文字(\C[n]など)を１つの単位として折り返す
+ * GET  /health
+ * </pre>
+ * <p>
+ * リクエストは実行環境が対応していれば仮想スレッドで、対応していなければスレッ
+ * ドプールで処理する。<br>
+ * 同時に整形するリクエスト数はセマフォで制限し、一定時間内に空きがなければ503
+ * を返す。
+ * </p><p>
+ * 同じオプションのTextFormatterは使い回し、整形結果のキャッシュはすべてのTextFormatter
+ * で共有する。
+ * </p>
+ */
+public class FormatServer {
+
+  private static final Charset UTF_8 = StandardCharsets.UTF_8;
+
+  private static final int DEFAULT_PORT        = 8765;
+  private static final int DEFAULT_CACHE_SIZE  = 10000;
+  private static final long ACQUIRE_TIMEOUT_MS = 1000;
+  private static final int MAX_BODY_SIZE       = 16 * 1024 * 1024;
+  private static final int MAX_FORMATTERS      = 64;
+  private static final int WARM_UP_COUNT       = 2000;
+
+  // 全角27文字で折り返し
+  private static final int RETURN_SIZE   = 27 * 2;
+  private static final int INDENT_SIZE   = 2;
+
+  private static final String USAGE = String.join(System.lineSeparator()
+      , "usage: java app.FormatServer [options]"
+      , "  --port <n>              待ち受けポート (default: " + DEFAULT_PORT + ")"
+      , "  --max-concurrency <n>   同時に整形するリクエスト数 (default: CPU数)"
+      , "  --cache-size <n>        整形結果のキャッシュの段落数 (default: " + DEFAULT_CACHE_SIZE + ")"
+      );
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final Semaphore permits;
+  private final FormatCache cache;
+  private final Map<String, TextFormatter> formatters = new ConcurrentHashMap<>();
+
+  // constructor
+
+  /**
+   * @param port 待ち受けポート。0の場合は空いているポートを使用する
+   * @param maxConcurrency 同時に整形するリクエスト数
+   * @param cacheSize 整形結果のキャッシュの段落数
+   * @throws IOException ポートを開けない場合
+   */
+  public FormatServer(int port, int maxConcurrency, int cacheSize) throws IOException {//{{{
+    if (maxConcurrency <= 0)
+      throw new IllegalArgumentException("maxConcurrencyには正の数を指定する必要があります。 - maxConcurrency : " + maxConcurrency);
+
+    this.permits  = new Semaphore(maxConcurrency);
+    this.cache    = new FormatCache(cacheSize);
+    this.executor = newExecutor();
+    this.server   = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+
+    server.setExecutor(executor);
+    server.createContext("/format", this::handleFormat);
+    server.createContext("/health", this::handleHealth);
+  }//}}}
+
+  // main
+
+  public static void main(String... args) {//{{{
+    int port = DEFAULT_PORT;
+    int maxConcurrency = Runtime.getRuntime().availableProcessors();
+    int cacheSize = DEFAULT_CACHE_SIZE;
+
+    try {
+      for (int i=0; i<args.length; i++) {
+        switch (args[i]) {
+          case "--port":            port           = Integer.parseInt(args[++i]); break;
+          case "--max-concurrency": maxConcurrency = Integer.parseInt(args[++i]); break;
+          case "--cache-size":      cacheSize      = Integer.parseInt(args[++i]); break;
+          default: throw new IllegalArgumentException("不明な引数です。 - " + args[i]);
+        }
+      }
+    } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+      System.err.println(e instanceof ArrayIndexOutOfBoundsException ? "オプションの値がありません。" : e.getMessage());
+      System.err.println(USAGE);
+      System.exit(2);
+      return;
+    }
+
+    try {
+      FormatServer server = new FormatServer(port, maxConcurrency, cacheSize);
+      server.warmUp();
+      server.start();
+      System.out.println("listening on http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort());
+    } catch (IOException | IllegalArgumentException e) {
+      e.printStackTrace();
+      System.exit(1);
+    }
+  }//}}}
+
+  // public methods
+
+  public void start() {//{{{
+    server.start();
+  }//}}}
+
+  /**
+   * サーバを停止する。処理中のリクエストは最大delaySeconds秒待つ。
+   * @param delaySeconds 処理中のリクエストを待つ秒数
+   */
+  public void stop(int delaySeconds) {//{{{
+    server.stop(delaySeconds);
+    executor.shutdown();
+  }//}}}
+
+  public InetSocketAddress getAddress() {//{{{
+    return server.getAddress();
+  }//}}}
+
+  /**
+   * 既定のオプションのTextFormatterを生成し、サンプルのテキストを繰り返し整形して
+   * JITコンパイルを済ませておく。
+   */
+  public void warmUp() throws IOException {//{{{
+    TextFormatter formatter = formatterFor(new TreeMap<>());
+    String sample = String.join("\n"
+        , "# アクター"
+        , "これは起動直後の整形を速くするためのサンプルの文章です。Sample text for warm up."
+        , "二行目の文章です。"
+        , ""
+        , "# アクター２"
+        , "最後の段落は空の行で終わらないため、リクエストと同じ読み取り方で整形します。"
+        );
+
+    StringBuilder sb = new StringBuilder();
+    for (int i=0; i<WARM_UP_COUNT; i++) {
+      sb.setLength(0);
+      formatter.format(
+          new ParagraphReader(new StringReader(sample), true)
+          , new WindowJsonVisitor(sb));
+    }
+    cache.clear();
+  }//}}}
+
+  // private methods
+
+  private void handleHealth(HttpExchange exchange) throws IOException {//{{{
+    try {
+      send(exchange, 200, "text/plain; charset=utf-8", "ok".getBytes(UTF_8));
+    } finally {
+      exchange.close();
+    }
+  }//}}}
+
+  private void handleFormat(HttpExchange exchange) throws IOException {//{{{
+    try {
+      if (!"POST".equals(exchange.getRequestMethod())) {
+        exchange.getResponseHeaders().set("Allow", "POST");
+        sendError(exchange, 405, "POSTのみ使用できます。");
+        return;
+      }
+
+      Map<String, String> params;
+      TextFormatter formatter;
+      try {
+        params = parseQuery(exchange.getRequestURI().getRawQuery());
+        formatter = formatterFor(params);
+      } catch (IllegalArgumentException | NullPointerException e) {
+        sendError(exchange, 400, e.getMessage());
+        return;
+      }
+
+      byte[] body = readBody(exchange.getRequestBody());
+      if (body == null) {
+        sendError(exchange, 413, "本文が大きすぎます。 - max : " + MAX_BODY_SIZE);
+        return;
+      }
+
+      String output = params.getOrDefault("output", "json");
+      StringBuilder sb = new StringBuilder(body.length * 2);
+      FormatVisitor visitor;
+      try {
+        visitor = visitorFor(output, params.getOrDefault("nameFormat", "%s"), sb);
+      } catch (IllegalArgumentException e) {
+        sendError(exchange, 400, e.getMessage());
+        return;
+      }
+
+      if (!permits.tryAcquire(ACQUIRE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+        sendError(exchange, 503, "同時に処理できるリクエスト数を超えています。");
+        return;
+      }
+
+      // 本文は空の行で終わらないことが多いため、最後の段落も整形する
+      try (ParagraphReader reader = new ParagraphReader(new InputStreamReader(
+            new ByteArrayInputStream(body)
+            , UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPORT)
+            ), true))
+      {
+        formatter.format(reader, visitor);
+      } finally {
+        permits.release();
+      }
+
+      String contentType = "text".equals(output)
+        ? "text/plain; charset=utf-8"
+        : "application/json; charset=utf-8";
+      send(exchange, 200, contentType, sb.toString().getBytes(UTF_8));
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      sendError(exchange, 503, "処理が中断されました。");
+    } catch (IOException e) {
+      sendError(exchange, 400, e.toString());
+    } catch (RuntimeException e) {
+      sendError(exchange, 500, e.toString());
+    } finally {
+      exchange.close();
+    }
+  }//}}}
+
+  /**
+   * オプションに対応するTextFormatterを返す。同じオプションのTextFormatterは使い回す。
+   */
+  private TextFormatter formatterFor(Map<String, String> params) {//{{{
+    // ゲームに出力する形式では、制御文字の途中で折り返さない
+    String output = params.getOrDefault("output", "json");
+    boolean escapeCodes = "mv".equals(output) || "mz".equals(output);
+
+    Map<String, String> options = new TreeMap<>(params);
+    options.remove("output");
+    options.remove("nameFormat");
+    options.put("escapeCodes", String.valueOf(escapeCodes));
+    String key = options.toString();
+    TextFormatter formatter = formatters.get(key);
+    if (formatter != null)
+      return formatter;
+
+    String brackets = params.get("brackets");
+    formatter = new FormattableText.Builder()
+      .actorNameOption(bool(params, "actorName", true))
+      .returnOption(bool(params, "return", true))
+      .returnSize(integer(params, "returnSize", RETURN_SIZE))
+      .indentOption(bool(params, "indent", true))
+      .indentSize(integer(params, "indentSize", INDENT_SIZE))
+      .bracketsOption(brackets != null)
+      .brackets(brackets == null ? null : Brackets.fromString(brackets)
+          .orElseThrow(() -> new IllegalArgumentException("不明なbracketsです。 - brackets : " + brackets)))
+      .joiningOption(bool(params, "joining", false))
+      .kinsokuOption(bool(params, "kinsoku", false))
+      .escapeCodes(escapeCodes ? EscapeCodes.DEFAULT : null)
+      .cache(cache)
+      .buildFormatter();
+
+    // オプションの組み合わせが増え続けないように上限を設ける
+    if (MAX_FORMATTERS <= formatters.size())
+      formatters.clear();
+    formatters.put(key, formatter);
+    return formatter;
+  }//}}}
+
+  /**
+   * 出力形式に対応するビジタを返す。
+   */
+  private static FormatVisitor visitorFor(String output, String nameFormat, StringBuilder sb) throws IOException {//{{{
+    switch (output) {
+      case "json": return new WindowJsonVisitor(sb);
+      case "text": return new AppendableSink(sb);
+      case "mv":
+      case "mz":
+        return new MvEventExporter(
+            sb, 0, "", 0
+            , MvEventExporter.BACKGROUND_WINDOW, MvEventExporter.POSITION_BOTTOM
+            , "mz".equals(output), nameFormat);
+      default:
+        throw new IllegalArgumentException("不明なoutputです。 - output : " + output);
+    }
+  }//}}}
+
+  private static ExecutorService newExecutor() {//{{{
+    try {
+      // Java 21以降では仮想スレッドを使用する
+      Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) m.invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "format-server");
+        t.setDaemon(true);
+        return t;
+      });
+    }
+  }//}}}
+
+  private static Map<String, String> parseQuery(String query) throws UnsupportedEncodingException {//{{{
+    Map<String, String> params = new TreeMap<>();
+    if (query == null || query.isEmpty())
+      return params;
+
+    for (String pair : query.split("&")) {
+      if (pair.isEmpty())
+        continue;
+      int eq = pair.indexOf('=');
+      String name  = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), "UTF-8");
+      String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), "UTF-8");
+      params.put(name, value);
+    }
+    return params;
+  }//}}}
+
+  private static boolean bool(Map<String, String> params, String name, boolean defaultValue) {//{{{
+    String value = params.get(name);
+    if (value == null)
+      return defaultValue;
+    if (value.isEmpty() || "true".equals(value))
+      return true;
+    if ("false".equals(value))
+      return false;
+    throw new IllegalArgumentException(name + "にはtrueまたはfalseを指定する必要があります。 - " + name + " : " + value);
+  }//}}}
+
+  private static int integer(Map<String, String> params, String name, int defaultValue) {//{{{
+    String value = params.get(name);
+    if (value == null)
+      return defaultValue;
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(name + "には整数を指定する必要があります。 - " + name + " : " + value);
+    }
+  }//}}}
+
+  /**
+   * 本文を読み取る。上限を超える場合は{@code null}を返す。
+   */
+  private static byte[] readBody(InputStream in) throws IOException {//{{{
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int n;
+    while ((n = in.read(buffer)) != -1) {
+      if (MAX_BODY_SIZE < out.size() + n)
+        return null;
+      out.write(buffer, 0, n);
+    }
+    return out.toByteArray();
+  }//}}}
+
+  private static void sendError(HttpExchange exchange, int status, String message) throws IOException {//{{{
+    StringBuilder sb = new StringBuilder("{\"error\":");
+    JsonWriter.writeString(sb, message == null ? "" : message);
+    sb.append('}');
+    send(exchange, status, "application/json; charset=utf-8", sb.toString().getBytes(UTF_8));
+  }//}}}
+
+  private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {//{{{
+    exchange.getResponseHeaders().set("Content-Type", contentType);
+    exchange.sendResponseHeaders(status, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }//}}}
+
+  /**
+   * 整形結果を{"windows":[{"paragraph":1,"actor":"名前","lines":[...]}]}の形式
+   * で出力するビジタ。
+   */
+  private static final class WindowJsonVisitor implements FormatVisitor {//{{{
+
+    private final JsonWriter writer;
+    private int paragraph = 0;
+
+    WindowJsonVisitor(Appendable out) throws IOException {//{{{
+      this.writer = new JsonWriter(out);
+      writer.beginObject().name("windows").beginArray();
+    }//}}}
+
+    @Override
+    public void paragraphStart() throws IOException {//{{{
+      paragraph++;
+    }//}}}
+
+    @Override
+    public void windowStart(String actorName) throws IOException {//{{{
+      writer.beginObject().name("paragraph").value(paragraph).name("actor");
+      if (actorName == null) writer.rawValue("null");
+      else                   writer.value(actorName);
+      writer.name("lines").beginArray();
+    }//}}}
+
+    @Override
+    public void line(CharSequence line) throws IOException {//{{{
+      writer.value(line);
+    }//}}}
+
+    @Override
+    public void windowEnd() throws IOException {//{{{
+      writer.endArray().endObject();
+    }//}}}
+
+    @Override
+    public void end() throws IOException {//{{{
+      writer.endArray().endObject();
+    }//}}}
+
+  }//}}}
+
+}
@@ -0,0 +1,183 @@
+package app;
+
+import jiro.java.lang.UtilsFile;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ * バッチ整形の前回の実行結果を記録するマニフェストクラス。
+ * </p><p>
+ * 入力ファイルごとに、内容のハッシュ値と整形オプションのハッシュ値を記録する。
+ * <br>
+ * 両方が前回と一致するファイルは、整形結果も前回と同じになるため処理を省略で
+ * きる。
+ * </p><p>
+ * ファイルはUTF-8のテキストで、１行に「相対パス TAB 内容のハッシュ値 TAB 整
+ * 形オプションのハッシュ値」を記録する。
+ * </p><p>
+ * このクラスはスレッドセーフである。
+ * </p>
+ */
+class Manifest {
+
+  private static final Charset UTF_8 = StandardCharsets.UTF_8;
+  private static final String SEP = "\t";
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  // constructor
+
+  Manifest() {//{{{
+  }//}}}
+
+  // methods
+
+  /**
+   * マニフェストファイルを読み込む。ファイルが存在しない場合は空のマニフェス
+   * トを返す。
+   * @param file マニフェストファイル
+   * @return マニフェスト
+   * @throws IOException 読み込みに失敗した場合
+   */
+  static Manifest load(Path file) throws IOException {//{{{
+    Manifest manifest = new Manifest();
+    if (!Files.exists(file))
+      return manifest;
+
+    try (BufferedReader br = Files.newBufferedReader(file, UTF_8)) {
+      String line;
+      while ((line = br.readLine()) != null) {
+        String[] cols = line.split(SEP);
+        if (cols.length != 3)
+          continue;
+        manifest.entries.put(cols[0], new Entry(cols[1], cols[2]));
+      }
+    }
+    return manifest;
+  }//}}}
+
+  /**
+   * マニフェストファイルに書き込む。
+   * 一時ファイルに書き込んでから置き換えるため、途中で失敗しても前回のマニフェ
+   * ストは壊れない。
+   * @param file マニフェストファイル
+   * @throws IOException 書き込みに失敗した場合
+   */
+  void save(Path file) throws IOException {//{{{
+    Files.createDirectories(file.toAbsolutePath().getParent());
+    Path tmp = UtilsFile.createTempFileFor(file);
+
+    try {
+      try (BufferedWriter bw = Files.newBufferedWriter(tmp, UTF_8)) {
+        for (Map.Entry<String, Entry> e : new TreeMap<>(entries).entrySet()) {
+          bw.write(e.getKey());
+          bw.write(SEP);
+          bw.write(e.getValue().contentHash);
+          bw.write(SEP);
+          bw.write(e.getValue().optionHash);
+          bw.newLine();
+        }
+      }
+
+      UtilsFile.replace(tmp, file);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }//}}}
+
+  /**
+   * 前回と同じ内容、同じ整形オプションで処理済みかどうかを返す。
+   * @param path 入力ファイルの相対パス
+   * @param contentHash 内容のハッシュ値
+   * @param optionHash 整形オプションのハッシュ値
+   * @return 処理済みの場合は{@code true}
+   */
+  boolean isUpToDate(String path, String contentHash, String optionHash) {//{{{
+    Entry entry = entries.get(path);
+    return entry != null
+      && entry.contentHash.equals(contentHash)
+      && entry.optionHash.equals(optionHash);
+  }//}}}
+
+  /**
+   * 処理結果を記録する。
+   */
+  void put(String path, String contentHash, String optionHash) {//{{{
+    entries.put(path, new Entry(contentHash, optionHash));
+  }//}}}
+
+  /**
+   * 記録を削除する。
+   */
+  void remove(String path) {//{{{
+    entries.remove(path);
+  }//}}}
+
+  /**
+   * 渡されたパス以外の記録を削除する。
+   */
+  void retainAll(Collection<String> paths) {//{{{
+    entries.keySet().retainAll(paths);
+  }//}}}
+
+  /**
+   * バイト列のSHA-256ハッシュ値を16進数の文字列で返す。
+   */
+  static String hash(byte[] bytes) {//{{{
+    return toHex(newDigest().digest(bytes));
+  }//}}}
+
+  /**
+   * 文字列のSHA-256ハッシュ値を16進数の文字列で返す。
+   */
+  static String hash(String text) {//{{{
+    return hash(text.getBytes(UTF_8));
+  }//}}}
+
+  // private methods
+
+  private static MessageDigest newDigest() {//{{{
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // SHA-256はすべてのJava実行環境で提供される
+      throw new IllegalStateException(e);
+    }
+  }//}}}
+
+  private static String toHex(byte[] bytes) {//{{{
+    StringBuilder sb = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes)
+      sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    return sb.toString();
+  }//}}}
+
+  /**
+   * マニフェストの１件分の記録。
+   */
+  private static final class Entry {//{{{
+
+    final String contentHash;
+    final String optionHash;
+
+    Entry(String contentHash, String optionHash) {//{{{
+      this.contentHash = contentHash;
+      this.optionHash  = optionHash;
+    }//}}}
+
+  }//}}}
+
+}
@@ -0,0 +1,55 @@
+package jiro.java.lang;
+
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * <p>
+ * 整形結果をAppendableに出力するビジタ。
+ * </p><p>
+ * 出力先がWriterなどのFlushableの場合は、段落ごとと終了時にフラッシュする。
+ * </p>
+ * @see TextSink
+ */
+public class AppendableSink extends TextSink {
+
+  private final Appendable out;
+
+  // constructor
+
+  public AppendableSink(Appendable out) {//{{{
+    this(out, ActorNameType.TOP_ONLY);
+  }//}}}
+
+  public AppendableSink(Appendable out, ActorNameType actorNameType) {//{{{
+    super(actorNameType);
+    this.out = out;
+  }//}}}
+
+  // public methods
+
+  @Override
+  public void paragraphEnd() throws IOException {//{{{
+    flush();
+  }//}}}
+
+  @Override
+  public void end() throws IOException {//{{{
+    flush();
+  }//}}}
+
+  // protected methods
+
+  @Override
+  protected void write(CharSequence text) throws IOException {//{{{
+    out.append(text);
+  }//}}}
+
+  // private methods
+
+  private void flush() throws IOException {//{{{
+    if (out instanceof Flushable)
+      ((Flushable) out).flush();
+  }//}}}
+
+}
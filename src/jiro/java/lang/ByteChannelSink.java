@@ -0,0 +1,92 @@
+package jiro.java.lang;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>
+ * 整形結果をUTF-8に直接エンコードしてWritableByteChannelに出力するビジタ。
+ * </p><p>
+ * 行の文字列はバイト列に変換した文字列を生成せず、バッファに直接エンコードする。
+ * <br>
+ * バッファが一杯になった時点と終了時にチャネルへ書き込む。
+ * </p>
+ * @see TextSink
+ */
+public class ByteChannelSink extends TextSink implements Flushable {
+
+  private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+  private final WritableByteChannel channel;
+  private final ByteBuffer buffer;
+  private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+  // constructor
+
+  public ByteChannelSink(WritableByteChannel channel) {//{{{
+    this(channel, ByteBuffer.allocateDirect(DEFAULT_BUFFER_SIZE), ActorNameType.TOP_ONLY);
+  }//}}}
+
+  /**
+   * @param channel 出力先
+   * @param buffer エンコードに使用するバッファ。６バイト以上の容量が必要
+   * @param actorNameType アクター名の表示スタイル
+   */
+  public ByteChannelSink(WritableByteChannel channel, ByteBuffer buffer, ActorNameType actorNameType) {//{{{
+    super(actorNameType);
+    if (buffer.capacity() < 6)
+      throw new IllegalArgumentException("bufferの容量が不足しています。 - capacity : " + buffer.capacity());
+    this.channel = channel;
+    this.buffer  = buffer;
+    ((Buffer) buffer).clear();
+  }//}}}
+
+  // public methods
+
+  @Override
+  public void end() throws IOException {//{{{
+    flush();
+  }//}}}
+
+  /**
+   * バッファの内容をチャネルに書き込む。
+   * @throws IOException 書き込みに失敗した場合
+   */
+  @Override
+  public void flush() throws IOException {//{{{
+    ((Buffer) buffer).flip();
+    while (buffer.hasRemaining())
+      channel.write(buffer);
+    ((Buffer) buffer).clear();
+  }//}}}
+
+  // protected methods
+
+  @Override
+  protected void write(CharSequence text) throws IOException {//{{{
+    CharBuffer in = CharBuffer.wrap(text);
+    encoder.reset();
+
+    while (true) {
+      CoderResult result = encoder.encode(in, buffer, true);
+      if (result.isUnderflow())
+        break;
+      if (result.isOverflow()) {
+        flush();
+        continue;
+      }
+      result.throwException();
+    }
+
+    while (encoder.flush(buffer).isOverflow())
+      flush();
+  }//}}}
+
+}
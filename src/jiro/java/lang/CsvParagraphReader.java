@@ -0,0 +1,531 @@
+package jiro.java.lang;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * RFC 4180形式のCSVからテキストを段落単位で読み取るクラス。
+ * </p><p>
+ * CSVは文字単位で１回だけ走査し、ダブルクォートで囲まれたカンマ、改行、２つ
+ * 続くダブルクォートを含むセルを扱う。ダブルクォートが閉じられずにCSVが終わ
+ * った場合は、そのレコードの行番号を含むIOExceptionを投げる。<br>
+ * 読み取りはレコード単位で行い、指定した列以外のセルは文字列を生成せずに読み
+ * 飛ばす。一度に保持するのは読み取り中のレコードと段落だけであるため、行数の
+ * 多いCSVでも全体をメモリに読み込まずに処理できる。
+ * </p><p>
+ * 各レコードは次の規則で段落に対応付ける。
+ * </p>
+ * <ul>
+ * <li>アクター列が空でないレコードは新しい段落を開始し、段落の先頭に「# アク
+ * ター名」の行を追加する。</li>
+ * <li>区切り列が空でないレコードは新しい段落を開始する。</li>
+ * <li>テキスト列のセルは改行ごとに１行として段落に追加する。セル内の空の行は
+ * 段落の区切りとする。</li>
+ * <li>すべての列が空のレコードは段落の区切りとする。</li>
+ * </ul>
+ * <p>
+ * テキストファイルと異なり、最後の段落は空のレコードで終わらない場合も読み取
+ * る。<br>
+ * readArena()で読み取ったTextArenaのasList()をFormattableText.Builderに渡す
+ * と、複製せずに整形できる。
+ * </p>
+ */
+public class CsvParagraphReader implements Closeable {
+
+  private static final char QUOTE = '"';
+  private static final char LF    = '\n';
+  private static final char CR    = '\r';
+  private static final char BOM   = '\uFEFF';
+
+  private static final int NONE = -1;
+
+  private final Reader reader;
+  private final char delimiter;
+  private final boolean header;
+
+  private final String actorName;
+  private final String textName;
+  private final String breakName;
+  private int actorColumn;
+  private int textColumn;
+  private int breakColumn;
+
+  private final char[] buffer = new char[8192];
+  private int position = 0;
+  private int limit    = 0;
+  private boolean started = false;
+
+  /** 読み取った改行の数。CRLFは１つと数える */
+  private int lineCount = 0;
+
+  /** 読み取り中のレコードの各列のセル */
+  private final StringBuilder actorCell = new StringBuilder();
+  private final StringBuilder textCell  = new StringBuilder();
+  private final StringBuilder breakCell = new StringBuilder();
+
+  /** ヘッダ行の読み取り中に使用するセル */
+  private final StringBuilder headerCell = new StringBuilder();
+  private List<String> headerRow = null;
+
+  /** readParagraph()で返す、読み取り済みの段落 */
+  private final ArrayDeque<List<String>> ready = new ArrayDeque<>();
+  private List<String> current = new ArrayList<>();
+
+  // builder
+
+  /**
+   * 列の割り当てを指定してCsvParagraphReaderを生成するBuilder。
+   * 列は0から始まる番号か、ヘッダ行の列名で指定する。
+   */
+  public static class Builder {//{{{
+
+    private final Reader reader;
+
+    private char delimiter = ',';
+    private boolean header = false;
+
+    private int actorColumn = NONE;
+    private int textColumn  = 0;
+    private int breakColumn = NONE;
+
+    private String actorName = null;
+    private String textName  = null;
+    private String breakName = null;
+
+    // constructor
+
+    public Builder(Reader reader) {//{{{
+      this.reader = reader;
+    }//}}}
+
+    /**
+     * UTF-8のCSVファイルを読み取るBuilderを生成する。
+     * @param path 読み取り対象のCSVファイル
+     * @throws IOException ファイルを開けなかった場合
+     */
+    public Builder(Path path) throws IOException {//{{{
+      this(Files.newBufferedReader(path, StandardCharsets.UTF_8));
+    }//}}}
+
+    // option methods
+
+    /**
+     * 先頭のレコードをヘッダ行として読み飛ばすかどうかを指定する。
+     * 列名で列を指定した場合は常にヘッダ行として扱う。
+     */
+    public Builder header(boolean bool) {//{{{
+      this.header = bool;
+      return this;
+    }//}}}
+
+    public Builder delimiter(char delimiter) {//{{{
+      if (delimiter == QUOTE || delimiter == LF || delimiter == CR)
+        throw new IllegalArgumentException("区切り文字に使用できない文字です。 - delimiter : " + delimiter);
+      this.delimiter = delimiter;
+      return this;
+    }//}}}
+
+    public Builder actorColumn(int column) {//{{{
+      this.actorColumn = checkColumn("actorColumn", column);
+      this.actorName   = null;
+      return this;
+    }//}}}
+
+    public Builder actorColumn(String name) {//{{{
+      this.actorName   = name;
+      this.actorColumn = NONE;
+      return this;
+    }//}}}
+
+    public Builder textColumn(int column) {//{{{
+      this.textColumn = checkColumn("textColumn", column);
+      this.textName   = null;
+      return this;
+    }//}}}
+
+    public Builder textColumn(String name) {//{{{
+      this.textName   = name;
+      this.textColumn = NONE;
+      return this;
+    }//}}}
+
+    public Builder breakColumn(int column) {//{{{
+      this.breakColumn = checkColumn("breakColumn", column);
+      this.breakName   = null;
+      return this;
+    }//}}}
+
+    public Builder breakColumn(String name) {//{{{
+      this.breakName   = name;
+      this.breakColumn = NONE;
+      return this;
+    }//}}}
+
+    /**
+     * CsvParagraphReaderを生成する。
+     * @return CsvParagraphReader
+     * @throws IllegalArgumentException 番号で指定した列が複数の役割で重複する
+     * 場合
+     */
+    public CsvParagraphReader build() {//{{{
+      String overlap = overlapOf(actorColumn, textColumn, breakColumn);
+      if (overlap != null)
+        throw new IllegalArgumentException("同じ列を複数の役割に割り当てることはできません。 - " + overlap);
+      return new CsvParagraphReader(this);
+    }//}}}
+
+    private static int checkColumn(String name, int column) {//{{{
+      if (column < 0)
+        throw new IllegalArgumentException("列の番号には0以上の値を指定する必要があります。 - " + name + " : " + column);
+      return column;
+    }//}}}
+
+  }//}}}
+
+  // private constructor
+
+  private CsvParagraphReader(Builder builder) {//{{{
+    this.reader      = builder.reader;
+    this.delimiter   = builder.delimiter;
+    this.actorName   = builder.actorName;
+    this.textName    = builder.textName;
+    this.breakName   = builder.breakName;
+    this.actorColumn = builder.actorColumn;
+    this.textColumn  = builder.textColumn;
+    this.breakColumn = builder.breakColumn;
+    this.header      = builder.header
+      || actorName != null
+      || textName  != null
+      || breakName != null;
+  }//}}}
+
+  // public methods
+
+  /**
+   * 次の段落を読み取る。
+   * @return 段落の行リスト。これ以上段落が存在しない場合は{@code null}
+   * @throws IOException 読み取りに失敗した場合、ヘッダ行に指定した列名が存在
+   * しない場合、列名で指定した列が複数の役割で重複する場合、またはダブルクォー
+   * トで囲まれたセルが閉じられずにCSVが終わった場合
+   */
+  public List<String> readParagraph() throws IOException {//{{{
+    ListSink sink = new ListSink();
+    while (ready.isEmpty()) {
+      if (!readRecord()) {
+        sink.endParagraph();
+        break;
+      }
+      processRecord(sink);
+    }
+    return ready.poll();
+  }//}}}
+
+  /**
+   * 残りのすべての段落を読み取る。
+   * @return 段落リスト
+   * @throws IOException 読み取りに失敗した場合
+   */
+  public List<List<String>> readAllParagraphs() throws IOException {//{{{
+    List<List<String>> paragraphList = new ArrayList<>();
+
+    List<String> paragraph;
+    while ((paragraph = readParagraph()) != null)
+      paragraphList.add(paragraph);
+
+    return paragraphList;
+  }//}}}
+
+  /**
+   * <p>
+   * 残りのすべての段落をTextArenaに読み取る。
+   * </p><p>
+   * 段落の区切りはreadAllParagraphs()と同じだが、行ごとのListを生成しない。
+   * </p>
+   * @return 読み取った段落を保持するTextArena
+   * @throws IOException 読み取りに失敗した場合
+   */
+  public TextArena readArena() throws IOException {//{{{
+    TextArena.Builder builder = new TextArena.Builder();
+
+    // readParagraph()で読み取り済みの段落
+    for (List<String> paragraph : ready)
+      builder.addParagraph(paragraph);
+    ready.clear();
+
+    ArenaSink sink = new ArenaSink(builder);
+    for (String line : current)
+      sink.line(line);
+    current = new ArrayList<>();
+
+    while (readRecord())
+      processRecord(sink);
+    sink.endParagraph();
+
+    return builder.build();
+  }//}}}
+
+  @Override
+  public void close() throws IOException {//{{{
+    reader.close();
+  }//}}}
+
+  // private methods
+
+  /**
+   * レコードを１つ読み取り、割り当てた列のセルに格納する。
+   * @return レコードが存在しない場合は{@code false}
+   */
+  private boolean readRecord() throws IOException {//{{{
+    if (!started) {
+      started = true;
+      if (peek() == BOM)
+        position++;
+      if (header)
+        readHeader();
+    }
+    return readFields();
+  }//}}}
+
+  private void readHeader() throws IOException {//{{{
+    headerRow = new ArrayList<>();
+    boolean exists = readFields();
+    List<String> names = headerRow;
+    headerRow = null;
+
+    if (!exists && (actorName != null || textName != null || breakName != null))
+      throw new IOException("CSVにヘッダ行がありません。");
+
+    if (actorName != null) actorColumn = indexOf(names, actorName);
+    if (textName  != null) textColumn  = indexOf(names, textName);
+    if (breakName != null) breakColumn = indexOf(names, breakName);
+
+    String overlap = overlapOf(actorColumn, textColumn, breakColumn);
+    if (overlap != null)
+      throw new IOException("同じ列を複数の役割に割り当てることはできません。 - " + overlap);
+  }//}}}
+
+  private static int indexOf(List<String> names, String name) throws IOException {//{{{
+    int index = names.indexOf(name);
+    if (index < 0)
+      throw new IOException("CSVのヘッダ行に列が見つかりません。 - column : " + name);
+    return index;
+  }//}}}
+
+  /**
+   * レコードの各セルを走査する。
+   * 割り当てのない列のセルは格納せずに読み飛ばす。
+   */
+  private boolean readFields() throws IOException {//{{{
+    int recordLine = lineCount + 1;
+    int ch = read();
+    if (ch < 0)
+      return false;
+
+    actorCell.setLength(0);
+    textCell.setLength(0);
+    breakCell.setLength(0);
+
+    int column = 0;
+    while (true) {
+      StringBuilder cell = cellOf(column);
+
+      if (ch == QUOTE) {
+        while (true) {
+          ch = read();
+          if (ch < 0)
+            throw new IOException("CSVのダブルクォートが閉じられていません。 - line : " + recordLine);
+          if (ch == QUOTE) {
+            if (peek() != QUOTE) {
+              ch = read();
+              break;
+            }
+            position++;
+          }
+          if (cell != null)
+            cell.append((char) ch);
+        }
+      }
+
+      // 囲みのないセル。閉じたダブルクォートの後に続く文字もセルに含める
+      while (0 <= ch && ch != delimiter && ch != LF && ch != CR) {
+        if (cell != null)
+          cell.append((char) ch);
+        ch = read();
+      }
+
+      if (headerRow != null) {
+        headerRow.add(cell.toString());
+        cell.setLength(0);
+      }
+
+      if (ch == delimiter) {
+        column++;
+        ch = read();
+        continue;
+      }
+
+      if (ch == CR && peek() == LF)
+        read();
+      return true;
+    }
+  }//}}}
+
+  /**
+   * 複数の役割に割り当てた列を返す。
+   * １つの列には１つのセルしか格納できないため、重複した列の役割のセルは読み取
+   * れない。
+   * @return 重複した役割と列の番号。重複していない場合は{@code null}
+   */
+  private static String overlapOf(int actorColumn, int textColumn, int breakColumn) {//{{{
+    if (actorColumn != NONE && actorColumn == textColumn)
+      return "actorColumn, textColumn : " + actorColumn;
+    if (actorColumn != NONE && actorColumn == breakColumn)
+      return "actorColumn, breakColumn : " + actorColumn;
+    if (textColumn != NONE && textColumn == breakColumn)
+      return "textColumn, breakColumn : " + textColumn;
+    return null;
+  }//}}}
+
+  private StringBuilder cellOf(int column) {//{{{
+    if (headerRow != null)     return headerCell;
+    if (column == actorColumn) return actorCell;
+    if (column == textColumn)  return textCell;
+    if (column == breakColumn) return breakCell;
+    return null;
+  }//}}}
+
+  /**
+   * 読み取ったレコードを段落の行に変換する。
+   */
+  private void processRecord(Sink sink) {//{{{
+    String actor    = actorCell.toString().trim();
+    boolean brk     = 0 < breakCell.toString().trim().length();
+    boolean hasText = 0 < textCell.length();
+
+    if (actor.isEmpty() && !brk && !hasText) {
+      sink.endParagraph();
+      return;
+    }
+
+    if (!actor.isEmpty() || brk)
+      sink.endParagraph();
+    if (!actor.isEmpty())
+      sink.line("# " + actor);
+
+    int length = textCell.length();
+    int start = 0;
+    for (int i=0; i<length; i++) {
+      char ch = textCell.charAt(i);
+      if (ch != LF && ch != CR)
+        continue;
+
+      textLine(sink, start, i);
+      if (ch == CR && i + 1 < length && textCell.charAt(i + 1) == LF)
+        i++;
+      start = i + 1;
+    }
+
+    // セルの末尾の改行は段落の区切りとして扱わない
+    if (start < length)
+      textLine(sink, start, length);
+  }//}}}
+
+  private void textLine(Sink sink, int start, int end) {//{{{
+    if (start == end)
+      sink.endParagraph();
+    else
+      sink.line(CharBuffer.wrap(textCell, start, end));
+  }//}}}
+
+  private int read() throws IOException {//{{{
+    if (position == limit && !fill())
+      return -1;
+    char ch = buffer[position++];
+    if (ch == LF || (ch == CR && peek() != LF))
+      lineCount++;
+    return ch;
+  }//}}}
+
+  private int peek() throws IOException {//{{{
+    if (position == limit && !fill())
+      return -1;
+    return buffer[position];
+  }//}}}
+
+  private boolean fill() throws IOException {//{{{
+    int n = reader.read(buffer, 0, buffer.length);
+    if (n <= 0)
+      return false;
+    position = 0;
+    limit    = n;
+    return true;
+  }//}}}
+
+  /**
+   * 段落の行の出力先。
+   */
+  private interface Sink {//{{{
+
+    void line(CharSequence line);
+
+    void endParagraph();
+
+  }//}}}
+
+  /**
+   * readParagraph()で返す段落リストへの出力先。
+   */
+  private final class ListSink implements Sink {//{{{
+
+    @Override
+    public void line(CharSequence line) {//{{{
+      current.add(line.toString());
+    }//}}}
+
+    @Override
+    public void endParagraph() {//{{{
+      if (current.isEmpty())
+        return;
+      ready.add(current);
+      current = new ArrayList<>();
+    }//}}}
+
+  }//}}}
+
+  /**
+   * TextArenaへの出力先。
+   */
+  private static final class ArenaSink implements Sink {//{{{
+
+    private final TextArena.Builder builder;
+    private boolean hasLine = false;
+
+    ArenaSink(TextArena.Builder builder) {//{{{
+      this.builder = builder;
+    }//}}}
+
+    @Override
+    public void line(CharSequence line) {//{{{
+      builder.addLine(line);
+      hasLine = true;
+    }//}}}
+
+    @Override
+    public void endParagraph() {//{{{
+      if (hasLine)
+        builder.endParagraph();
+      hasLine = false;
+    }//}}}
+
+  }//}}}
+
+}
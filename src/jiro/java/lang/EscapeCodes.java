@@ -0,0 +1,356 @@
+package jiro.java.lang;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <p>
+ * ツクールMVの制御文字(エスケープコード)の字句解析と表示幅を定義するクラス。
+ * </p><p>
+ * 制御文字は次のいずれかとする。これはツクールMVのWindow_Baseと同じ規則であ
+ * る。
+ * </p>
+ * <ul>
+ * <li>{@code \}と英字の並び、続けて任意で{@code [引数]}({@code \C[2]}、
+ * {@code \I[64]}、{@code \N[1]}、{@code \G}など)</li>
+ * <li>{@code \}と記号１文字({@code \{ \} \$ \. \| \! \> \< \^})</li>
+ * <li>{@code \\}(円記号１文字として表示される)</li>
+ * </ul>
+ * <p>
+ * 制御文字の幅は既定で0とし、{@code \I}はアイコン１つ分(全角１文字分)、
+ * {@code \\}は円記号１文字分とする。<br>
+ * 英字の制御文字は、固定の幅か、引数の番号から引いた文字列の幅を設定できる。
+ * 例えば{@code \N[n]}にアクター名の表を設定すると、アクター名の幅として扱う。
+ * </p><p>
+ * 字句解析は正規表現を使用せず、LineBreakerの単語の走査の中で文字単位に行う。
+ * <br>
+ * このクラスは不変クラスであり、複数スレッドから共有して使用できる。
+ * </p>
+ */
+public final class EscapeCodes {
+
+  private static final char ESCAPE = '\\';
+
+  /** 引数の最大の長さ */
+  private static final int MAX_ARGUMENT_LENGTH = 32;
+
+  /** 既定のアイコンの幅。全角１文字分 */
+  private static final float ICON_WIDTH = 2;
+
+  /** 引数を持たない制御文字の引数の番号 */
+  private static final int NO_ARGUMENT = -1;
+
+  /** 番号でない引数の番号 */
+  private static final int INVALID_ARGUMENT = -2;
+
+  /** 記号１文字の制御文字 */
+  private static final String SYMBOLS = "{}$.|!><^";
+
+  /**
+   * ツクールMVの既定の制御文字。
+   * アイコンを全角１文字分、それ以外の英字の制御文字を幅0とする。
+   */
+  public static final EscapeCodes DEFAULT = new Builder().build();
+
+  private final Map<String, Float> widths;
+  private final Map<String, Map<Integer, String>> texts;
+
+  /**
+   * 英字の制御文字の設定を、名前の先頭の英字(A〜Z)ごとに並べた表。
+   * 走査中に名前の文字列を生成せずに、文字単位の比較で設定を引く。
+   */
+  private final Code[][] codes = new Code[26][];
+
+  // builder
+
+  /**
+   * 制御文字の幅を設定してEscapeCodesを生成するBuilder。
+   * 制御文字の名前は大文字小文字を区別しない。
+   */
+  public static class Builder {//{{{
+
+    private final Map<String, Float> widths = new HashMap<>();
+    private final Map<String, Map<Integer, String>> texts = new HashMap<>();
+
+    public Builder() {//{{{
+      widths.put("I", ICON_WIDTH);
+    }//}}}
+
+    /**
+     * アイコン({@code \I[n]})の幅を設定する。
+     * @param width 幅。WidthMeasureと同じ単位とする
+     * @return このBuilder
+     */
+    public Builder iconWidth(float width) {//{{{
+      return width("I", width);
+    }//}}}
+
+    /**
+     * 英字の制御文字を固定の幅として扱う。
+     * @param name {@code \}を除いた制御文字の名前(Vなど)
+     * @param width 幅。WidthMeasureと同じ単位とする
+     * @return このBuilder
+     */
+    public Builder width(String name, float width) {//{{{
+      if (width < 0)
+        throw new IllegalArgumentException("widthに負の数を指定することはできません。 - width : " + width);
+      String key = checkName(name);
+      texts.remove(key);
+      widths.put(key, width);
+      return this;
+    }//}}}
+
+    /**
+     * 英字の制御文字を、引数の番号から引いた文字列の幅として扱う。
+     * 表にない番号の場合は幅を0とする。
+     * @param name {@code \}を除いた制御文字の名前(N、Pなど)
+     * @param values 引数の番号と表示される文字列の表
+     * @return このBuilder
+     */
+    public Builder text(String name, Map<Integer, String> values) {//{{{
+      String key = checkName(name);
+      widths.remove(key);
+      texts.put(key, Collections.unmodifiableMap(new TreeMap<>(values)));
+      return this;
+    }//}}}
+
+    /**
+     * 引数を持たない英字の制御文字を、文字列の幅として扱う。
+     * @param name {@code \}を除いた制御文字の名前(Gなど)
+     * @param value 表示される文字列
+     * @return このBuilder
+     */
+    public Builder text(String name, String value) {//{{{
+      return text(name, Collections.singletonMap(NO_ARGUMENT, value));
+    }//}}}
+
+    public EscapeCodes build() {//{{{
+      return new EscapeCodes(this);
+    }//}}}
+
+    private static String checkName(String name) {//{{{
+      if (name.isEmpty())
+        throw new IllegalArgumentException("制御文字の名前が空です。");
+      for (int i=0; i<name.length(); i++) {
+        if (!isLetter(name.charAt(i)))
+          throw new IllegalArgumentException("制御文字の名前には英字だけを使用できます。 - name : " + name);
+      }
+      return name.toUpperCase();
+    }//}}}
+
+  }//}}}
+
+  // private constructor
+
+  private EscapeCodes(Builder builder) {//{{{
+    this.widths = Collections.unmodifiableMap(new TreeMap<>(builder.widths));
+    this.texts  = Collections.unmodifiableMap(new TreeMap<>(builder.texts));
+
+    List<Code> list = new ArrayList<>();
+    for (Map.Entry<String, Float> e : widths.entrySet())
+      list.add(new Code(e.getKey(), e.getValue(), null));
+    for (Map.Entry<String, Map<Integer, String>> e : texts.entrySet())
+      list.add(new Code(e.getKey(), 0, e.getValue()));
+
+    for (int i=0; i<codes.length; i++) {
+      char first = (char) ('A' + i);
+      codes[i] = list.stream()
+        .filter(code -> code.name.charAt(0) == first)
+        .toArray(Code[]::new);
+    }
+  }//}}}
+
+  // public methods
+
+  /**
+   * 文字列の表示幅を返す。制御文字は設定した幅で数える。
+   * @param text 文字列
+   * @param measure 文字幅の求め方
+   * @return 表示幅
+   */
+  public float width(CharSequence text, WidthMeasure measure) {//{{{
+    float width = 0;
+    int length = text.length();
+    for (int i=0; i<length; i++) {
+      int n = match(text, i);
+      if (0 < n) {
+        width += width(text, i, n, measure);
+        i += n - 1;
+        continue;
+      }
+      width += measure.width(text, i);
+    }
+    return width;
+  }//}}}
+
+  @Override
+  public String toString() {//{{{
+    return String.format("EscapeCodes: { widths = %s, texts = %s }.", widths, texts);
+  }//}}}
+
+  // package private methods
+
+  /**
+   * 指定位置から始まる制御文字の長さを返す。
+   * @param text 文字列
+   * @param index 位置
+   * @return 制御文字の長さ。制御文字でない場合は0
+   */
+  int match(CharSequence text, int index) {//{{{
+    int length = text.length();
+    if (text.charAt(index) != ESCAPE || length <= index + 1)
+      return 0;
+
+    char ch = text.charAt(index + 1);
+    if (ch == ESCAPE || 0 <= SYMBOLS.indexOf(ch))
+      return 2;
+    if (!isLetter(ch))
+      return 0;
+
+    int end = index + 2;
+    while (end < length && isLetter(text.charAt(end)))
+      end++;
+
+    int close = argumentEnd(text, end);
+    return (0 < close ? close : end) - index;
+  }//}}}
+
+  /**
+   * match(CharSequence, int)が返した長さの制御文字の幅を返す。
+   */
+  float width(CharSequence text, int index, int length, WidthMeasure measure) {//{{{
+    char ch = text.charAt(index + 1);
+    if (ch == ESCAPE)
+      return measure.width(text, index);
+    if (!isLetter(ch))
+      return 0;
+
+    int end = index + 2;
+    while (end < index + length && isLetter(text.charAt(end)))
+      end++;
+
+    Code code = codeOf(text, index + 1, end);
+    if (code == null)
+      return 0;
+    if (code.arguments == null)
+      return code.width;
+
+    int argument = end < index + length ? argument(text, end + 1, index + length - 1) : NO_ARGUMENT;
+    String value = code.valueOf(argument);
+    return value == null ? 0 : width(value, measure);
+  }//}}}
+
+  // private methods
+
+  /**
+   * 英字の並びを名前とする制御文字の設定を返す。大文字小文字を区別しない。
+   * @return 設定。設定がない場合は{@code null}
+   */
+  private Code codeOf(CharSequence text, int start, int end) {//{{{
+    Code[] candidates = codes[Character.toUpperCase(text.charAt(start)) - 'A'];
+    for (Code code : candidates) {
+      if (code.matches(text, start, end))
+        return code;
+    }
+    return null;
+  }//}}}
+
+  /**
+   * 英字の後に続く{@code [引数]}の終了位置を返す。引数がない場合は0を返す。
+   */
+  private static int argumentEnd(CharSequence text, int start) {//{{{
+    int length = text.length();
+    if (length <= start || text.charAt(start) != '[')
+      return 0;
+
+    int limit = Math.min(length, start + 2 + MAX_ARGUMENT_LENGTH);
+    for (int i=start + 1; i<limit; i++) {
+      char ch = text.charAt(i);
+      if (ch == ']')
+        return i + 1;
+      if (ch == '[' || ch == ESCAPE)
+        return 0;
+    }
+    return 0;
+  }//}}}
+
+  /**
+   * 引数を番号として返す。番号でない場合はINVALID_ARGUMENTを返す。
+   */
+  private static int argument(CharSequence text, int start, int end) {//{{{
+    if (end <= start)
+      return INVALID_ARGUMENT;
+    int value = 0;
+    for (int i=start; i<end; i++) {
+      char ch = text.charAt(i);
+      if (ch < '0' || '9' < ch || 100_000_000 < value)
+        return INVALID_ARGUMENT;
+      value = value * 10 + (ch - '0');
+    }
+    return value;
+  }//}}}
+
+  private static boolean isLetter(char ch) {//{{{
+    return ('A' <= ch && ch <= 'Z') || ('a' <= ch && ch <= 'z');
+  }//}}}
+
+  // classes
+
+  /**
+   * 英字の制御文字１つ分の設定。
+   */
+  private static final class Code {//{{{
+
+    /** 大文字の名前 */
+    final String name;
+
+    /** 固定の幅 */
+    final float width;
+
+    /** 文字列の表の引数の番号と文字列。固定の幅の場合は{@code null} */
+    final int[] arguments;
+    final String[] values;
+
+    Code(String name, float width, Map<Integer, String> table) {//{{{
+      this.name  = name;
+      this.width = width;
+      if (table == null) {
+        this.arguments = null;
+        this.values    = null;
+        return;
+      }
+
+      // 表はTreeMapから作成するため、引数の番号の昇順に並ぶ
+      this.arguments = new int[table.size()];
+      this.values    = new String[table.size()];
+      int i = 0;
+      for (Map.Entry<Integer, String> e : table.entrySet()) {
+        arguments[i] = e.getKey();
+        values[i]    = e.getValue();
+        i++;
+      }
+    }//}}}
+
+    boolean matches(CharSequence text, int start, int end) {//{{{
+      if (end - start != name.length())
+        return false;
+      for (int i=start; i<end; i++) {
+        if (Character.toUpperCase(text.charAt(i)) != name.charAt(i - start))
+          return false;
+      }
+      return true;
+    }//}}}
+
+    String valueOf(int argument) {//{{{
+      int i = Arrays.binarySearch(arguments, argument);
+      return i < 0 ? null : values[i];
+    }//}}}
+
+  }//}}}
+
+}
@@ -0,0 +1,243 @@
+package jiro.java.lang;
+
+import java.awt.Font;
+import java.awt.FontFormatException;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>
+ * フォントの送り幅(advance)をピクセル単位の文字幅とするWidthMeasure。
+ * </p><p>
+ * ツクールMVはプロポーショナルフォントで文章を表示するため、桁数で折り返すと
+ * 行がはみ出したり、行末が揃わなかったりする。このクラスは実際に表示に使用す
+ * るフォントの送り幅で幅を求める。
+ * </p><p>
+ * 送り幅は基本多言語面の文字を256文字ずつのページに分けたfloat配列の表に保持
+ * する。ページは最初に使用した時点で１回のGlyphVectorの生成で256文字分をまと
+ * めて求めるため、表が埋まった後は文字ごとにAWTを呼び出すことはなく、配列の
+ * 参照だけで幅を求める。<br>
+ * 補助文字の送り幅はコードポイントとfloatの配列によるハッシュ表に保持する。
+ * </p><p>
+ * 直前の文字と結合する文字(下位サロゲート、ゼロ幅接合子に続く文字)と、
+ * UnicodeWidthで幅0とする文字(制御文字、結合記号など)の幅は0とする。
+ * </p><p>
+ * ウィンドウシステムを使用しないため、ヘッドレス環境でも使用できる。<br>
+ * このクラスはスレッドセーフである。
+ * </p>
+ */
+public final class FontWidth implements WidthMeasure {
+
+  private static final int PAGE_BITS = 8;
+  private static final int PAGE_SIZE = 1 << PAGE_BITS;
+  private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+  private static final char ZWJ = '\u200D';
+
+  private final Font font;
+  private final FontRenderContext frc;
+
+  /** 基本多言語面の送り幅の表 */
+  private final AtomicReferenceArray<float[]> pages =
+    new AtomicReferenceArray<>((Character.MAX_VALUE + 1) >> PAGE_BITS);
+
+  /** 補助文字の送り幅の表 */
+  private final SupplementaryTable supplementary = new SupplementaryTable();
+
+  // constructor
+
+  /**
+   * アンチエイリアスと小数の送り幅を有効にして送り幅を求める。
+   * @param font フォント。サイズは表示に使用するサイズを指定する
+   */
+  public FontWidth(Font font) {//{{{
+    this(font, new FontRenderContext(null, true, true));
+  }//}}}
+
+  /**
+   * @param font フォント。サイズは表示に使用するサイズを指定する
+   * @param frc 送り幅の計算に使用するFontRenderContext
+   */
+  public FontWidth(Font font, FontRenderContext frc) {//{{{
+    this.font = font;
+    this.frc  = frc;
+  }//}}}
+
+  // public methods
+
+  /**
+   * TrueTypeフォントのファイルを読み込む。
+   * @param path フォントファイル
+   * @param size フォントのサイズ(ピクセル)
+   * @return フォントの送り幅を文字幅とするWidthMeasure
+   * @throws IOException 読み込みに失敗した場合、またはフォントの形式が正しく
+   * ない場合
+   */
+  public static FontWidth load(Path path, float size) throws IOException {//{{{
+    if (size <= 0)
+      throw new IllegalArgumentException("sizeには正の数を指定する必要があります。 - size : " + size);
+
+    try (InputStream in = Files.newInputStream(path)) {
+      return new FontWidth(Font.createFont(Font.TRUETYPE_FONT, in).deriveFont(size));
+    } catch (FontFormatException e) {
+      throw new IOException("フォントを読み込めません。 - path : " + path, e);
+    }
+  }//}}}
+
+  @Override
+  public float width(CharSequence text, int index) {//{{{
+    char ch = text.charAt(index);
+    if (0 < index) {
+      char prev = text.charAt(index - 1);
+      if (prev == ZWJ)
+        return 0f;
+      if (Character.isLowSurrogate(ch) && Character.isHighSurrogate(prev))
+        return 0f;
+    }
+
+    if (Character.isHighSurrogate(ch)
+        && index + 1 < text.length()
+        && Character.isLowSurrogate(text.charAt(index + 1)))
+    {
+      return supplementaryWidth(Character.toCodePoint(ch, text.charAt(index + 1)));
+    }
+
+    return page(ch >> PAGE_BITS)[ch & PAGE_MASK];
+  }//}}}
+
+  /**
+   * 指定範囲の文字の送り幅を表に読み込む。
+   * 使用する文字の範囲が分かっている場合に、最初の整形の前に呼び出す。
+   * @param from 最初の文字(この文字を含む)
+   * @param to 最後の文字(この文字を含む)
+   * @return このWidthMeasure
+   */
+  public FontWidth preload(char from, char to) {//{{{
+    for (int p=from >> PAGE_BITS; p<=(to >> PAGE_BITS); p++)
+      page(p);
+    return this;
+  }//}}}
+
+  public Font getFont() {//{{{
+    return font;
+  }//}}}
+
+  @Override
+  public String toString() {//{{{
+    return String.format(
+        "FontWidth: { font = %s, size = %s, antialiased = %b, fractional = %b }."
+        , font.getFontName(), font.getSize2D()
+        , frc.isAntiAliased(), frc.usesFractionalMetrics());
+  }//}}}
+
+  // private methods
+
+  private float[] page(int index) {//{{{
+    float[] page = pages.get(index);
+    if (page != null)
+      return page;
+
+    pages.compareAndSet(index, null, loadPage(index));
+    return pages.get(index);
+  }//}}}
+
+  /**
+   * 256文字分の送り幅を１回のGlyphVectorの生成で求める。
+   */
+  private float[] loadPage(int index) {//{{{
+    char[] chars = new char[PAGE_SIZE];
+    for (int i=0; i<PAGE_SIZE; i++) {
+      char ch = (char) ((index << PAGE_BITS) | i);
+      // サロゲートは単独でグリフに対応しないため空白で置き換え、幅は0とする
+      chars[i] = Character.isSurrogate(ch) ? ' ' : ch;
+    }
+
+    GlyphVector gv = font.createGlyphVector(frc, chars);
+    float[] page = new float[PAGE_SIZE];
+    for (int i=0; i<PAGE_SIZE; i++) {
+      char ch = (char) ((index << PAGE_BITS) | i);
+      if (Character.isSurrogate(ch) || UnicodeWidth.of(ch) == 0)
+        continue;
+      page[i] = gv.getGlyphMetrics(i).getAdvance();
+    }
+    return page;
+  }//}}}
+
+  private float supplementaryWidth(int codePoint) {//{{{
+    synchronized (supplementary) {
+      float width = supplementary.get(codePoint);
+      if (!Float.isNaN(width))
+        return width;
+    }
+
+    float width = UnicodeWidth.of(codePoint) == 0
+      ? 0f
+      : (float) font.getStringBounds(new String(Character.toChars(codePoint)), frc).getWidth();
+
+    synchronized (supplementary) {
+      supplementary.put(codePoint, width);
+    }
+    return width;
+  }//}}}
+
+  /**
+   * コードポイントをキー、送り幅を値とするオープンアドレス法のハッシュ表。
+   */
+  private static final class SupplementaryTable {//{{{
+
+    private static final int EMPTY = 0;
+
+    private int[] keys = new int[64];
+    private float[] values = new float[64];
+    private int size = 0;
+
+    /**
+     * 送り幅を返す。存在しない場合はNaNを返す。
+     */
+    float get(int codePoint) {//{{{
+      int mask = keys.length - 1;
+      for (int i=mix(codePoint) & mask; keys[i] != EMPTY; i=(i + 1) & mask) {
+        if (keys[i] == codePoint)
+          return values[i];
+      }
+      return Float.NaN;
+    }//}}}
+
+    void put(int codePoint, float width) {//{{{
+      if (keys.length <= (size + 1) * 2)
+        rehash(keys.length * 2);
+
+      int mask = keys.length - 1;
+      int i = mix(codePoint) & mask;
+      while (keys[i] != EMPTY && keys[i] != codePoint)
+        i = (i + 1) & mask;
+      if (keys[i] == EMPTY)
+        size++;
+      keys[i]   = codePoint;
+      values[i] = width;
+    }//}}}
+
+    private void rehash(int capacity) {//{{{
+      int[] oldKeys = keys;
+      float[] oldValues = values;
+      keys   = new int[capacity];
+      values = new float[capacity];
+      size   = 0;
+      for (int i=0; i<oldKeys.length; i++) {
+        if (oldKeys[i] != EMPTY)
+          put(oldKeys[i], oldValues[i]);
+      }
+    }//}}}
+
+    private static int mix(int codePoint) {//{{{
+      return codePoint * 0x9E3779B9 >>> 16;
+    }//}}}
+
+  }//}}}
+
+}
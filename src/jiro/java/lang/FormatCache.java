@@ -0,0 +1,232 @@
+package jiro.java.lang;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * 整形済みの段落を保持するキャッシュクラス。
+ * </p><p>
+ * 段落の内容、引き継いだアクター名、整形オプションの組をキーとして、整形結果
+ * のウィンドウリストを保持する。<br>
+ * 保持する段落数が上限を超えた場合は、最も長く参照されていない段落から破棄す
+ * る。
+ * </p><p>
+ * 同じインスタンスを複数のFormattableTextやTextFormatterで共有できる。<br>
+ * このクラスはスレッドセーフである。
+ * </p><p>
+ * 段落はキーのハッシュ値で最大16個のセグメントに振り分け、セグメントごとに
+ * 別のロックで参照順を管理する。そのため、formatParallelやFormatServerの同時
+ * リクエストのように複数スレッドから参照しても、異なるセグメントの参照は互い
+ * に待たない。<br>
+ * 保持する段落数の上限はセグメントに均等に割り当て、破棄はセグメント内で最も
+ * 長く参照されていない段落から行う。そのため、破棄の順序はキャッシュ全体で見
+ * ると近似的なLRUとなる。
+ * </p>
+ */
+public class FormatCache {
+
+  /** セグメント数の上限。2の累乗とする */
+  private static final int MAX_SEGMENTS = 16;
+
+  private final int maxSize;
+  private final Segment[] segments;
+
+  private final LongAdder hitCount      = new LongAdder();
+  private final LongAdder missCount     = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+
+  // constructor
+
+  /**
+   * @param maxSize 保持する段落数の上限
+   */
+  public FormatCache(int maxSize) {//{{{
+    if (maxSize <= 0)
+      throw new IllegalArgumentException("maxSizeには正の数を指定する必要があります。 - maxSize : " + maxSize);
+
+    // 上限が小さい場合は、空のセグメントができないようにセグメントを減らす
+    int count = 1;
+    while (count < MAX_SEGMENTS && count * 2 <= maxSize)
+      count *= 2;
+
+    this.maxSize  = maxSize;
+    this.segments = new Segment[count];
+    for (int i=0; i<count; i++)
+      segments[i] = new Segment(maxSize / count + (i < maxSize % count ? 1 : 0));
+  }//}}}
+
+  // public methods
+
+  /**
+   * 保持しているすべての段落を破棄する。統計値は変化しない。
+   */
+  public void clear() {//{{{
+    for (Segment segment : segments)
+      segment.clear();
+  }//}}}
+
+  /**
+   * 保持している段落数を返す。
+   * @return 段落数
+   */
+  public int size() {//{{{
+    int size = 0;
+    for (Segment segment : segments)
+      size += segment.size();
+    return size;
+  }//}}}
+
+  public int getMaxSize() {//{{{
+    return maxSize;
+  }//}}}
+
+  public long getHitCount() {//{{{
+    return hitCount.sum();
+  }//}}}
+
+  public long getMissCount() {//{{{
+    return missCount.sum();
+  }//}}}
+
+  public long getEvictionCount() {//{{{
+    return evictionCount.sum();
+  }//}}}
+
+  /**
+   * キャッシュのヒット率を返す。一度も参照されていない場合は0を返す。
+   * @return ヒット率
+   */
+  public double getHitRate() {//{{{
+    long hit   = getHitCount();
+    long total = hit + getMissCount();
+    return total == 0 ? 0.0 : (double) hit / total;
+  }//}}}
+
+  @Override
+  public String toString() {//{{{
+    return String.format(
+        "FormatCache: { size = %d, maxSize = %d, hit = %d, miss = %d, eviction = %d }."
+        , size(), maxSize, getHitCount(), getMissCount(), getEvictionCount());
+  }//}}}
+
+  // package private methods
+
+  /**
+   * 整形結果を取得する。
+   * @return 整形結果のウィンドウリスト。存在しない場合は{@code null}
+   */
+  List<List<String>> get(List<String> paragraph, String actorName, String fingerprint) {//{{{
+    Key key = new Key(paragraph, actorName, fingerprint);
+    List<List<String>> windowList = segmentFor(key).get(key);
+
+    if (windowList == null) missCount.increment();
+    else                    hitCount.increment();
+    return windowList;
+  }//}}}
+
+  /**
+   * 整形結果を保持する。段落とウィンドウリストは複製して保持する。
+   */
+  void put(List<String> paragraph, String actorName, String fingerprint, List<List<String>> windowList) {//{{{
+    List<List<String>> copy = new ArrayList<>(windowList.size());
+    for (List<String> window : windowList)
+      copy.add(new ArrayList<>(window));
+
+    Key key = new Key(new ArrayList<>(paragraph), actorName, fingerprint);
+    segmentFor(key).put(key, copy);
+  }//}}}
+
+  // private methods
+
+  private Segment segmentFor(Key key) {//{{{
+    int h = key.hash;
+    return segments[(h ^ (h >>> 16)) & (segments.length - 1)];
+  }//}}}
+
+  /**
+   * 参照順を管理する単位。セグメントごとのロックで排他制御する。
+   */
+  private final class Segment {//{{{
+
+    private final int capacity;
+    private final Map<Key, List<List<String>>> map;
+
+    Segment(int capacity) {//{{{
+      this.capacity = capacity;
+      this.map = new LinkedHashMap<Key, List<List<String>>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, List<List<String>>> eldest) {//{{{
+          if (Segment.this.capacity < size()) {
+            evictionCount.increment();
+            return true;
+          }
+          return false;
+        }//}}}
+      };
+    }//}}}
+
+    synchronized List<List<String>> get(Key key) {//{{{
+      return map.get(key);
+    }//}}}
+
+    synchronized void put(Key key, List<List<String>> windowList) {//{{{
+      map.put(key, windowList);
+    }//}}}
+
+    synchronized void clear() {//{{{
+      map.clear();
+    }//}}}
+
+    synchronized int size() {//{{{
+      return map.size();
+    }//}}}
+
+  }//}}}
+
+  /**
+   * キャッシュのキー。
+   */
+  private static final class Key {//{{{
+
+    private final List<String> paragraph;
+    private final String actorName;
+    private final String fingerprint;
+    private final int hash;
+
+    Key(List<String> paragraph, String actorName, String fingerprint) {//{{{
+      this.paragraph   = paragraph;
+      this.actorName   = actorName;
+      this.fingerprint = fingerprint;
+
+      int h = paragraph.hashCode();
+      h = 31 * h + (actorName == null ? 0 : actorName.hashCode());
+      h = 31 * h + fingerprint.hashCode();
+      this.hash = h;
+    }//}}}
+
+    @Override
+    public int hashCode() {//{{{
+      return hash;
+    }//}}}
+
+    @Override
+    public boolean equals(Object obj) {//{{{
+      if (this == obj)
+        return true;
+      if (!(obj instanceof Key))
+        return false;
+
+      Key other = (Key) obj;
+      return hash == other.hash
+        && fingerprint.equals(other.fingerprint)
+        && (actorName == null ? other.actorName == null : actorName.equals(other.actorName))
+        && paragraph.equals(other.paragraph);
+    }//}}}
+
+  }//}}}
+
+}
@@ -0,0 +1,413 @@
+package jiro.java.lang;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * 整形の段階ごとの処理回数、処理時間、処理量を集計するクラス。
+ * </p><p>
+ * 集計は常に有効で、LongAdderで加算するため複数スレッドから呼ばれても競合し
+ * にくい。<br>
+ * snapshot()で集計値を取得できる。
+ * </p><p>
+ * 実行環境がJDK Flight Recorderに対応している場合は、段階ごとに
+ * jiro.FormatStageイベントも発行する。イベントは記録中の場合にだけ記録される。
+ * </p><p>
+ * TextFormatterの一括整形の内訳(FORMAT_PREPAREからFORMAT_WINDOW_SPLITまで)は、行ご
+ * とに時刻を取得するため既定では集計しない。setBreakdownEnabled(boolean)で有効
+ * にした場合だけ集計する。内訳はJFRイベントを発行しない。
+ * </p>
+ */
+public final class FormatMetrics {
+
+  private static final boolean JFR_AVAILABLE = isJfrAvailable();
+
+  private static final FormatStage[] STAGES = FormatStage.values();
+  private static final Counter[] COUNTERS = new Counter[STAGES.length];
+
+  static {
+    for (int i=0; i<COUNTERS.length; i++)
+      COUNTERS[i] = new Counter();
+  }
+
+  private static volatile boolean breakdownEnabled = false;
+
+  // private constructor
+
+  private FormatMetrics() {//{{{
+  }//}}}
+
+  // public methods
+
+  /**
+   * 現在の集計値を返す。
+   * @return 集計値のスナップショット
+   */
+  public static Snapshot snapshot() {//{{{
+    Map<FormatStage, StageMetrics> map = new EnumMap<>(FormatStage.class);
+    for (FormatStage stage : STAGES)
+      map.put(stage, COUNTERS[stage.ordinal()].toMetrics(stage));
+    return new Snapshot(map);
+  }//}}}
+
+  /**
+   * すべての集計値を0に戻す。
+   */
+  public static void reset() {//{{{
+    for (Counter counter : COUNTERS)
+      counter.reset();
+  }//}}}
+
+  /**
+   * TextFormatterの一括整形の内訳を集計するかどうかを設定する。
+   * 設定は次に開始する整形から反映される。
+   * @param enabled 集計する場合は{@code true}
+   */
+  public static void setBreakdownEnabled(boolean enabled) {//{{{
+    breakdownEnabled = enabled;
+  }//}}}
+
+  /**
+   * TextFormatterの一括整形の内訳を集計するかどうかを返す。
+   * @return 集計する場合は{@code true}
+   */
+  public static boolean isBreakdownEnabled() {//{{{
+    return breakdownEnabled;
+  }//}}}
+
+  // package private methods
+
+  /**
+   * 段階の計測を開始する。
+   * @param stage 段階
+   * @return 計測
+   */
+  static Probe start(FormatStage stage) {//{{{
+    return new Probe(stage, JFR_AVAILABLE ? FormatStageEvent.start() : null);
+  }//}}}
+
+  /**
+   * １回の整形の中で繰り返し行う処理を足し合わせる集計を返す。
+   * @return 集計
+   */
+  static Tally tally() {//{{{
+    return new Tally(breakdownEnabled);
+  }//}}}
+
+  /**
+   * 一括整形の内訳を足し合わせる集計を返す。
+   * @return 集計。内訳を集計しない場合は{@code null}
+   */
+  static Tally breakdown() {//{{{
+    return breakdownEnabled ? new Tally(true) : null;
+  }//}}}
+
+  // private methods
+
+  private static boolean isJfrAvailable() {//{{{
+    try {
+      Class.forName("jdk.jfr.Event");
+      return true;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }//}}}
+
+  /**
+   * １段階の計測。
+   */
+  static final class Probe {//{{{
+
+    private final FormatStage stage;
+    private final Object event;
+    private final long startNanos = System.nanoTime();
+
+    private Probe(FormatStage stage, Object event) {//{{{
+      this.stage = stage;
+      this.event = event;
+    }//}}}
+
+    /**
+     * 計測を終了し、処理結果の量を集計する。
+     * @param result 処理結果の段落リスト
+     * @param bytes 読み込んだバイト数。読み込みを伴わない場合は0
+     */
+    void end(List<List<String>> result, long bytes) {//{{{
+      long nanos = System.nanoTime() - startNanos;
+      COUNTERS[stage.ordinal()].add(
+          1, nanos, result.size(), TextArena.lineCount(result), TextArena.charCount(result), bytes);
+      if (event != null)
+        FormatStageEvent.finish(event, stage, result, bytes);
+    }//}}}
+
+    /**
+     * 計測を終了し、処理結果の量を集計する。
+     * 処理結果を段落リストとして保持しない場合に使用する。
+     * @param paragraphs 処理結果の段落数
+     * @param lines 処理結果の行数
+     * @param chars 処理結果の文字数。アクター名行は含まない
+     * @param bytes 読み込んだバイト数。読み込みを伴わない場合は0
+     */
+    void end(long paragraphs, long lines, long chars, long bytes) {//{{{
+      long nanos = System.nanoTime() - startNanos;
+      COUNTERS[stage.ordinal()].add(1, nanos, paragraphs, lines, chars, bytes);
+      if (event != null)
+        FormatStageEvent.finish(event, stage, paragraphs, lines, chars, bytes);
+    }//}}}
+
+  }//}}}
+
+  /**
+   * <p>
+   * １回の整形の中で段落や行ごとに繰り返し行う処理の時間と量を足し合わせ、整形
+   * の終了時にまとめて集計するクラス。
+   * </p><p>
+   * 段落ごとにLongAdderへ加算しないことで、集計による整形の遅延を抑える。<br>
+   * このクラスはスレッドセーフではない。
+   * </p>
+   */
+  static final class Tally {//{{{
+
+    private final boolean breakdown;
+
+    private final long[] counts     = new long[STAGES.length];
+    private final long[] nanos      = new long[STAGES.length];
+    private final long[] paragraphs = new long[STAGES.length];
+    private final long[] lines      = new long[STAGES.length];
+    private final long[] chars      = new long[STAGES.length];
+
+    /** lap()で計測する区間の開始時刻 */
+    private long mark;
+
+    private Tally(boolean breakdown) {//{{{
+      this.breakdown = breakdown;
+    }//}}}
+
+    /**
+     * 一括整形の内訳を集計するかどうかを返す。
+     * @return 集計する場合は{@code true}
+     */
+    boolean isBreakdown() {//{{{
+      return breakdown;
+    }//}}}
+
+    /**
+     * 段階の処理時間と処理量を加算する。
+     * @param stage 段階
+     * @param time 処理時間(ナノ秒)
+     * @param paragraphCount 段落数
+     * @param lineCount 行数
+     * @param charCount 文字数
+     */
+    void add(FormatStage stage, long time, long paragraphCount, long lineCount, long charCount) {//{{{
+      int i = stage.ordinal();
+      counts[i]++;
+      nanos[i]      += time;
+      paragraphs[i] += paragraphCount;
+      lines[i]      += lineCount;
+      chars[i]      += charCount;
+    }//}}}
+
+    /**
+     * 現在時刻をlap()で計測する区間の開始時刻とする。
+     */
+    void begin() {//{{{
+      mark = System.nanoTime();
+    }//}}}
+
+    /**
+     * 前回のbegin()またはlap()から現在までの時間を段階に加算し、現在時刻を次の
+     * 区間の開始時刻とする。
+     * @param stage 段階
+     * @param paragraphCount 段落数
+     * @param lineCount 行数
+     */
+    void lap(FormatStage stage, int paragraphCount, int lineCount) {//{{{
+      long now = System.nanoTime();
+      add(stage, now - mark, paragraphCount, lineCount, 0);
+      mark = now;
+    }//}}}
+
+    /**
+     * 足し合わせた値を集計に加算し、0に戻す。
+     */
+    void flush() {//{{{
+      for (int i=0; i<STAGES.length; i++) {
+        if (counts[i] == 0)
+          continue;
+        COUNTERS[i].add(counts[i], nanos[i], paragraphs[i], lines[i], chars[i], 0);
+        counts[i]     = 0;
+        nanos[i]      = 0;
+        paragraphs[i] = 0;
+        lines[i]      = 0;
+        chars[i]      = 0;
+      }
+    }//}}}
+
+  }//}}}
+
+  /**
+   * １段階分の集計値。
+   */
+  private static final class Counter {//{{{
+
+    final LongAdder count      = new LongAdder();
+    final LongAdder nanos      = new LongAdder();
+    final LongAdder paragraphs = new LongAdder();
+    final LongAdder lines      = new LongAdder();
+    final LongAdder chars      = new LongAdder();
+    final LongAdder bytes      = new LongAdder();
+
+    void add(long times, long time, long paragraphCount, long lineCount, long charCount, long readBytes) {//{{{
+      count.add(times);
+      nanos.add(time);
+      paragraphs.add(paragraphCount);
+      lines.add(lineCount);
+      chars.add(charCount);
+      bytes.add(readBytes);
+    }//}}}
+
+    void reset() {//{{{
+      count.reset();
+      nanos.reset();
+      paragraphs.reset();
+      lines.reset();
+      chars.reset();
+      bytes.reset();
+    }//}}}
+
+    StageMetrics toMetrics(FormatStage stage) {//{{{
+      return new StageMetrics(
+          stage
+          , count.sum()
+          , nanos.sum()
+          , paragraphs.sum()
+          , lines.sum()
+          , chars.sum()
+          , bytes.sum()
+          );
+    }//}}}
+
+  }//}}}
+
+  /**
+   * 全段階の集計値のスナップショット。このクラスは不変クラスである。
+   */
+  public static final class Snapshot {//{{{
+
+    private final Map<FormatStage, StageMetrics> map;
+
+    private Snapshot(Map<FormatStage, StageMetrics> map) {//{{{
+      this.map = map;
+    }//}}}
+
+    /**
+     * 段階の集計値を返す。
+     * @param stage 段階
+     * @return 集計値
+     */
+    public StageMetrics get(FormatStage stage) {//{{{
+      return map.get(stage);
+    }//}}}
+
+    @Override
+    public String toString() {//{{{
+      StringBuilder sb = new StringBuilder();
+      for (StageMetrics m : map.values()) {
+        if (m.getCount() == 0)
+          continue;
+        sb.append(m).append(System.lineSeparator());
+      }
+      return sb.toString();
+    }//}}}
+
+  }//}}}
+
+  /**
+   * １段階の集計値。このクラスは不変クラスである。
+   */
+  public static final class StageMetrics {//{{{
+
+    private final FormatStage stage;
+    private final long count;
+    private final long totalNanos;
+    private final long paragraphCount;
+    private final long lineCount;
+    private final long charCount;
+    private final long byteCount;
+
+    private StageMetrics(//{{{
+        FormatStage stage
+        , long count
+        , long totalNanos
+        , long paragraphCount
+        , long lineCount
+        , long charCount
+        , long byteCount
+        )
+    {
+      this.stage          = stage;
+      this.count          = count;
+      this.totalNanos     = totalNanos;
+      this.paragraphCount = paragraphCount;
+      this.lineCount      = lineCount;
+      this.charCount      = charCount;
+      this.byteCount      = byteCount;
+    }//}}}
+
+    public FormatStage getStage() {//{{{
+      return stage;
+    }//}}}
+
+    /** 処理回数 */
+    public long getCount() {//{{{
+      return count;
+    }//}}}
+
+    /** 処理時間の合計(ナノ秒) */
+    public long getTotalNanos() {//{{{
+      return totalNanos;
+    }//}}}
+
+    /** 処理結果の段落数の合計 */
+    public long getParagraphCount() {//{{{
+      return paragraphCount;
+    }//}}}
+
+    /** 処理結果の行数の合計 */
+    public long getLineCount() {//{{{
+      return lineCount;
+    }//}}}
+
+    /** 処理結果の文字数の合計。アクター名行は含まない */
+    public long getCharCount() {//{{{
+      return charCount;
+    }//}}}
+
+    /** 読み込んだバイト数の合計 */
+    public long getByteCount() {//{{{
+      return byteCount;
+    }//}}}
+
+    /**
+     * １回あたりの平均処理時間を返す。処理回数が0の場合は0を返す。
+     * @return 平均処理時間(ナノ秒)
+     */
+    public double getAverageNanos() {//{{{
+      return count == 0 ? 0.0 : (double) totalNanos / count;
+    }//}}}
+
+    @Override
+    public String toString() {//{{{
+      return String.format(
+          "%s: { count = %d, total = %.3f ms, average = %.3f ms, paragraphs = %d, lines = %d, chars = %d, bytes = %d }."
+          , stage, count, totalNanos / 1e6, getAverageNanos() / 1e6
+          , paragraphCount, lineCount, charCount, byteCount);
+    }//}}}
+
+  }//}}}
+
+}
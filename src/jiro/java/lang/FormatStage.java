@@ -0,0 +1,57 @@
+package jiro.java.lang;
+
+/**
+ * 計測対象の整形の段階列挙型
+ */
+public enum FormatStage {
+
+  /**
+   * テキストファイルの読み込み。
+   * FormattableText.Builder(File)は１ファイルを、TextFormatterの逐次整形は読み取っ
+   * た１段落を１回と数える。
+   */
+  INGEST,
+
+  /** FormattableText#addActorName() */
+  ADD_ACTOR_NAME,
+
+  /** FormattableText#replaceActorName() */
+  REPLACE_ACTOR_NAME,
+
+  /** FormattableText#formatPutBrackets() */
+  PUT_BRACKETS,
+
+  /** FormattableText#joining() */
+  JOINING,
+
+  /** FormattableText#formatCarriageReturn() */
+  CARRIAGE_RETURN,
+
+  /** FormattableText#splitToParagraph() */
+  SPLIT_TO_PARAGRAPH,
+
+  /** FormattableText#deleteEmptyList() */
+  DELETE_EMPTY_LIST,
+
+  /** TextFormatterの段落リストまたは読み取り元の一括整形 */
+  FORMAT,
+
+  /**
+   * 一括整形の内訳: アクター名付与とプレースホルダの置換。段落ごとに数える。
+   * FormatMetrics#setBreakdownEnabled(boolean)を有効にした場合だけ集計する。
+   */
+  FORMAT_PREPARE,
+
+  /**
+   * 一括整形の内訳: アクター名行の分離、括弧とインデントの付与、連結。
+   * 折り返す前の行ごとに数える。
+   */
+  FORMAT_CONCAT,
+
+  /** 一括整形の内訳: LineBreakerによる折り返し。折り返す前の行ごとに数える */
+  FORMAT_LINE_BREAK,
+
+  /** 一括整形の内訳: ウィンドウへの振り分け。折り返す前の行ごとに数える */
+  FORMAT_WINDOW_SPLIT;
+
+}
@@ -0,0 +1,96 @@
+package jiro.java.lang;
+
+import java.util.List;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * <p>
+ * 整形の段階ごとのJDK Flight Recorderイベント。
+ * </p><p>
+ * jdk.jfrを含まない実行環境でも読み込まれないように、このクラスはFormatMetrics
+ * からJFRが利用可能な場合にだけ参照される。
+ * </p>
+ */
+@Name("jiro.FormatStage")
+@Label("Format Stage")
+@Category({ "MV Text Editor", "Format" })
+@Description("整形の１段階の処理時間と処理量")
+@StackTrace(false)
+final class FormatStageEvent extends Event {
+
+  @Label("Stage")
+  String stage;
+
+  @Label("Paragraphs")
+  int paragraphs;
+
+  @Label("Lines")
+  int lines;
+
+  @Label("Words")
+  long words;
+
+  @Label("Chars")
+  long chars;
+
+  @Label("Bytes")
+  @DataAmount
+  long bytes;
+
+  // package private methods
+
+  /**
+   * 計測を開始したイベントを返す。
+   */
+  static Object start() {//{{{
+    FormatStageEvent event = new FormatStageEvent();
+    event.begin();
+    return event;
+  }//}}}
+
+  /**
+   * 計測を終了し、記録中であればイベントを記録する。
+   * 単語数の計数は記録する場合にだけ行う。
+   */
+  static void finish(Object obj, FormatStage stage, List<List<String>> result, long bytes) {//{{{
+    FormatStageEvent event = (FormatStageEvent) obj;
+    event.end();
+    if (!event.shouldCommit())
+      return;
+
+    event.words = TextArena.wordCount(result);
+    commit(event, stage, result.size(), TextArena.lineCount(result), TextArena.charCount(result), bytes);
+  }//}}}
+
+  /**
+   * 計測を終了し、記録中であればイベントを記録する。
+   * 処理結果を段落リストとして保持しない場合に使用し、単語数は記録しない。
+   */
+  static void finish(Object obj, FormatStage stage, long paragraphs, long lines, long chars, long bytes) {//{{{
+    FormatStageEvent event = (FormatStageEvent) obj;
+    event.end();
+    if (!event.shouldCommit())
+      return;
+
+    commit(event, stage, paragraphs, lines, chars, bytes);
+  }//}}}
+
+  // private methods
+
+  private static void commit(FormatStageEvent event, FormatStage stage, long paragraphs, long lines, long chars, long bytes) {//{{{
+    event.stage      = stage.name();
+    event.paragraphs = (int) paragraphs;
+    event.lines      = (int) lines;
+    event.chars      = chars;
+    event.bytes      = bytes;
+    event.commit();
+  }//}}}
+
+}
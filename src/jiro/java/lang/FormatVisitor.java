@@ -0,0 +1,97 @@
+package jiro.java.lang;
+
+import java.io.IOException;
+
+/**
+ * <p>
+ * 整形結果を受け取るビジタインタフェース。
+ * </p><p>
+ * TextFormatterは段落ごとに次の順序でメソッドを呼び出す。
+ * </p>
+ * <pre>
+ * paragraphStart
+ *   windowStart(actorName, actorLine) line(line)... windowEnd
+ *   windowStart(actorName, actorLine) line(line)... windowEnd
+ *   ...
+ * paragraphEnd
+ * ...
+ * end
+ * </pre>
+ * <p>
+ * アクター名行はline(CharSequence)には渡されず、windowStart(String, String)の
+ * 引数として段落内のすべてのウィンドウに渡される。<br>
+ * windowStart(String, String)は既定でwindowStart(String)を呼び出すため、アク
+ * ター名だけを使用するビジタはwindowStart(String)だけを実装すればよい。
+ * </p>
+ */
+public interface FormatVisitor {
+
+  /**
+   * <p>
+   * 制御文字を扱うTextFormatterの整形結果だけを受け取るかどうかを返す。
+   * </p><p>
+   * ゲームに出力するビジタのように、制御文字の途中で折り返すと表示が壊れるビジ
+   * タは{@code true}を返す。折り返しを行うTextFormatterにEscapeCodesが設定されてい
+   * ない場合、TextFormatterは整形を開始せずに例外を投げる。<br>
+   * 既定では{@code false}を返す。
+   * </p>
+   * @return 制御文字を扱う必要がある場合は{@code true}
+   */
+  default boolean requiresEscapeCodes() {//{{{
+    return false;
+  }//}}}
+
+  /**
+   * 段落の開始を受け取る。
+   * @throws IOException 出力に失敗した場合
+   */
+  default void paragraphStart() throws IOException {}
+
+  /**
+   * ウィンドウの開始を受け取る。
+   * @param actorName 段落のアクター名。アクター名行がない場合は{@code null}
+   * @throws IOException 出力に失敗した場合
+   */
+  void windowStart(String actorName) throws IOException;
+
+  /**
+   * <p>
+   * ウィンドウの開始を、整形結果のアクター名行とともに受け取る。
+   * </p><p>
+   * アクター名行は#の後の空白を含め、整形結果の行をそのまま渡す。<br>
+   * 既定ではwindowStart(String)を呼び出す。
+   * </p>
+   * @param actorName 段落のアクター名。アクター名行がない場合は{@code null}
+   * @param actorLine 整形結果のアクター名行。アクター名行がない場合は{@code null}
+   * @throws IOException 出力に失敗した場合
+   */
+  default void windowStart(String actorName, String actorLine) throws IOException {//{{{
+    windowStart(actorName);
+  }//}}}
+
+  /**
+   * ウィンドウ内の１行を受け取る。
+   * @param line 整形済みの行
+   * @throws IOException 出力に失敗した場合
+   */
+  void line(CharSequence line) throws IOException;
+
+  /**
+   * ウィンドウの終了を受け取る。
+   * @throws IOException 出力に失敗した場合
+   */
+  default void windowEnd() throws IOException {}
+
+  /**
+   * 段落の終了を受け取る。
+   * @throws IOException 出力に失敗した場合
+   */
+  default void paragraphEnd() throws IOException {}
+
+  /**
+   * すべての段落の終了を受け取る。
+   * @throws IOException 出力に失敗した場合
+   */
+  default void end() throws IOException {}
+
+}
@@ -0,0 +1,347 @@
+package jiro.java.lang;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * 段落単位で編集可能な整形対象の文書クラス。
+ * </p><p>
+ * 段落ごとに整形結果を保持し、編集された段落と、引き継ぐアクター名が変化した
+ * 後続の段落だけを再整形する。<br>
+ * 変更のない段落は保持している整形結果をそのまま使用するため、エディタのプレ
+ * ビューのように編集のたびに整形する用途で、文書の長さに依存せずに整形できる。
+ * </p><p>
+ * 段落ごとのウィンドウ数から、段落とウィンドウ番号を対応付ける索引を保持する。
+ * <br>
+ * ウィンドウ数は行を生成せずに数えるため、索引は全体を整形するより少ない負荷で
+ * 作成できる。formatWindows(int, int)は指定範囲のウィンドウを含む段落だけを整
+ * 形するため、文書の先頭でも末尾でも同程度の負荷でページを取得できる。
+ * </p><p>
+ * このクラスはスレッドセーフではない。
+ * </p>
+ */
+public class FormattableDocument {
+
+  private final TextFormatter formatter;
+  private final List<Entry> entries = new ArrayList<>();
+
+  /** 再整形が必要な最初の段落の位置 */
+  private int dirtyFrom = Integer.MAX_VALUE;
+
+  /** 再整形が必要な段落の数 */
+  private int dirtyCount = 0;
+
+  /** 段落の先頭のウィンドウ番号。段落数より１つ多い */
+  private int[] windowOffsets = new int[1];
+
+  /** windowOffsetsの再計算が必要な最初の段落の位置 */
+  private int indexFrom = 0;
+
+  // constructor
+
+  public FormattableDocument(TextFormatter formatter) {//{{{
+    this.formatter = formatter;
+  }//}}}
+
+  public FormattableDocument(TextFormatter formatter, List<List<String>> paragraphList) {//{{{
+    this(formatter);
+    for (List<String> paragraph : paragraphList)
+      addParagraph(paragraph);
+  }//}}}
+
+  // public methods
+
+  /**
+   * 段落の数を返す。
+   * @return 段落の数
+   */
+  public int size() {//{{{
+    return entries.size();
+  }//}}}
+
+  /**
+   * 指定位置の段落を返す。
+   * @param index 段落の位置
+   * @return 変更不可の段落
+   */
+  public List<String> getParagraph(int index) {//{{{
+    return Collections.unmodifiableList(entries.get(index).paragraph);
+  }//}}}
+
+  /**
+   * 末尾に段落を追加する。
+   * @param paragraph 段落
+   */
+  public void addParagraph(List<String> paragraph) {//{{{
+    insertParagraph(entries.size(), paragraph);
+  }//}}}
+
+  /**
+   * 指定位置に段落を挿入する。
+   * @param index 挿入位置
+   * @param paragraph 段落
+   */
+  public void insertParagraph(int index, List<String> paragraph) {//{{{
+    entries.add(index, new Entry(copyOf(paragraph)));
+    markDirty(index);
+  }//}}}
+
+  /**
+   * 指定位置の段落を置き換える。
+   * @param index 段落の位置
+   * @param paragraph 新しい段落
+   */
+  public void setParagraph(int index, List<String> paragraph) {//{{{
+    entries.get(index).paragraph = copyOf(paragraph);
+    markDirty(index);
+  }//}}}
+
+  /**
+   * 指定位置の段落を削除する。
+   * @param index 段落の位置
+   */
+  public void removeParagraph(int index) {//{{{
+    Entry entry = entries.remove(index);
+    if (entry.dirty)
+      dirtyCount--;
+    indexFrom = Math.min(indexFrom, index);
+
+    // 削除した段落の直後の段落は引き継ぐアクター名が変わる可能性がある
+    if (index < entries.size())
+      markDirty(index);
+  }//}}}
+
+  /**
+   * <p>
+   * 文書全体を整形し、メッセージウィンドウ単位のリストとして返す。
+   * </p><p>
+   * 結果は同じ段落リストに対するTextFormatter#format(List)と同じになる。
+   * </p>
+   * @return ウィンドウ単位に分割された整形済みリスト
+   */
+  public List<List<String>> format() {//{{{
+    update(true);
+
+    List<List<String>> windowList = new ArrayList<>(entries.size());
+    for (Entry entry : entries)
+      windowList.addAll(entry.windowList(formatter));
+    return windowList;
+  }//}}}
+
+  /**
+   * 指定位置の段落を整形し、メッセージウィンドウ単位のリストとして返す。
+   * @param index 段落の位置
+   * @return ウィンドウ単位に分割された整形済みリスト
+   */
+  public List<List<String>> formatParagraph(int index) {//{{{
+    update(false);
+    return entries.get(index).windowList(formatter);
+  }//}}}
+
+  /**
+   * 文書全体を整形した場合のウィンドウ数を返す。
+   * @return ウィンドウ数
+   */
+  public int windowCount() {//{{{
+    updateIndex();
+    return windowOffsets[entries.size()];
+  }//}}}
+
+  /**
+   * 指定位置の段落の先頭のウィンドウ番号を返す。
+   * 段落のウィンドウ数が0の場合は、次の段落の先頭のウィンドウ番号と同じになる。
+   * @param index 段落の位置
+   * @return ウィンドウ番号
+   */
+  public int windowIndexOf(int index) {//{{{
+    if (index < 0 || entries.size() <= index)
+      throw new IndexOutOfBoundsException("index : " + index + ", size : " + entries.size());
+    updateIndex();
+    return windowOffsets[index];
+  }//}}}
+
+  /**
+   * 指定番号のウィンドウを含む段落の位置を返す。
+   * @param window ウィンドウ番号
+   * @return 段落の位置
+   */
+  public int paragraphIndexOf(int window) {//{{{
+    int count = windowCount();
+    if (window < 0 || count <= window)
+      throw new IndexOutOfBoundsException("window : " + window + ", size : " + count);
+    return findParagraph(window);
+  }//}}}
+
+  /**
+   * <p>
+   * 指定範囲のメッセージウィンドウを返す。
+   * </p><p>
+   * 結果はformat().subList(from, to)と同じになる。<br>
+   * 範囲のウィンドウを含む段落だけを整形する。
+   * </p>
+   * @param from 最初のウィンドウ番号(このウィンドウを含む)
+   * @param to 最後のウィンドウ番号(このウィンドウを含まない)
+   * @return ウィンドウ単位に分割された整形済みリスト
+   */
+  public List<List<String>> formatWindows(int from, int to) {//{{{
+    int count = windowCount();
+    if (from < 0 || to < from || count < to)
+      throw new IndexOutOfBoundsException("from : " + from + ", to : " + to + ", size : " + count);
+
+    List<List<String>> windowList = new ArrayList<>(to - from);
+    if (from == to)
+      return windowList;
+
+    for (int i=findParagraph(from); i<entries.size() && windowOffsets[i] < to; i++) {
+      int start = windowOffsets[i];
+      List<List<String>> windows = entries.get(i).windowList(formatter);
+      windowList.addAll(windows.subList(
+            Math.max(from - start, 0)
+            , Math.min(to - start, windows.size())));
+    }
+    return windowList;
+  }//}}}
+
+  // private methods
+
+  private void markDirty(int index) {//{{{
+    Entry entry = entries.get(index);
+    if (!entry.dirty) {
+      entry.dirty = true;
+      dirtyCount++;
+    }
+    dirtyFrom = Math.min(dirtyFrom, index);
+    indexFrom = Math.min(indexFrom, index);
+  }//}}}
+
+  /**
+   * 再整形が必要な段落を整形する。
+   * 編集された段落をすべて整形し終え、引き継ぐアクター名が前回と同じになった時
+   * 点で走査を終了する。
+   * @param formatting 整形せずにウィンドウ数だけを数える場合は{@code false}
+   */
+  private void update(boolean formatting) {//{{{
+    int size = entries.size();
+    if (size <= dirtyFrom) {
+      dirtyFrom = Integer.MAX_VALUE;
+      return;
+    }
+
+    String actorName = dirtyFrom == 0 ? "" : entries.get(dirtyFrom - 1).nextActorName;
+    for (int i=dirtyFrom; i<size; i++) {
+      Entry entry = entries.get(i);
+
+      if (!entry.dirty && actorName.equals(entry.actorName)) {
+        if (dirtyCount <= 0)
+          break;
+        actorName = entry.nextActorName;
+        continue;
+      }
+
+      if (entry.dirty) {
+        entry.dirty = false;
+        dirtyCount--;
+      }
+      if (formatting)
+        entry.format(formatter, actorName);
+      else
+        entry.measure(formatter, actorName);
+      actorName = entry.nextActorName;
+    }
+
+    dirtyFrom = Integer.MAX_VALUE;
+  }//}}}
+
+  /**
+   * 段落とウィンドウ番号の索引を更新する。
+   */
+  private void updateIndex() {//{{{
+    update(false);
+
+    int size = entries.size();
+    if (windowOffsets.length < size + 1)
+      windowOffsets = Arrays.copyOf(windowOffsets, Math.max(size + 1, windowOffsets.length * 2));
+
+    for (int i=indexFrom; i<size; i++)
+      windowOffsets[i + 1] = windowOffsets[i] + entries.get(i).windowCount;
+    indexFrom = size;
+  }//}}}
+
+  /**
+   * 指定番号のウィンドウを含む段落の位置を二分探索で返す。
+   * 索引は更新済みで、ウィンドウ番号は範囲内でなければならない。
+   */
+  private int findParagraph(int window) {//{{{
+    int low = 0;
+    int high = entries.size() - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (windowOffsets[mid] <= window)
+        low = mid;
+      else
+        high = mid - 1;
+    }
+    return low;
+  }//}}}
+
+  private static List<String> copyOf(List<String> paragraph) {//{{{
+    if (paragraph.isEmpty())
+      throw new IllegalArgumentException("空の段落を追加することはできません。");
+    return new ArrayList<>(paragraph);
+  }//}}}
+
+  /**
+   * 段落とその整形結果。
+   */
+  private static final class Entry {//{{{
+
+    List<String> paragraph;
+    boolean dirty = false;
+
+    /** 整形時に引き継いだアクター名 */
+    String actorName = null;
+
+    /** 次の段落へ引き継ぐアクター名 */
+    String nextActorName = null;
+
+    /** ウィンドウ数 */
+    int windowCount = 0;
+
+    /** 整形結果。ウィンドウ数だけを数えて整形していない場合はnull */
+    List<List<String>> windowList = Collections.emptyList();
+
+    Entry(List<String> paragraph) {//{{{
+      this.paragraph = paragraph;
+    }//}}}
+
+    void format(TextFormatter formatter, String actorName) {//{{{
+      List<List<String>> formatted = formatter.formatParagraph(paragraph, actorName);
+      List<List<String>> windows = new ArrayList<>(formatted.size());
+      for (List<String> window : formatted)
+        windows.add(Collections.unmodifiableList(window));
+
+      this.windowList    = Collections.unmodifiableList(windows);
+      this.windowCount   = windows.size();
+      this.actorName     = actorName;
+      this.nextActorName = formatter.nextActorName(actorName, paragraph);
+    }//}}}
+
+    void measure(TextFormatter formatter, String actorName) {//{{{
+      this.windowList    = null;
+      this.windowCount   = formatter.countWindows(paragraph, actorName);
+      this.actorName     = actorName;
+      this.nextActorName = formatter.nextActorName(actorName, paragraph);
+    }//}}}
+
+    List<List<String>> windowList(TextFormatter formatter) {//{{{
+      if (windowList == null)
+        format(formatter, actorName);
+      return windowList;
+    }//}}}
+
+  }//}}}
+
+}
@@ -2,15 +2,14 @@ package jiro.java.lang;
 
 import static jiro.java.lang.UtilsString.*;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static java.util.stream.IntStream.range;
@@ -19,6 +18,12 @@ import static java.util.stream.IntStream.range;
  * <p>
  * 整形可能なテキストクラス。
  * </p><p>
+ * ファイルから読み込んだテキストはTextArenaに１つの文字配列としてまとめて保持
+ * する。整形メソッドが生成した段落リストは複製せずにそのまま保持する。
+ * </p><p>
+ * ファイルの読み込みと各整形メソッドの処理時間はFormatMetricsに記録される。
+ * format()とformatParallel()の処理時間はTextFormatterが記録する。
+ * </p><p>
  * このクラスは不変クラスである。<br>
  * Getterは常に新しいインスタンスを生成して返却するため、
  * Getterの値を変更してもこのインスタンスのフィールドは変化しない。
@@ -43,6 +48,18 @@ public class FormattableText {
 
   private final boolean joiningOption;
 
+  private final boolean kinsokuOption;
+
+  private final WidthMeasure widthMeasure;
+
+  private final EscapeCodes escapeCodes;
+
+  private final Map<String, String> variables;
+
+  private final FormatCache cache;
+
+  private final TextFormatter formatter;
+
   // builder
 
   public static class Builder {//{{{
@@ -62,8 +79,29 @@ public class FormattableText {
 
     private boolean joiningOption = false;
 
+    private boolean kinsokuOption = false;
+
+    private WidthMeasure widthMeasure = WidthMeasure.MONOSPACE;
+
+    private EscapeCodes escapeCodes = null;
+
+    private Map<String, String> variables = new HashMap<>();
+
+    private FormatCache cache = null;
+
+    /** オプションを引き継いだテキスト。引き継いでいない場合は{@code null} */
+    private FormattableText parent = null;
+
     // constructor
 
+    /**
+     * テキストを持たないBuilderを生成する。
+     * TextFormatterの生成にのみ使用する。
+     */
+    public Builder() {//{{{
+      this(new ArrayList<>());
+    }//}}}
+
     public Builder(List<List<String>> list) {//{{{
       textList = list;
     }//}}}
@@ -77,6 +115,12 @@ public class FormattableText {
       bracketsOption = ft.bracketsOption;
       brackets       = ft.brackets;
       joiningOption  = ft.joiningOption;
+      kinsokuOption  = ft.kinsokuOption;
+      widthMeasure   = ft.widthMeasure;
+      escapeCodes    = ft.escapeCodes;
+      variables      = ft.variables;
+      cache          = ft.cache;
+      parent         = ft;
     }//}}}
 
     public Builder(File file) throws IOException {//{{{
@@ -125,14 +169,142 @@ public class FormattableText {
       return this;
     }//}}}
 
+    /**
+     * 折り返し時に禁則処理を行うかどうかを設定する。
+     * 行頭禁則文字は前の行にぶら下げ、行末禁則文字は次の行へ追い出す。
+     * @param bool 禁則処理を行う場合は{@code true}
+     * @return このBuilder
+     */
+    public Builder kinsokuOption(boolean bool) {//{{{
+      this.kinsokuOption = bool;
+      return this;
+    }//}}}
+
+    /**
+     * <p>
+     * 折り返しに使用する文字幅の求め方を設定する。
+     * </p><p>
+     * 既定値はWidthMeasure.MONOSPACEで、半角1、全角2の桁数で幅を求める。<br>
+     * FontWidthを設定した場合はフォントの送り幅で幅を求めるため、returnSizeは
+     * ピクセル単位で指定する。
+     * </p>
+     * @param measure 文字幅の求め方
+     * @return このBuilder
+     */
+    public Builder widthMeasure(WidthMeasure measure) {//{{{
+      this.widthMeasure = measure;
+      return this;
+    }//}}}
+
+    /**
+     * <p>
+     * 折り返し時にツクールMVの制御文字を扱うかどうかを設定する。
+     * </p><p>
+     * 設定した場合は、{@code \C[n]}などの制御文字を設定した幅の１文字として折
+     * り返し幅を数え、制御文字の途中で折り返さない。<br>
+     * {@code null}の場合は制御文字を通常の文字として扱う。既定値は{@code null}
+     * である。
+     * </p>
+     * @param escapeCodes 制御文字の幅の定義
+     * @return このBuilder
+     */
+    public Builder escapeCodes(EscapeCodes escapeCodes) {//{{{
+      this.escapeCodes = escapeCodes;
+      return this;
+    }//}}}
+
+    /**
+     * <p>
+     * プレースホルダの変数を設定する。
+     * </p><p>
+     * 本文中の{@code @変数名}は、{@code @name}と同様に変数の値に置換される。<br>
+     * 変数名nameはアクター名に使用されるため、設定しても無視される。
+     * </p>
+     * @param variables {@code @}を除いた変数名と値のマップ
+     * @return このBuilder
+     */
+    public Builder variables(Map<String, String> variables) {//{{{
+      this.variables = new HashMap<>(variables);
+      return this;
+    }//}}}
+
+    /**
+     * 整形結果のキャッシュを設定する。{@code null}の場合はキャッシュを使用しない。
+     * @param cache キャッシュ
+     * @return このBuilder
+     */
+    public Builder cache(FormatCache cache) {//{{{
+      this.cache = cache;
+      return this;
+    }//}}}
+
     public FormattableText build() {//{{{
+      validate();
+      return new FormattableText(this);
+    }//}}}
+
+    /**
+     * 設定されたオプションからスレッドセーフな整形器を生成する。
+     * @return 整形器
+     */
+    public TextFormatter buildFormatter() {//{{{
+      validate();
+      return createFormatter();
+    }//}}}
+
+    /**
+     * actorNameOption以外の整形オプションがテキストと同じかどうかを返す。
+     */
+    private boolean hasSameOptions(FormattableText ft) {//{{{
+      return returnOption == ft.returnOption
+        && returnSize     == ft.returnSize
+        && indentOption   == ft.indentOption
+        && indentSize     == ft.indentSize
+        && bracketsOption == ft.bracketsOption
+        && brackets       == ft.brackets
+        && joiningOption  == ft.joiningOption
+        && kinsokuOption  == ft.kinsokuOption
+        && widthMeasure   == ft.widthMeasure
+        && escapeCodes    == ft.escapeCodes
+        && cache          == ft.cache
+        && variables.equals(ft.variables);
+    }//}}}
+
+    private void validate() {//{{{
       if (returnSize < 0)
         throw new IllegalArgumentException("returnSizeに負の数を指定することはできません。 - returnSize : " + returnSize);
       if (indentOption && indentSize < 0)
         throw new IllegalArgumentException("indentSizeに負の数を指定することはできません。 - indentSize : " + indentSize);
       if (bracketsOption && brackets == null)
         throw new NullPointerException("bracketsはnull以外の値で初期化される必要があります。");
-      return new FormattableText(this);
+      if (widthMeasure == null)
+        throw new NullPointerException("widthMeasureはnull以外の値で初期化される必要があります。");
+    }//}}}
+
+    private TextFormatter createFormatter() {//{{{
+      // オプションを変更していない場合は、引き継いだテキストのTextFormatterを使い回す
+      if (parent != null && hasSameOptions(parent)) {
+        if (actorNameOption == parent.actorNameOption)
+          return parent.formatter;
+        if (!actorNameOption)
+          return parent.formatter.withoutActorName();
+      }
+
+      return new TextFormatter(
+          actorNameOption
+          , returnOption
+          , returnSize
+          , indentOption
+          , indentSize
+          , bracketsOption
+          , brackets
+          , joiningOption
+          , kinsokuOption
+          , widthMeasure
+          , escapeCodes
+          , variables
+          , cache
+          );
     }//}}}
 
   }//}}}
@@ -146,157 +318,212 @@ public class FormattableText {
     this.returnSize      = builder.returnSize;
     this.indentOption    = builder.indentOption;
     this.indentSize      = builder.indentSize;
-    this.indent          = createIndentString(
-        builder.bracketsOption ? stringLength(builder.brackets.START) : builder.indentSize
-        );
     this.bracketsOption  = builder.bracketsOption;
     this.brackets        = builder.brackets;
     this.joiningOption   = builder.joiningOption;
+    this.kinsokuOption   = builder.kinsokuOption;
+    this.widthMeasure    = builder.widthMeasure;
+    this.escapeCodes     = builder.escapeCodes;
+    this.variables       = builder.variables;
+    this.cache           = builder.cache;
+    this.formatter       = builder.createFormatter();
+    this.indent          = formatter.indent();
   }//}}}
 
   // public methods
 
+  /**
+   * <p>
+   * アクター名付与、アクター名置換、括弧付与、連結、折り返し、ウィンドウ分割、
+   * 空リスト削除をまとめて行う。
+   * </p><p>
+   * 各段階の中間リストは生成せず、TextFormatterで段落ごとに１回の走査で整形する。
+   * </p>
+   * @return 整形済みテキスト
+   */
   public FormattableText format() {//{{{
-    return addActorName()
-      .replaceActorName()
-      .formatPutBrackets()
-      .joining()
-      .formatCarriageReturn()
-      .splitToParagraph()
-      .deleteEmptyList();
+    return new FormattableText.Builder(this, formatter.format(textList)).build();
+  }//}}}
+
+  /**
+   * <p>
+   * format()と同じ整形を行い、結果を文字列やリストにせずにビジタへ渡す。
+   * </p><p>
+   * AppendableSinkやByteChannelSinkを渡すことで、toString()で巨大な文字列を生
+   * 成せずにファイルやソケットへ直接出力できる。
+   * </p>
+   * @param visitor 整形結果を受け取るビジタ
+   * @throws IOException ビジタの出力に失敗した場合
+   */
+  public void format(FormatVisitor visitor) throws IOException {//{{{
+    formatter.format(textList, visitor);
+  }//}}}
+
+  /**
+   * <p>
+   * format()と同じ整形を、段落ごとに共通のForkJoinPoolで並列に行う。
+   * </p><p>
+   * 結果はformat()と同じ順序、同じ内容になる。
+   * </p>
+   * @return 整形済みテキスト
+   */
+  public FormattableText formatParallel() {//{{{
+    return new FormattableText.Builder(this, formatter.formatParallel(textList)).build();
+  }//}}}
+
+  /**
+   * このテキストの整形オプションを持つ整形器を返す。
+   * @return 整形器
+   */
+  public TextFormatter getFormatter() {//{{{
+    return formatter;
   }//}}}
 
   public FormattableText addActorName() {//{{{
-    if (actorNameOption) {
-      List<List<String>> newListList = new ArrayList<>();
+    return measure(FormatStage.ADD_ACTOR_NAME, () -> {
+      if (actorNameOption) {
+        List<List<String>> newListList = new ArrayList<>();
 
-      String name = "";
-      for (List<String> list : textList) {
-        List<String> newList = new ArrayList<>();
+        String name = "";
+        for (List<String> list : textList) {
+          List<String> newList = new ArrayList<>();
 
-        String top = list.get(0);
-        if (top.startsWith("#")) {
-          name = top.replaceAll("^# *", "");
-        } else {
-          newList.add("# " + name);
+          String top = list.get(0);
+          if (top.startsWith("#")) {
+            name = TextFormatter.toActorName(top);
+          } else {
+            newList.add("# " + name);
+          }
+
+          newList.addAll(list);
+          newListList.add(newList);
         }
 
-        newList.addAll(list);
-        newListList.add(newList);
+        return new FormattableText.Builder(this, newListList).build();
       }
 
-      return new FormattableText.Builder(this, newListList).build();
-    }
-
-    return this;
+      return this;
+    });
   }//}}}
 
   public FormattableText splitToParagraph() {//{{{
-    List<List<String>> newListList = new ArrayList<>();
+    return measure(FormatStage.SPLIT_TO_PARAGRAPH, () -> {
+      List<List<String>> newListList = new ArrayList<>();
 
-    textList.stream().forEach(l -> {
-      if (l.size() <= 4) {
-        newListList.add(l);
-      } else {
-        List<String> newList = new ArrayList<>();
-        for (int i=1; i<=l.size(); i++) {
-          newList.add(l.get(i-1));
-          if (i % 4 == 0) {
-            newListList.add(newList);
-            newList = new ArrayList<>();
+      textList.stream().forEach(l -> {
+        if (l.size() <= 4) {
+          newListList.add(l);
+        } else {
+          List<String> newList = new ArrayList<>();
+          for (int i=1; i<=l.size(); i++) {
+            newList.add(l.get(i-1));
+            if (i % 4 == 0) {
+              newListList.add(newList);
+              newList = new ArrayList<>();
+            }
           }
+          newListList.add(newList);
         }
-        newListList.add(newList);
-      }
-    });
+      });
 
-    return new FormattableText.Builder(this, newListList).build();
+      return new FormattableText.Builder(this, newListList).build();
+    });
   }//}}}
 
   public FormattableText replaceActorName() {//{{{
-    List<List<String>> newListList = new ArrayList<>();
+    return measure(FormatStage.REPLACE_ACTOR_NAME, () -> {
+      List<List<String>> newListList = new ArrayList<>();
+      StringBuilder buffer = new StringBuilder();
+
+      for (List<String> l : textList) {
+        List<String> newList = new ArrayList<>();
+        String name = "";
 
-    for (List<String> l : textList) {
-      List<String> newList = new ArrayList<>();
-      String name = "";
+        for (String line : l) {
+          if (line.startsWith("#")) {
+            name = TextFormatter.toActorName(line);
+          }
 
-      for (String line : l) {
-        if (line.startsWith("#")) {
-          name = line.replaceAll("^# *", "");
+          String newLine = formatter.replacePlaceholders(line, name, buffer);
+          newList.add(newLine);
         }
 
-        String newLine = line.replaceAll("@name", name);
-        newList.add(newLine);
+        newListList.add(newList);
       }
 
-      newListList.add(newList);
-    }
-
-    return new FormattableText.Builder(this, newListList).build();
+      return new FormattableText.Builder(this, newListList).build();
+    });
   }//}}}
 
   public FormattableText joining() {//{{{
-    if (joiningOption) {
-      List<List<String>> newList = textList.stream()
-        .map(this::createJoinedListWith)
-        .collect(Collectors.toList());
-      return new FormattableText.Builder(this, newList).build();
-    }
-    return this;
+    return measure(FormatStage.JOINING, () -> {
+      if (joiningOption) {
+        List<List<String>> newList = textList.stream()
+          .map(this::createJoinedListWith)
+          .collect(Collectors.toList());
+        return new FormattableText.Builder(this, newList).build();
+      }
+      return this;
+    });
   }//}}}
 
   public FormattableText formatPutBrackets() {//{{{
-    if (bracketsOption) {
-      List<List<String>> formedList = textList.stream()
-        .map(this::createWrappedListWith)
-        .collect(Collectors.toList());
+    return measure(FormatStage.PUT_BRACKETS, () -> {
+      if (bracketsOption) {
+        List<List<String>> formedList = textList.stream()
+          .map(this::createWrappedListWith)
+          .collect(Collectors.toList());
 
-      return new FormattableText.Builder(this, formedList).build();
-    }
-    return this;
+        return new FormattableText.Builder(this, formedList).build();
+      }
+      return this;
+    });
   }//}}}
 
   public FormattableText formatCarriageReturn() {//{{{
-    if (returnOption) {
-      List<List<String>> formedList = textList.stream()
-        .map(list -> {
-          List<String> newList = new ArrayList<>();
-
-          list.stream()
-            .filter(s -> s.startsWith("#"))
-            .findFirst()
-            .ifPresent(s -> {
-              newList.add(s);
-            });
-
-          AtomicInteger atom = new AtomicInteger(0);
-          list.stream()
-            .filter(s -> !s.startsWith("#"))
-            .forEach(s -> {
-              if (atom.getAndIncrement() != 0 && indentOption) {
-                s = indent + s;
-              }
-              List<String> crl = createCarriageReturnedListWith(s);
-              newList.addAll(crl);
-            });
-
-          return newList;
-        })
-      .collect(Collectors.toList());
+    return measure(FormatStage.CARRIAGE_RETURN, () -> {
+      if (returnOption) {
+        List<List<String>> formedList = textList.stream()
+          .map(list -> {
+            List<String> newList = new ArrayList<>();
+
+            list.stream()
+              .filter(s -> s.startsWith("#"))
+              .findFirst()
+              .ifPresent(s -> {
+                newList.add(s);
+              });
+
+            AtomicInteger atom = new AtomicInteger(0);
+            list.stream()
+              .filter(s -> !s.startsWith("#"))
+              .forEach(s -> {
+                if (atom.getAndIncrement() != 0 && indentOption) {
+                  s = indent + s;
+                }
+                formatter.carriageReturn(s, newList);
+              });
+
+            return newList;
+          })
+        .collect(Collectors.toList());
 
-      return new FormattableText.Builder(this, formedList).build();
-    }
-    return this;
+        return new FormattableText.Builder(this, formedList).build();
+      }
+      return this;
+    });
   }//}}}
 
   /**
    * 空のリストを削除する。
    */
   public FormattableText deleteEmptyList() {
-    List<List<String>> listList = textList.stream()
-      .filter(l -> l.size() != 0)
-      .collect(Collectors.toList());
-    return new FormattableText.Builder(this, listList).build();
+    return measure(FormatStage.DELETE_EMPTY_LIST, () -> {
+      List<List<String>> listList = textList.stream()
+        .filter(l -> l.size() != 0)
+        .collect(Collectors.toList());
+      return new FormattableText.Builder(this, listList).build();
+    });
   }
 
   public void show() {//{{{
@@ -324,44 +551,6 @@ public class FormattableText {
 
   // private methods
 
-  private List<String> createCarriageReturnedListWith(String text) {//{{{
-    List<String> newList = new ArrayList<>();
-
-    List<String> wordList = splitToWord(text);
-    int count = 0;
-    StringBuilder sb = new StringBuilder();
-
-    for (String word : wordList) {
-      int length = stringLength(word);
-      count += length;
-
-      if (returnSize < count) {
-        newList.add(sb.toString());
-        sb.setLength(0);
-        count = 0;
-
-        if (word.startsWith(" ") || word.startsWith("　")) {
-          word = (new StringBuilder(word)).deleteCharAt(0).toString();
-          length = stringLength(word);
-        }
-
-        if (indentOption) {
-          sb.append(indent);
-          count += stringLength(indent);
-        }
-
-        sb.append(word);
-        count += length;
-        continue;
-      }
-
-      sb.append(word);
-    }
-
-    newList.add(sb.toString());
-    return newList;
-  }//}}}
-
   private List<String> createJoinedListWith(List<String> list) {//{{{
     List<String> nl = new ArrayList<>();
     list.stream()
@@ -411,34 +600,23 @@ public class FormattableText {
     return newList;
   }//}}}
 
-  private static List<List<String>> splitToParagraphFrom(List<String> list) {//{{{
-    List<List<String>> paragraphList = new ArrayList<>();
-    List<String> paragraph = new ArrayList<>();
-
-    for (String line : list) {
-      if (line.length() <= 0) {
-        if (0 < paragraph.size())
-          paragraphList.add(paragraph);
-        paragraph = new ArrayList<>();
-        continue;
-      }
-      paragraph.add(line);
+  private static List<List<String>> createParagraphListFrom(File file) throws IOException {//{{{
+    FormatMetrics.Probe probe = FormatMetrics.start(FormatStage.INGEST);
+    try (ScriptLexer lexer = new ScriptLexer(file.toPath())) {
+      List<List<String>> list = lexer.readArena().asList();
+      probe.end(list, file.length());
+      return list;
     }
-
-    return paragraphList;
   }//}}}
 
-  private static List<List<String>> createParagraphListFrom(File file) throws IOException {//{{{
-    Path path = file.toPath();
-    BufferedReader br = Files.newBufferedReader(path, Charset.forName("UTF-8"));
-
-    List<String> list = br.lines()
-      .filter(s -> !s.startsWith("##"))
-      .collect(Collectors.toList());
-
-    br.close();
-    List<List<String>> listList = splitToParagraphFrom(list);
-    return listList;
+  /**
+   * 段階の処理を実行し、処理時間と処理結果の量をFormatMetricsに記録する。
+   */
+  private FormattableText measure(FormatStage stage, Supplier<FormattableText> body) {//{{{
+    FormatMetrics.Probe probe = FormatMetrics.start(stage);
+    FormattableText result = body.get();
+    probe.end(result.textList, 0);
+    return result;
   }//}}}
 
   // Getter
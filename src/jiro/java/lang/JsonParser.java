@@ -0,0 +1,206 @@
+package jiro.java.lang;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * 小さなJSON文字列を値に変換するパーサクラス。
+ * </p><p>
+ * オブジェクトはMap、配列はList、文字列はString、数値はLongまたはDouble、真偽
+ * 値はBoolean、nullは{@code null}に変換する。<br>
+ * イベントコマンド１つ分のような小さなJSONを対象とし、ファイル全体の解析には
+ * 使用しない。
+ * </p>
+ */
+public final class JsonParser {
+
+  private final CharSequence json;
+  private int position = 0;
+
+  // private constructor
+
+  private JsonParser(CharSequence json) {//{{{
+    this.json = json;
+  }//}}}
+
+  // public methods
+
+  /**
+   * JSON文字列を値に変換する。
+   * @param json JSON文字列
+   * @return 変換した値
+   * @throws IllegalArgumentException JSONとして不正な場合
+   */
+  public static Object parse(CharSequence json) {//{{{
+    JsonParser parser = new JsonParser(json);
+    Object value = parser.parseValue();
+    parser.skipWhiteSpace();
+    if (parser.position < json.length())
+      throw parser.error("余分な文字があります。");
+    return value;
+  }//}}}
+
+  // private methods
+
+  private Object parseValue() {//{{{
+    skipWhiteSpace();
+    if (json.length() <= position)
+      throw error("値がありません。");
+
+    char ch = json.charAt(position);
+    switch (ch) {
+      case '{': return parseObject();
+      case '[': return parseArray();
+      case '"': return parseString();
+      case 't': expect("true");  return Boolean.TRUE;
+      case 'f': expect("false"); return Boolean.FALSE;
+      case 'n': expect("null");  return null;
+      default:  return parseNumber();
+    }
+  }//}}}
+
+  private Map<String, Object> parseObject() {//{{{
+    Map<String, Object> map = new LinkedHashMap<>();
+    position++;
+
+    skipWhiteSpace();
+    if (peek() == '}') {
+      position++;
+      return map;
+    }
+
+    while (true) {
+      skipWhiteSpace();
+      if (peek() != '"')
+        throw error("キーがありません。");
+      String key = parseString();
+
+      skipWhiteSpace();
+      if (peek() != ':')
+        throw error(":がありません。");
+      position++;
+
+      map.put(key, parseValue());
+
+      skipWhiteSpace();
+      char ch = next();
+      if (ch == '}') return map;
+      if (ch != ',') throw error(",または}がありません。");
+    }
+  }//}}}
+
+  private List<Object> parseArray() {//{{{
+    List<Object> list = new ArrayList<>();
+    position++;
+
+    skipWhiteSpace();
+    if (peek() == ']') {
+      position++;
+      return list;
+    }
+
+    while (true) {
+      list.add(parseValue());
+
+      skipWhiteSpace();
+      char ch = next();
+      if (ch == ']') return list;
+      if (ch != ',') throw error(",または]がありません。");
+    }
+  }//}}}
+
+  private String parseString() {//{{{
+    position++;
+    StringBuilder sb = new StringBuilder();
+
+    while (true) {
+      char ch = next();
+      if (ch == '"')
+        return sb.toString();
+      if (ch != '\\') {
+        sb.append(ch);
+        continue;
+      }
+
+      char escaped = next();
+      switch (escaped) {
+        case '"':  sb.append('"');  break;
+        case '\\': sb.append('\\'); break;
+        case '/':  sb.append('/');  break;
+        case 'b':  sb.append('\b'); break;
+        case 'f':  sb.append('\f'); break;
+        case 'n':  sb.append('\n'); break;
+        case 'r':  sb.append('\r'); break;
+        case 't':  sb.append('\t'); break;
+        case 'u':
+          if (json.length() < position + 4)
+            throw error("不正なエスケープです。");
+          try {
+            sb.append((char) Integer.parseInt(json.subSequence(position, position + 4).toString(), 16));
+          } catch (NumberFormatException e) {
+            throw error("不正なエスケープです。");
+          }
+          position += 4;
+          break;
+        default:
+          throw error("不正なエスケープです。");
+      }
+    }
+  }//}}}
+
+  private Number parseNumber() {//{{{
+    int start = position;
+    while (position < json.length()) {
+      char ch = json.charAt(position);
+      if (('0' <= ch && ch <= '9') || ch == '-' || ch == '+' || ch == '.' || ch == 'e' || ch == 'E')
+        position++;
+      else
+        break;
+    }
+
+    String number = json.subSequence(start, position).toString();
+    try {
+      if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0)
+        return Long.valueOf(number);
+      return Double.valueOf(number);
+    } catch (NumberFormatException e) {
+      throw error("不正な数値です。 - number : " + number);
+    }
+  }//}}}
+
+  private void expect(String literal) {//{{{
+    for (int i=0; i<literal.length(); i++) {
+      if (next() != literal.charAt(i))
+        throw error(literal + "ではありません。");
+    }
+  }//}}}
+
+  private void skipWhiteSpace() {//{{{
+    while (position < json.length()) {
+      char ch = json.charAt(position);
+      if (ch != ' ' && ch != '\t' && ch != '\n' && ch != '\r')
+        return;
+      position++;
+    }
+  }//}}}
+
+  private char peek() {//{{{
+    if (json.length() <= position)
+      throw error("JSONが途中で終わっています。");
+    return json.charAt(position);
+  }//}}}
+
+  private char next() {//{{{
+    char ch = peek();
+    position++;
+    return ch;
+  }//}}}
+
+  private IllegalArgumentException error(String message) {//{{{
+    return new IllegalArgumentException(message + " - position : " + position);
+  }//}}}
+
+}
@@ -0,0 +1,179 @@
+package jiro.java.lang;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * JSONを先頭から順に出力するライタークラス。
+ * </p><p>
+ * 木構造を生成せずに値を書き込むたびに出力先へ追加するため、出力の大きさに関
+ * わらず使用メモリは入れ子の深さにだけ依存する。<br>
+ * 要素の区切りのカンマは自動で出力する。
+ * </p>
+ */
+public class JsonWriter implements Flushable {
+
+  private final Appendable out;
+
+  /** 入れ子ごとに、既に要素を出力したかどうか */
+  private boolean[] hasElement = new boolean[8];
+  private int depth = 0;
+
+  /** 直前にオブジェクトのキーを出力したかどうか */
+  private boolean afterName = false;
+
+  // constructor
+
+  public JsonWriter(Appendable out) {//{{{
+    this.out = out;
+  }//}}}
+
+  // public methods
+
+  public JsonWriter beginArray() throws IOException {//{{{
+    beforeValue();
+    out.append('[');
+    push();
+    return this;
+  }//}}}
+
+  public JsonWriter endArray() throws IOException {//{{{
+    pop();
+    out.append(']');
+    return this;
+  }//}}}
+
+  public JsonWriter beginObject() throws IOException {//{{{
+    beforeValue();
+    out.append('{');
+    push();
+    return this;
+  }//}}}
+
+  public JsonWriter endObject() throws IOException {//{{{
+    pop();
+    out.append('}');
+    return this;
+  }//}}}
+
+  /**
+   * オブジェクトのキーを出力する。
+   * @param name キー
+   * @return このライター
+   * @throws IOException 出力に失敗した場合
+   */
+  public JsonWriter name(String name) throws IOException {//{{{
+    beforeValue();
+    writeString(name);
+    out.append(':');
+    afterName = true;
+    return this;
+  }//}}}
+
+  public JsonWriter value(CharSequence value) throws IOException {//{{{
+    beforeValue();
+    if (value == null) out.append("null");
+    else               writeString(value);
+    return this;
+  }//}}}
+
+  public JsonWriter value(long value) throws IOException {//{{{
+    beforeValue();
+    out.append(Long.toString(value));
+    return this;
+  }//}}}
+
+  public JsonWriter value(boolean value) throws IOException {//{{{
+    beforeValue();
+    out.append(value ? "true" : "false");
+    return this;
+  }//}}}
+
+  /**
+   * 既にJSONとして正しい文字列をそのまま値として出力する。
+   * @param json JSON文字列
+   * @return このライター
+   * @throws IOException 出力に失敗した場合
+   */
+  public JsonWriter rawValue(CharSequence json) throws IOException {//{{{
+    beforeValue();
+    out.append(json);
+    return this;
+  }//}}}
+
+  @Override
+  public void flush() throws IOException {//{{{
+    if (out instanceof Flushable)
+      ((Flushable) out).flush();
+  }//}}}
+
+  /**
+   * 文字列をJSONの文字列リテラルとして出力する。
+   * @param out 出力先
+   * @param text 文字列
+   * @throws IOException 出力に失敗した場合
+   */
+  public static void writeString(Appendable out, CharSequence text) throws IOException {//{{{
+    out.append('"');
+
+    int length = text.length();
+    int start = 0;
+    for (int i=0; i<length; i++) {
+      char ch = text.charAt(i);
+      String escaped;
+      switch (ch) {
+        case '"':  escaped = "\\\""; break;
+        case '\\': escaped = "\\\\"; break;
+        case '\n': escaped = "\\n";  break;
+        case '\r': escaped = "\\r";  break;
+        case '\t': escaped = "\\t";  break;
+        case '\b': escaped = "\\b";  break;
+        case '\f': escaped = "\\f";  break;
+        default:
+          if (0x20 <= ch && ch != '\u2028' && ch != '\u2029')
+            continue;
+          escaped = String.format("\\u%04x", (int) ch);
+          break;
+      }
+      out.append(text, start, i);
+      out.append(escaped);
+      start = i + 1;
+    }
+    out.append(text, start, length);
+
+    out.append('"');
+  }//}}}
+
+  // private methods
+
+  private void writeString(CharSequence text) throws IOException {//{{{
+    writeString(out, text);
+  }//}}}
+
+  private void beforeValue() throws IOException {//{{{
+    if (afterName) {
+      afterName = false;
+      return;
+    }
+    if (0 < depth) {
+      if (hasElement[depth - 1])
+        out.append(',');
+      hasElement[depth - 1] = true;
+    }
+  }//}}}
+
+  private void push() {//{{{
+    if (hasElement.length <= depth)
+      hasElement = Arrays.copyOf(hasElement, depth * 2);
+    hasElement[depth++] = false;
+  }//}}}
+
+  private void pop() {//{{{
+    if (depth <= 0)
+      throw new IllegalStateException("閉じる配列またはオブジェクトがありません。");
+    depth--;
+  }//}}}
+
+}
@@ -0,0 +1,401 @@
+package jiro.java.lang;
+
+import static jiro.java.lang.UtilsChar.*;
+import static jiro.java.lang.UtilsString.*;
+
+/**
+ * <p>
+ * 文字列を指定幅で折り返す位置を求めるクラス。
+ * </p><p>
+ * 単語の区切りはUtilsString#splitToWord(String)と同じだが、単語の文字列は生成
+ * せず、元の文字列上の位置だけを走査して行の範囲を通知する。<br>
+ * 文字幅はWidthMeasureで求める。既定ではUtilsString#charLength(CharSequence,
+ * int)の桁数を使用する。単語の区切りは幅の求め方によらないため、サロゲートペ
+ * アや結合文字の途中で折り返すことはない。
+ * </p><p>
+ * 禁則処理を有効にした場合は、行頭禁則文字(。、」など)を前の行の末尾にぶら下
+ * げ、行末禁則文字(「など)を次の行の先頭へ追い出す。<br>
+ * 禁則文字はUtilsCharの文字種の表で判別するため、走査は１回で済む。
+ * </p><p>
+ * EscapeCodesを指定した場合は、単語の走査の中でツクールMVの制御文字を字句解析
+ * し、制御文字を設定した幅の１文字として扱う。制御文字の途中で折り返すことは
+ * ない。
+ * </p><p>
+ * このクラスは不変クラスであり、複数スレッドから共有して使用できる。
+ * </p>
+ */
+public final class LineBreaker {
+
+  /**
+   * 折り返した行の範囲を受け取るインタフェース。
+   */
+  @FunctionalInterface
+  public interface LineConsumer {
+
+    /**
+     * 折り返した１行を受け取る。
+     * @param text 元の文字列
+     * @param start 行の開始位置
+     * @param end 行の終了位置(この位置の文字は含まない)
+     * @param indented 行の先頭にインデントを付与するかどうか
+     */
+    void accept(CharSequence text, int start, int end, boolean indented);
+
+    /**
+     * <p>
+     * 折り返して始めた行が、その行の最初の単語だけで折り返し幅を超えた場合に
+     * 呼び出される。
+     * </p><p>
+     * 行の範囲はaccept(CharSequence, int, int, boolean)で後から通知される。
+     * <br>
+     * 行頭禁則文字のぶら下げによって折り返し幅を超えた場合は呼び出されない。
+     * </p>
+     * @param text 元の文字列
+     * @param start 行の開始位置
+     * @param width インデントを含む行の幅
+     */
+    default void overflow(CharSequence text, int start, float width) {//{{{
+    }//}}}
+
+  }
+
+  private final int returnSize;
+  private final boolean indentOption;
+  private final float indentLength;
+  private final boolean kinsokuOption;
+  private final WidthMeasure measure;
+
+  /** 制御文字。扱わない場合は{@code null} */
+  private final EscapeCodes escapeCodes;
+
+  // constructor
+
+  /**
+   * @param returnSize 折り返し幅
+   * @param indentOption 折り返した行にインデントを付与するかどうか
+   * @param indentLength インデントの幅
+   * @param kinsokuOption 禁則処理を行うかどうか
+   */
+  public LineBreaker(int returnSize, boolean indentOption, int indentLength, boolean kinsokuOption) {//{{{
+    this(returnSize, indentOption, indentLength, kinsokuOption, WidthMeasure.MONOSPACE);
+  }//}}}
+
+  /**
+   * @param returnSize 折り返し幅
+   * @param indentOption 折り返した行にインデントを付与するかどうか
+   * @param indentLength インデントの幅
+   * @param kinsokuOption 禁則処理を行うかどうか
+   * @param measure 文字幅の求め方。折り返し幅とインデントの幅も同じ単位とする
+   */
+  public LineBreaker(int returnSize, boolean indentOption, float indentLength, boolean kinsokuOption, WidthMeasure measure) {//{{{
+    this(returnSize, indentOption, indentLength, kinsokuOption, measure, null);
+  }//}}}
+
+  /**
+   * @param returnSize 折り返し幅
+   * @param indentOption 折り返した行にインデントを付与するかどうか
+   * @param indentLength インデントの幅
+   * @param kinsokuOption 禁則処理を行うかどうか
+   * @param measure 文字幅の求め方。折り返し幅とインデントの幅も同じ単位とする
+   * @param escapeCodes 制御文字。制御文字を扱わない場合は{@code null}
+   */
+  public LineBreaker(int returnSize, boolean indentOption, float indentLength, boolean kinsokuOption, WidthMeasure measure, EscapeCodes escapeCodes) {//{{{
+    this.returnSize    = returnSize;
+    this.indentOption  = indentOption;
+    this.indentLength  = indentLength;
+    this.kinsokuOption = kinsokuOption;
+    this.measure       = measure;
+    this.escapeCodes   = escapeCodes;
+  }//}}}
+
+  // public methods
+
+  /**
+   * <p>
+   * 文字列を折り返し、行ごとに範囲を通知する。
+   * </p><p>
+   * 禁則処理を行わない場合、結果はこれまでのFormattableTextの折り返しと同じに
+   * なる。<br>
+   * そのため、splitToWord(String)と同様に文字列の末尾に続く英数字は単語として
+   * 扱われない。
+   * </p>
+   * @param text 折り返し対象の文字列
+   * @param consumer 行の範囲を受け取る
+   */
+  public void breakLines(CharSequence text, LineConsumer consumer) {//{{{
+    int length = text.length();
+    Breaking breaking = new Breaking(text, consumer);
+
+    int wordStart = 0;
+    float wordWidth = 0;
+
+    for (int i=0; i<length; i++) {
+      char ch = text.charAt(i);
+      int code = escapeLength(text, i);
+      if (0 < code) {
+        // 制御文字は単語の区切りとして扱う
+        wordWidth += escapeCodes.width(text, i, code, measure);
+        i += code - 1;
+      } else {
+        wordWidth += measure.width(text, i);
+
+        if (isAlphabet(ch) || (i + 1 < length && isJoinedToPrevious(text, i + 1)))
+          continue;
+      }
+
+      breaking.word(wordStart, wordWidth);
+      wordStart = i + 1;
+      wordWidth = 0;
+    }
+
+    breaking.end(wordStart);
+  }//}}}
+
+  /**
+   * <p>
+   * 単語に区切り済みの文字列を連結した文字列を折り返し、行ごとに範囲を通知す
+   * る。
+   * </p><p>
+   * 連結した文字列の単語の区切りを、各文字列の単語の区切りから求めるため、文
+   * 字の走査を行わない。<br>
+   * 文字列の境界で文字が結合する場合、制御文字が境界をまたぐ場合と、異なる方法
+   * で幅を求めた単語の区切りや異なる制御文字で区切った単語の区切りを渡した場合
+   * は、連結した文字列を走査して折り返す。
+   * <br>
+   * 結果はbreakLines(CharSequence, LineConsumer)と同じになる。
+   * </p>
+   * @param text 各文字列を連結した文字列
+   * @param segments 連結した各文字列の単語の区切り
+   * @param consumer 行の範囲を受け取る
+   */
+  void breakLines(CharSequence text, Words[] segments, LineConsumer consumer) {//{{{
+    int offset = 0;
+    int prevOffset = 0;
+    for (Words segment : segments) {
+      if (segment.measure != measure || segment.escapeCodes != escapeCodes || (0 < offset && 0 < segment.length && isJoinedAt(text, prevOffset, offset))) {
+        breakLines(text, consumer);
+        return;
+      }
+      if (0 < segment.length)
+        prevOffset = offset;
+      offset += segment.length;
+    }
+
+    Breaking breaking = new Breaking(text, consumer);
+
+    int wordStart = 0;
+    float wordWidth = 0;
+
+    offset = 0;
+    for (Words segment : segments) {
+      for (int i=0; i<segment.count; i++) {
+        breaking.word(wordStart, wordWidth + segment.widths[i]);
+        wordStart = offset + segment.ends[i];
+        wordWidth = 0;
+      }
+      wordWidth += segment.tailWidth;
+      offset += segment.length;
+    }
+
+    breaking.end(wordStart);
+  }//}}}
+
+  /**
+   * 文字列を折り返した場合の行数を返す。行の範囲は通知しない。
+   * @param text 折り返し対象の文字列
+   * @return 行数
+   */
+  public int countLines(CharSequence text) {//{{{
+    int[] count = { 0 };
+    breakLines(text, (t, start, end, indented) -> count[0]++);
+    return count[0];
+  }//}}}
+
+  // package private methods
+
+  /**
+   * 文字列を単語に区切る。
+   * @param text 区切り対象の文字列
+   * @return 単語の区切り
+   */
+  Words scan(CharSequence text) {//{{{
+    int length = text.length();
+    int[] ends     = new int[length];
+    float[] widths = new float[length];
+    int count = 0;
+
+    float wordWidth = 0;
+    for (int i=0; i<length; i++) {
+      char ch = text.charAt(i);
+      int code = escapeLength(text, i);
+      if (0 < code) {
+        wordWidth += escapeCodes.width(text, i, code, measure);
+        i += code - 1;
+      } else {
+        wordWidth += measure.width(text, i);
+
+        if (isAlphabet(ch) || (i + 1 < length && isJoinedToPrevious(text, i + 1)))
+          continue;
+      }
+
+      ends[count]   = i + 1;
+      widths[count] = wordWidth;
+      count++;
+      wordWidth = 0;
+    }
+
+    return new Words(length, count, ends, widths, wordWidth, measure, escapeCodes);
+  }//}}}
+
+  /**
+   * <p>
+   * 文字列を単語に区切った結果。
+   * </p><p>
+   * 単語の終了位置と幅を保持する。<br>
+   * 文字列の末尾に続く英数字は単語として扱わず、幅だけを保持する。後ろに別の
+   * 文字列を連結した場合は、その文字列の最初の単語の一部になる。
+   * </p>
+   */
+  static final class Words {//{{{
+
+    /** 文字列の長さ */
+    final int length;
+
+    /** 単語数 */
+    final int count;
+
+    /** 単語の終了位置 */
+    final int[] ends;
+
+    /** 単語の幅 */
+    final float[] widths;
+
+    /** 末尾に続く英数字の幅 */
+    final float tailWidth;
+
+    /** 幅を求めた方法 */
+    final WidthMeasure measure;
+
+    /** 区切りに使用した制御文字。制御文字を扱わない場合は{@code null} */
+    final EscapeCodes escapeCodes;
+
+    private Words(int length, int count, int[] ends, float[] widths, float tailWidth, WidthMeasure measure, EscapeCodes escapeCodes) {//{{{
+      this.length      = length;
+      this.count       = count;
+      this.ends        = ends;
+      this.widths      = widths;
+      this.tailWidth   = tailWidth;
+      this.measure     = measure;
+      this.escapeCodes = escapeCodes;
+    }//}}}
+
+  }//}}}
+
+  // private methods
+
+  /**
+   * 指定位置から始まる制御文字の長さを返す。制御文字でない場合は0を返す。
+   */
+  private int escapeLength(CharSequence text, int index) {//{{{
+    return escapeCodes == null ? 0 : escapeCodes.match(text, index);
+  }//}}}
+
+  /**
+   * 連結した文字列の境界の文字が、前の文字列の末尾と結合するかどうかを返す。
+   * @param text 連結した文字列
+   * @param prevOffset 前の文字列の開始位置
+   * @param offset 境界の位置
+   */
+  private boolean isJoinedAt(CharSequence text, int prevOffset, int offset) {//{{{
+    if (isJoinedToPrevious(text, offset))
+      return true;
+    if (escapeCodes == null)
+      return false;
+
+    // 前の文字列で始まり、境界をまたぐ制御文字を探す
+    for (int i=offset - 1; prevOffset <= i; i--) {
+      if (text.charAt(i) == '\\' && offset < i + escapeCodes.match(text, i))
+        return true;
+    }
+    return false;
+  }//}}}
+
+  /**
+   * 単語を順に受け取り、折り返し位置を決定する。
+   */
+  private final class Breaking {//{{{
+
+    private final CharSequence text;
+    private final LineConsumer consumer;
+
+    private int lineStart = 0;
+    private boolean indented = false;
+    private float count = 0;
+
+    private int prevWordStart = -1;
+    private float prevWordWidth = 0;
+
+    Breaking(CharSequence text, LineConsumer consumer) {//{{{
+      this.text     = text;
+      this.consumer = consumer;
+    }//}}}
+
+    void word(int wordStart, float wordWidth) {//{{{
+      count += wordWidth;
+
+      if (returnSize < count) {
+        char top = text.charAt(wordStart);
+
+        if (kinsokuOption && lineStart < wordStart && isNoLineStart(top)) {
+          // 行頭禁則文字は前の行の末尾にぶら下げる
+
+        } else if (
+            kinsokuOption
+            && lineStart < prevWordStart
+            && prevWordStart + 1 == wordStart
+            && isNoLineEnd(text.charAt(prevWordStart))
+            )
+        {
+          // 行末禁則文字は次の行の先頭へ追い出す
+          consumer.accept(text, lineStart, prevWordStart, indented);
+          lineStart = prevWordStart;
+          indented  = indentOption;
+          count     = (indentOption ? indentLength : 0) + prevWordWidth + wordWidth;
+          overflow();
+
+        } else {
+          consumer.accept(text, lineStart, wordStart, indented);
+
+          int start = wordStart;
+          float width = wordWidth;
+          if (top == ' ' || top == '　') {
+            start++;
+            width -= measure.width(text, wordStart);
+          }
+
+          lineStart = start;
+          indented  = indentOption;
+          count     = (indentOption ? indentLength : 0) + width;
+          overflow();
+        }
+      }
+
+      prevWordStart = wordStart;
+      prevWordWidth = wordWidth;
+    }//}}}
+
+    void end(int wordStart) {//{{{
+      consumer.accept(text, lineStart, wordStart, indented);
+    }//}}}
+
+    /**
+     * 折り返して始めた行が折り返し幅を超える場合に通知する。
+     */
+    private void overflow() {//{{{
+      if (returnSize < count)
+        consumer.overflow(text, lineStart, count);
+    }//}}}
+
+  }//}}}
+
+}
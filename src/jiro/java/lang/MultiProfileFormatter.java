@@ -0,0 +1,145 @@
+package jiro.java.lang;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * 同じテキストを複数の整形オプション(プロファイル)で整形するクラス。
+ * </p><p>
+ * PC、モバイルなど折り返し幅、インデント、括弧が異なる複数の出力を作る場合に、
+ * テキストの読み込み、アクター名の引き継ぎ、プレースホルダの置換、単語の区切
+ * りを１回だけ行い、その結果から各プロファイルの折り返しを行う。<br>
+ * そのため、プロファイルごとにTextFormatterで整形する場合よりも少ない負荷で整形で
+ * きる。<br>
+ * ただし、折り返しと行の文字列の生成はプロファイルごとに行うため、処理時間は
+ * プロファイルの数にほぼ比例する。個別に整形する場合と比べて短縮できるのは共
+ * 有する処理の分だけで、４つのプロファイルで６〜７割程度になる。
+ * </p><p>
+ * 各プロファイルの結果は、そのTextFormatterで個別に整形した結果と同じになる。<br>
+ * 共有する処理の結果が同じになるように、すべてのプロファイルのアクター名オプ
+ * ションと変数は同じでなければならない。
+ * </p><p>
+ * このクラスは不変クラスであり、複数スレッドから共有して使用できる。
+ * </p>
+ */
+public final class MultiProfileFormatter {
+
+  private final List<TextFormatter> profiles;
+
+  /** いずれかのプロファイルが折り返しを行うかどうか */
+  private final boolean tokenize;
+
+  // constructor
+
+  public MultiProfileFormatter(TextFormatter... profiles) {//{{{
+    this(Arrays.asList(profiles));
+  }//}}}
+
+  public MultiProfileFormatter(List<TextFormatter> profiles) {//{{{
+    if (profiles.isEmpty())
+      throw new IllegalArgumentException("プロファイルを１つ以上指定する必要があります。");
+
+    TextFormatter first = profiles.get(0);
+    boolean tokenize = false;
+    for (int i=0; i<profiles.size(); i++) {
+      TextFormatter profile = profiles.get(i);
+      if (!first.canSharePreparation(profile))
+        throw new IllegalArgumentException(
+            "アクター名オプションと変数はすべてのプロファイルで同じでなければなりません。 - index : " + i);
+      tokenize |= profile.returnOption();
+    }
+
+    this.profiles = Collections.unmodifiableList(new ArrayList<>(profiles));
+    this.tokenize = tokenize;
+  }//}}}
+
+  // public methods
+
+  /**
+   * プロファイルのリストを返す。
+   * @return 変更不可のプロファイルのリスト
+   */
+  public List<TextFormatter> getProfiles() {//{{{
+    return profiles;
+  }//}}}
+
+  /**
+   * 段落リストを各プロファイルで整形する。
+   * @param paragraphList 段落リスト
+   * @return プロファイルの順に並べた、各プロファイルの整形済みリスト
+   */
+  public List<List<List<String>>> format(List<List<String>> paragraphList) {//{{{
+    List<List<List<String>>> results = newResults(paragraphList.size());
+
+    String actorName = "";
+    for (List<String> paragraph : paragraphList) {
+      formatParagraph(paragraph, actorName, results);
+      actorName = profiles.get(0).nextActorName(actorName, paragraph);
+    }
+
+    return results;
+  }//}}}
+
+  /**
+   * 読み取り元から段落を１つずつ読み取り、各プロファイルで整形する。
+   * テキストの読み取りは１回だけ行う。
+   * @param reader 読み取り元
+   * @return プロファイルの順に並べた、各プロファイルの整形済みリスト
+   * @throws IOException 読み取りに失敗した場合
+   */
+  public List<List<List<String>>> format(Reader reader) throws IOException {//{{{
+    return format(new ParagraphReader(reader));
+  }//}}}
+
+  /**
+   * UTF-8のテキストファイルから段落を１つずつ読み取り、各プロファイルで整形す
+   * る。
+   * @param path 読み取り対象のテキストファイル
+   * @return プロファイルの順に並べた、各プロファイルの整形済みリスト
+   * @throws IOException 読み取りに失敗した場合
+   * @see #format(Reader)
+   */
+  public List<List<List<String>>> format(Path path) throws IOException {//{{{
+    try (ParagraphReader paragraphReader = new ParagraphReader(path)) {
+      return format(paragraphReader);
+    }
+  }//}}}
+
+  // private methods
+
+  private List<List<List<String>>> format(ParagraphReader paragraphReader) throws IOException {//{{{
+    List<List<List<String>>> results = newResults(16);
+
+    String actorName = "";
+    List<String> paragraph;
+    while ((paragraph = paragraphReader.readParagraph()) != null) {
+      formatParagraph(paragraph, actorName, results);
+      actorName = profiles.get(0).nextActorName(actorName, paragraph);
+    }
+
+    return results;
+  }//}}}
+
+  /**
+   * 段落の置換を１回だけ行い、各プロファイルで整形する。
+   */
+  private void formatParagraph(List<String> paragraph, String actorName, List<List<List<String>>> results) {//{{{
+    PreparedParagraph prepared = profiles.get(0).prepare(paragraph, actorName, tokenize);
+    for (int i=0; i<profiles.size(); i++)
+      profiles.get(i).formatPrepared(prepared, results.get(i));
+  }//}}}
+
+  private List<List<List<String>>> newResults(int capacity) {//{{{
+    List<List<List<String>>> results = new ArrayList<>(profiles.size());
+    for (int i=0; i<profiles.size(); i++)
+      results.add(new ArrayList<>(capacity));
+    return results;
+  }//}}}
+
+}
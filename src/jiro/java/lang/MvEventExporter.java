@@ -0,0 +1,235 @@
+package jiro.java.lang;
+
+import java.io.IOException;
+
+/**
+ * <p>
+ * 整形結果をRPGツクールMVのイベントコマンドのJSON配列として出力するビジタ。
+ * </p><p>
+ * ウィンドウごとに「文章の表示」のヘッダ(コード101)と、各行のテキスト(コード
+ * 401)を出力し、最後にリストの終端(コード0)を出力して配列を閉じる。
+ * </p><p>
+ * MVのコード101には名前欄がないため、既定ではアクター名を段落の最初のウィン
+ * ドウの先頭行(コード401)として出力する。<br>
+ * 名前欄を使用する場合(ツクールMZ)は、アクター名をコード101のパラメータの５番
+ * 目に出力し、本文には出力しない。
+ * </p><p>
+ * アクター名行の#はスクリプトの記法であるため出力しない。出力するのはアクター
+ * 名だけで、名前の書式({@code \C[6]%s\C[0]}など)を指定した場合は、その
+ * {@code %s}をアクター名に置き換えて出力する。
+ * </p><p>
+ * 制御文字の途中で折り返すとゲーム内の表示が壊れるため、折り返しを行う
+ * TextFormatterにはEscapeCodes(EscapeCodes.DEFAULTなど)を設定する必要がある。
+ * </p><p>
+ * JsonWriterで先頭から順に出力するため、出力全体をメモリに保持しない。
+ * </p>
+ */
+public class MvEventExporter implements FormatVisitor {
+
+  /** 文章の表示 */
+  public static final int SHOW_TEXT = 101;
+
+  /** 文章の表示の本文 */
+  public static final int TEXT = 401;
+
+  /** リストの終端 */
+  public static final int END = 0;
+
+  /** ウィンドウ背景: ウィンドウ */
+  public static final int BACKGROUND_WINDOW = 0;
+
+  /** ウィンドウ位置: 下 */
+  public static final int POSITION_BOTTOM = 2;
+
+  private final JsonWriter writer;
+  private final int indent;
+  private final String faceName;
+  private final int faceIndex;
+  private final int background;
+  private final int positionType;
+
+  /** アクター名を名前欄に出力するかどうか */
+  private final boolean speakerNameOption;
+
+  /** 名前の書式の%sの前後の文字列 */
+  private final String namePrefix;
+  private final String nameSuffix;
+
+  private boolean started = false;
+
+  /** 段落の最初のウィンドウかどうか */
+  private boolean topWindow = false;
+
+  // constructor
+
+  public MvEventExporter(Appendable out) {//{{{
+    this(out, 0, "", 0, BACKGROUND_WINDOW, POSITION_BOTTOM);
+  }//}}}
+
+  /**
+   * アクター名を本文の先頭行として出力する。
+   * @param out 出力先
+   * @param indent イベントコマンドのインデント
+   * @param faceName 顔画像のファイル名
+   * @param faceIndex 顔画像の番号
+   * @param background ウィンドウ背景
+   * @param positionType ウィンドウ位置
+   */
+  public MvEventExporter(//{{{
+      Appendable out
+      , int indent
+      , String faceName
+      , int faceIndex
+      , int background
+      , int positionType
+      )
+  {
+    this(out, indent, faceName, faceIndex, background, positionType, false);
+  }//}}}
+
+  /**
+   * @param out 出力先
+   * @param indent イベントコマンドのインデント
+   * @param faceName 顔画像のファイル名
+   * @param faceIndex 顔画像の番号
+   * @param background ウィンドウ背景
+   * @param positionType ウィンドウ位置
+   * @param speakerNameOption アクター名をコード101の名前欄(ツクールMZ)に出力
+   * する場合は{@code true}
+   */
+  public MvEventExporter(//{{{
+      Appendable out
+      , int indent
+      , String faceName
+      , int faceIndex
+      , int background
+      , int positionType
+      , boolean speakerNameOption
+      )
+  {
+    this(out, indent, faceName, faceIndex, background, positionType, speakerNameOption, "%s");
+  }//}}}
+
+  /**
+   * @param out 出力先
+   * @param indent イベントコマンドのインデント
+   * @param faceName 顔画像のファイル名
+   * @param faceIndex 顔画像の番号
+   * @param background ウィンドウ背景
+   * @param positionType ウィンドウ位置
+   * @param speakerNameOption アクター名をコード101の名前欄(ツクールMZ)に出力
+   * する場合は{@code true}
+   * @param nameFormat アクター名の書式。{@code %s}をアクター名に置き換える
+   */
+  public MvEventExporter(//{{{
+      Appendable out
+      , int indent
+      , String faceName
+      , int faceIndex
+      , int background
+      , int positionType
+      , boolean speakerNameOption
+      , String nameFormat
+      )
+  {
+    int index = nameFormat.indexOf("%s");
+    if (index < 0)
+      throw new IllegalArgumentException("名前の書式には%sを含める必要があります。 - nameFormat : " + nameFormat);
+
+    this.writer            = new JsonWriter(out);
+    this.indent            = indent;
+    this.faceName          = faceName;
+    this.faceIndex         = faceIndex;
+    this.background        = background;
+    this.positionType      = positionType;
+    this.speakerNameOption = speakerNameOption;
+    this.namePrefix        = nameFormat.substring(0, index);
+    this.nameSuffix        = nameFormat.substring(index + 2);
+  }//}}}
+
+  // public methods
+
+  /**
+   * 制御文字の途中で折り返した結果を出力しないように{@code true}を返す。
+   */
+  @Override
+  public boolean requiresEscapeCodes() {//{{{
+    return true;
+  }//}}}
+
+  @Override
+  public void paragraphStart() throws IOException {//{{{
+    topWindow = true;
+  }//}}}
+
+  /**
+   * ウィンドウの開始を受け取る。
+   * アクター名行は使用せず、アクター名だけを出力する。
+   */
+  @Override
+  public void windowStart(String actorName) throws IOException {//{{{
+    start();
+    beginCommand(SHOW_TEXT);
+    writer.value(faceName)
+      .value(faceIndex)
+      .value(background)
+      .value(positionType);
+    if (speakerNameOption)
+      writer.value(actorName == null || actorName.isEmpty() ? "" : displayName(actorName));
+    endCommand();
+
+    // 名前のないアクター名行(#だけの行)は空の行になるため出力しない
+    if (!speakerNameOption && topWindow && actorName != null && !actorName.isEmpty())
+      line(displayName(actorName));
+    topWindow = false;
+  }//}}}
+
+  @Override
+  public void line(CharSequence line) throws IOException {//{{{
+    beginCommand(TEXT);
+    writer.value(line);
+    endCommand();
+  }//}}}
+
+  @Override
+  public void paragraphEnd() throws IOException {//{{{
+    writer.flush();
+  }//}}}
+
+  @Override
+  public void end() throws IOException {//{{{
+    start();
+    beginCommand(END);
+    endCommand();
+    writer.endArray();
+    writer.flush();
+  }//}}}
+
+  // private methods
+
+  /**
+   * 名前の書式を適用したアクター名を返す。
+   */
+  private String displayName(String actorName) {//{{{
+    return namePrefix.concat(actorName).concat(nameSuffix);
+  }//}}}
+
+  private void start() throws IOException {//{{{
+    if (!started) {
+      writer.beginArray();
+      started = true;
+    }
+  }//}}}
+
+  private void beginCommand(int code) throws IOException {//{{{
+    writer.beginObject()
+      .name("code").value(code)
+      .name("indent").value(indent)
+      .name("parameters").beginArray();
+  }//}}}
+
+  private void endCommand() throws IOException {//{{{
+    writer.endArray().endObject();
+  }//}}}
+
+}
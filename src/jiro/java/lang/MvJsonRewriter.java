@@ -0,0 +1,541 @@
+package jiro.java.lang;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * RPGツクールMVのイベントを含むJSONファイル(MapXXX.json、CommonEvents.json
+ * など)の文章を、TextFormatterの設定で折り返し直すクラス。
+ * </p><p>
+ * JSONは先頭から順に読み取り、"list"キーの配列以外はそのまま出力する。<br>
+ * "list"の中では「文章の表示」(コード101)とそれに続く本文(コード401)の組を
+ * まとめて読み取り、本文を１つの段落として整形し直す。<br>
+ * 整形結果が４行を超える場合は、元のコード101を複製してウィンドウを分割する。
+ * 整形結果が元の本文と同じ組と、それ以外のコマンドは元の文字列のまま出力する
+ * ため、変更のないファイルはバイト単位で同一になる。<br>
+ * 折り返しで文字が失われる組(末尾の英数字など)も元の文字列のまま出力し、
+ * rewriteの戻り値として報告する。
+ * </p><p>
+ * 本文が整形済みの場合に括弧やインデントを重ねて付与しないように、本文の先頭
+ * と末尾が設定した括弧の場合は括弧を除き、インデントを付与する設定で２行目以
+ * 降がすべてインデントで始まる場合はインデントを除いてから整形する。そのため、
+ * 同じ設定で繰り返し実行しても結果は変わらない。
+ * </p><p>
+ * 一度に保持するのはコマンド１組分の文字列だけであるため、ファイル全体を読み込
+ * まずに処理できる。
+ * </p><p>
+ * 本文にはアクター名行が含まれないため、TextFormatterはactorNameOptionを無効にし
+ * て生成する必要がある。<br>
+ * 制御文字の途中で折り返すとゲーム内の表示が壊れるため、折り返しを行う
+ * TextFormatterにはEscapeCodes(EscapeCodes.DEFAULTなど)を設定する必要がある。
+ * </p>
+ */
+public class MvJsonRewriter {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final String LIST_KEY = "list";
+  private static final String DEFAULT_SEPARATOR = ",";
+
+  private final TextFormatter formatter;
+
+  // constructor
+
+  /**
+   * @param formatter 文章を折り返すTextFormatter
+   * @throws IllegalArgumentException 折り返しを行うTextFormatterにEscapeCodesが設
+   * 定されていない場合
+   */
+  public MvJsonRewriter(TextFormatter formatter) {//{{{
+    if (!formatter.keepsEscapeCodes())
+      throw new IllegalArgumentException(
+          "折り返しを行うTextFormatterにはEscapeCodesを設定する必要があります。 - formatter : "
+          + formatter.getFingerprint());
+    this.formatter = formatter;
+  }//}}}
+
+  // public methods
+
+  /**
+   * ファイルの文章を折り返し直して上書きする。
+   * 一時ファイルに書き込んでから置き換えるため、失敗した場合も元のファイルは壊
+   * れない。ファイルの権限と所有者は元のファイルから引き継ぐ。
+   * @param file 対象のJSONファイル
+   * @return 折り返すと文字が失われるため、元のまま出力した組のリスト
+   * @throws IOException 読み書きに失敗した場合
+   */
+  public List<SkippedGroup> rewrite(Path file) throws IOException {//{{{
+    Path tmp = UtilsFile.createTempFileFor(file);
+    try {
+      List<SkippedGroup> skipped = rewrite(file, tmp);
+      UtilsFile.replace(tmp, file);
+      return skipped;
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }//}}}
+
+  /**
+   * 入力ファイルの文章を折り返し直して出力ファイルに書き込む。
+   * @param in 入力ファイル
+   * @param out 出力ファイル
+   * @return 折り返すと文字が失われるため、元のまま出力した組のリスト
+   * @throws IOException 読み書きに失敗した場合
+   */
+  public List<SkippedGroup> rewrite(Path in, Path out) throws IOException {//{{{
+    try (
+        Reader reader = Files.newBufferedReader(in, UTF_8);
+        Writer writer = Files.newBufferedWriter(out, UTF_8)
+        )
+    {
+      return rewrite(reader, writer);
+    }
+  }//}}}
+
+  /**
+   * 読み取り元のJSONの文章を折り返し直して出力先に書き込む。
+   * @param reader 読み取り元
+   * @param writer 出力先
+   * @return 折り返すと文字が失われるため、元のまま出力した組のリスト
+   * @throws IOException 読み書きに失敗した場合、またはJSONが途中で終わっている場合
+   */
+  public List<SkippedGroup> rewrite(Reader reader, Writer writer) throws IOException {//{{{
+    Session session = new Session(reader, writer);
+    session.run();
+    writer.flush();
+    return session.skipped;
+  }//}}}
+
+  // private methods
+
+  /**
+   * 文章の表示のウィンドウ１組を整形し直して出力する。
+   * @return 折り返すと文字が失われるため、元のまま出力した場合は{@code false}
+   */
+  private boolean writeGroup(Group group, Writer out) throws IOException {//{{{
+    List<String> texts = group.texts.isEmpty() || group.continued ? null : unformat(group.texts);
+    List<List<String>> windowList = texts == null
+      ? null
+      : formatter.formatParagraph(texts, "");
+
+    boolean lossy = windowList != null
+      && countVisibleChars(windowList) < countVisibleChars(Collections.singletonList(group.texts));
+
+    if (windowList == null
+        || (windowList.size() == 1 && windowList.get(0).equals(group.texts))
+        || lossy)
+    {
+      out.write(group.separator);
+      out.write(group.header);
+      for (int i=0; i<group.texts.size(); i++) {
+        out.write(group.textSeparators.get(i));
+        out.write(group.textCommands.get(i));
+      }
+      return !lossy;
+    }
+
+    String separator = group.textSeparators.isEmpty()
+      ? DEFAULT_SEPARATOR
+      : group.textSeparators.get(0);
+
+    for (int w=0; w<windowList.size(); w++) {
+      out.write(w == 0 ? group.separator : separator);
+      out.write(group.header);
+
+      for (String line : windowList.get(w)) {
+        out.write(separator);
+        JsonWriter json = new JsonWriter(out);
+        json.beginObject()
+          .name("code").value(MvEventExporter.TEXT)
+          .name("indent").rawValue(group.indent)
+          .name("parameters").beginArray().value(line).endArray()
+          .endObject();
+      }
+    }
+    return true;
+  }//}}}
+
+  /**
+   * <p>
+   * 整形済みの本文から、整形時に付与される括弧とインデントを取り除く。
+   * </p><p>
+   * 括弧は先頭と末尾の両方が設定した括弧の場合に、インデントは２行目以降がすべ
+   * てインデントで始まる場合に取り除く。<br>
+   * 括弧の片方だけを含む組と、すべての行がインデントで始まる組は、複数のウィン
+   * ドウに分割された整形済みの段落の一部であるため、整形せずに{@code null}を返
+   * す。分割された段落の途中の組はGroup#continuedで判別する。
+   * </p>
+   */
+  private List<String> unformat(List<String> texts) {//{{{
+    List<String> lines = new ArrayList<>(texts);
+    int last = lines.size() - 1;
+
+    String indent = formatter.indent();
+    boolean indentable = formatter.returnOption() && formatter.indentOption() && !indent.isEmpty();
+
+    String start = formatter.bracketsStart();
+    String end   = formatter.bracketsEnd();
+    if (!start.isEmpty()) {
+      boolean hasStart = lines.get(0).startsWith(start);
+      boolean hasEnd   = lines.get(last).endsWith(end)
+        && (last != 0 || start.length() + end.length() <= lines.get(0).length());
+      if (hasStart != hasEnd || (!hasStart && indentable && lines.get(0).startsWith(indent)))
+        return null;
+
+      if (hasStart) {
+        lines.set(0, lines.get(0).substring(start.length()));
+        lines.set(last, lines.get(last).substring(0, lines.get(last).length() - end.length()));
+      }
+    }
+
+    if (indentable && 0 < last) {
+      boolean indented = true;
+      for (int i=1; i<=last && indented; i++)
+        indented = lines.get(i).startsWith(indent);
+      if (indented) {
+        for (int i=1; i<=last; i++)
+          lines.set(i, lines.get(i).substring(indent.length()));
+      }
+    }
+    return lines;
+  }//}}}
+
+  /**
+   * 組の後に、複数のウィンドウに分割された整形済みの段落が続くかどうかを返す。
+   * 開始括弧で始まり終了括弧で終わらない組から、終了括弧で終わる組までを分割
+   * された段落とする。
+   * @param group 組
+   * @param continued 組が分割された段落の途中かどうか
+   */
+  private boolean continues(Group group, boolean continued) {//{{{
+    String start = formatter.bracketsStart();
+    if (start.isEmpty() || group.texts.isEmpty())
+      return false;
+
+    boolean closed = group.texts.get(group.texts.size() - 1).endsWith(formatter.bracketsEnd());
+    return !closed && (continued || group.texts.get(0).startsWith(start));
+  }//}}}
+
+  // classes
+
+  /**
+   * 折り返すと文字が失われるため、元のまま出力した「文章の表示」の組。
+   */
+  public static final class SkippedGroup {//{{{
+
+    private final int listIndex;
+    private final int commandIndex;
+    private final List<String> texts;
+
+    private SkippedGroup(int listIndex, int commandIndex, List<String> texts) {//{{{
+      this.listIndex    = listIndex;
+      this.commandIndex = commandIndex;
+      this.texts        = Collections.unmodifiableList(new ArrayList<>(texts));
+    }//}}}
+
+    /**
+     * ファイル内で何番目の"list"配列かを返す。
+     * @return 0から始まる"list"配列の番号
+     */
+    public int getListIndex() {//{{{
+      return listIndex;
+    }//}}}
+
+    /**
+     * "list"配列内のコード101の位置を返す。
+     * @return 0から始まるコマンドの位置
+     */
+    public int getCommandIndex() {//{{{
+      return commandIndex;
+    }//}}}
+
+    /**
+     * 本文の行を返す。
+     * @return 変更不可の本文の行
+     */
+    public List<String> getTexts() {//{{{
+      return texts;
+    }//}}}
+
+    @Override
+    public String toString() {//{{{
+      return String.format(
+          "SkippedGroup: { list = %d, command = %d, texts = %s }."
+          , listIndex, commandIndex, texts);
+    }//}}}
+
+  }//}}}
+
+  /**
+   * コード101と、それに続くコード401の組。
+   */
+  private static final class Group {//{{{
+
+    final String separator;
+    final String header;
+    final String indent;
+    final int listIndex;
+    final int commandIndex;
+
+    /** 複数のウィンドウに分割された整形済みの段落の途中の組かどうか */
+    boolean continued = false;
+
+    final List<String> texts          = new ArrayList<>(4);
+    final List<String> textSeparators = new ArrayList<>(4);
+    final List<String> textCommands   = new ArrayList<>(4);
+
+    Group(String separator, String header, String indent, int listIndex, int commandIndex) {//{{{
+      this.separator    = separator;
+      this.header       = header;
+      this.indent       = indent;
+      this.listIndex    = listIndex;
+      this.commandIndex = commandIndex;
+    }//}}}
+
+  }//}}}
+
+  /**
+   * １回の書き換え処理の状態。
+   */
+  private final class Session {//{{{
+
+    private final Reader in;
+    private final Writer out;
+    private int pushedBack = -2;
+
+    /** 読み取った"list"配列の数 */
+    private int listCount = 0;
+
+    /** 元のまま出力した組 */
+    final List<SkippedGroup> skipped = new ArrayList<>();
+
+    /** 次の組が分割された整形済みの段落の途中かどうか */
+    private boolean continued = false;
+
+    Session(Reader in, Writer out) {//{{{
+      this.in  = in instanceof BufferedReader ? in : new BufferedReader(in);
+      this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out);
+    }//}}}
+
+    void run() throws IOException {//{{{
+      boolean keyIsList = false;
+      boolean valueIsList = false;
+
+      int c;
+      while ((c = read()) != -1) {
+        if (c == '"') {
+          keyIsList = copyString();
+          valueIsList = false;
+          continue;
+        }
+
+        out.write(c);
+        if (isWhiteSpace(c))
+          continue;
+
+        if (c == ':') {
+          valueIsList = keyIsList;
+        } else if (c == '[' && valueIsList) {
+          rewriteList();
+          valueIsList = false;
+        } else {
+          valueIsList = false;
+        }
+        keyIsList = false;
+      }
+      out.flush();
+    }//}}}
+
+    /**
+     * 開始の"を読み取った後の文字列を出力し、文字列が"list"かどうかを返す。
+     */
+    private boolean copyString() throws IOException {//{{{
+      out.write('"');
+      int index = 0;
+      boolean match = true;
+
+      while (true) {
+        int c = readRequired();
+        out.write(c);
+
+        if (c == '"')
+          return match && index == LIST_KEY.length();
+
+        if (c == '\\') {
+          out.write(readRequired());
+          match = false;
+          continue;
+        }
+
+        if (match && (LIST_KEY.length() <= index || LIST_KEY.charAt(index) != c))
+          match = false;
+        index++;
+      }
+    }//}}}
+
+    /**
+     * 開始の[を出力した後の"list"配列を、文章の表示を整形し直しながら出力する。
+     */
+    private void rewriteList() throws IOException {//{{{
+      StringBuilder separator = new StringBuilder();
+      Group group = null;
+      int listIndex = listCount++;
+      int commandIndex = 0;
+      continued = false;
+
+      while (true) {
+        int c = readRequired();
+
+        if (isWhiteSpace(c) || c == ',') {
+          separator.append((char) c);
+          continue;
+        }
+
+        if (c == ']') {
+          if (group != null)
+            writeGroup(group);
+          out.write(separator.toString());
+          out.write(']');
+          return;
+        }
+
+        String command = captureValue(c);
+        Object value = JsonParser.parse(command);
+        Map<?, ?> map = value instanceof Map ? (Map<?, ?>) value : null;
+        Object code = map == null ? null : map.get("code");
+
+        if (isCode(code, MvEventExporter.SHOW_TEXT)) {
+          if (group != null)
+            writeGroup(group);
+          group = new Group(separator.toString(), command, indentOf(map), listIndex, commandIndex);
+
+        } else if (group != null && isCode(code, MvEventExporter.TEXT) && firstParameter(map) != null) {
+          group.texts.add(firstParameter(map));
+          group.textSeparators.add(separator.toString());
+          group.textCommands.add(command);
+
+        } else {
+          if (group != null)
+            writeGroup(group);
+          group = null;
+          out.write(separator.toString());
+          out.write(command);
+        }
+
+        separator.setLength(0);
+        commandIndex++;
+      }
+    }//}}}
+
+    private void writeGroup(Group group) throws IOException {//{{{
+      group.continued = continued;
+      continued = continues(group, continued);
+      if (!MvJsonRewriter.this.writeGroup(group, out))
+        skipped.add(new SkippedGroup(group.listIndex, group.commandIndex, group.texts));
+    }//}}}
+
+    /**
+     * 最初の文字を読み取った後の値を１つ読み取り、元の文字列のまま返す。
+     */
+    private String captureValue(int first) throws IOException {//{{{
+      StringBuilder sb = new StringBuilder();
+      sb.append((char) first);
+
+      if (first != '{' && first != '[') {
+        int c;
+        while ((c = read()) != -1) {
+          if (c == ',' || c == ']' || c == '}' || isWhiteSpace(c)) {
+            pushedBack = c;
+            break;
+          }
+          sb.append((char) c);
+        }
+        return sb.toString();
+      }
+
+      int depth = 1;
+      boolean inString = false;
+      while (0 < depth) {
+        int c = readRequired();
+        sb.append((char) c);
+
+        if (inString) {
+          if (c == '\\')      sb.append((char) readRequired());
+          else if (c == '"')  inString = false;
+          continue;
+        }
+
+        if (c == '"')                  inString = true;
+        else if (c == '{' || c == '[') depth++;
+        else if (c == '}' || c == ']') depth--;
+      }
+      return sb.toString();
+    }//}}}
+
+    private int read() throws IOException {//{{{
+      if (pushedBack != -2) {
+        int c = pushedBack;
+        pushedBack = -2;
+        return c;
+      }
+      return in.read();
+    }//}}}
+
+    private int readRequired() throws IOException {//{{{
+      int c = read();
+      if (c == -1)
+        throw new IOException("JSONが途中で終わっています。");
+      return c;
+    }//}}}
+
+  }//}}}
+
+  /**
+   * 空白以外の文字数を返す。
+   */
+  private static int countVisibleChars(List<List<String>> windowList) {//{{{
+    int count = 0;
+    for (List<String> window : windowList) {
+      for (String line : window) {
+        for (int i=0; i<line.length(); i++) {
+          char ch = line.charAt(i);
+          if (ch != ' ' && ch != '　')
+            count++;
+        }
+      }
+    }
+    return count;
+  }//}}}
+
+  private static boolean isWhiteSpace(int c) {//{{{
+    return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+  }//}}}
+
+  private static boolean isCode(Object code, int expected) {//{{{
+    return code instanceof Number && ((Number) code).doubleValue() == expected;
+  }//}}}
+
+  private static String indentOf(Map<?, ?> command) {//{{{
+    Object indent = command.get("indent");
+    return indent instanceof Number ? indent.toString() : "0";
+  }//}}}
+
+  private static String firstParameter(Map<?, ?> command) {//{{{
+    Object parameters = command.get("parameters");
+    if (!(parameters instanceof List) || ((List<?>) parameters).isEmpty())
+      return null;
+    Object first = ((List<?>) parameters).get(0);
+    return first instanceof String ? (String) first : null;
+  }//}}}
+
+}
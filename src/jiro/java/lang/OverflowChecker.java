@@ -0,0 +1,280 @@
+package jiro.java.lang;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * 整形結果がメッセージウィンドウからはみ出す箇所を検査するクラス。
+ * </p><p>
+ * 次の２種類のはみ出しを検出する。
+ * </p>
+ * <ul>
+ * <li>段落を整形した行数(アクター名行を含む)がウィンドウの行数
+ * (TextFormatter#WINDOW_LINE_SIZE)を超える</li>
+ * <li>折り返した行が、折り返せない１つの単語だけで折り返し幅を超える</li>
+ * </ul>
+ * <p>
+ * 検査はTextFormatterと同じ幅の計算と折り返しの処理で行うが、折り返した行の文字列
+ * やウィンドウのリストは生成せず、行数と行の幅だけを数える。そのため、整形して
+ * 結果を調べるより少ない負荷で、プロジェクト全体を検査できる。
+ * </p><p>
+ * このクラスは不変クラスであり、複数スレッドから共有して使用できる。
+ * </p>
+ */
+public final class OverflowChecker {
+
+  /** はみ出しの種類 */
+  public enum Type {
+    /** 段落の行数がウィンドウの行数を超える */
+    WINDOW,
+    /** １つの単語だけで折り返し幅を超える */
+    TOKEN,
+  }
+
+  private final TextFormatter formatter;
+
+  // constructor
+
+  /**
+   * @param formatter 検査する整形オプションのTextFormatter
+   */
+  public OverflowChecker(TextFormatter formatter) {//{{{
+    this.formatter = formatter;
+  }//}}}
+
+  // public methods
+
+  /**
+   * テキストファイルを読み込み、はみ出しを検査する。
+   * ファイルはFormattableText.Builder(File)と同じ規則で段落に分割する。
+   * @param path テキストファイル
+   * @return ファイル、段落、行の順に並べたはみ出しのリスト
+   * @throws IOException 読み込みに失敗した場合
+   */
+  public List<Violation> check(Path path) throws IOException {//{{{
+    try (ScriptLexer lexer = new ScriptLexer(path)) {
+      return check(path, lexer.readArena().asList());
+    }
+  }//}}}
+
+  /**
+   * 複数のテキストファイルのはみ出しを検査する。
+   * @param paths テキストファイルのリスト
+   * @return ファイル、段落、行の順に並べたはみ出しのリスト
+   * @throws IOException 読み込みに失敗した場合
+   */
+  public List<Violation> check(List<Path> paths) throws IOException {//{{{
+    List<Violation> violations = new ArrayList<>();
+    for (Path path : paths)
+      violations.addAll(check(path));
+    return violations;
+  }//}}}
+
+  /**
+   * 段落リストのはみ出しを検査する。
+   * @param path 段落リストを識別するファイル。存在しない場合は{@code null}
+   * @param paragraphList 段落リスト
+   * @return 段落、行の順に並べたはみ出しのリスト
+   */
+  public List<Violation> check(Path path, List<List<String>> paragraphList) {//{{{
+    List<Violation> violations = new ArrayList<>();
+    Listener listener = new Listener(path, violations);
+
+    String actorName = "";
+    for (int i=0; i<paragraphList.size(); i++) {
+      List<String> paragraph = paragraphList.get(i);
+      listener.start(i);
+      listener.end(formatter.check(paragraph, actorName, listener));
+      actorName = formatter.nextActorName(actorName, paragraph);
+    }
+    return violations;
+  }//}}}
+
+  @Override
+  public String toString() {//{{{
+    return String.format("OverflowChecker: { formatter = %s }.", formatter.getFingerprint());
+  }//}}}
+
+  // classes
+
+  /**
+   * はみ出しの位置。
+   */
+  public static final class Violation {//{{{
+
+    private final Type type;
+    private final Path path;
+    private final int paragraphIndex;
+    private final int lineIndex;
+    private final int column;
+    private final int lineCount;
+    private final float width;
+
+    private Violation(Type type, Path path, int paragraphIndex, int lineIndex, int column, int lineCount, float width) {//{{{
+      this.type           = type;
+      this.path           = path;
+      this.paragraphIndex = paragraphIndex;
+      this.lineIndex      = lineIndex;
+      this.column         = column;
+      this.lineCount      = lineCount;
+      this.width          = width;
+    }//}}}
+
+    /**
+     * はみ出しの種類を返す。
+     * @return はみ出しの種類
+     */
+    public Type getType() {//{{{
+      return type;
+    }//}}}
+
+    /**
+     * はみ出した段落を含むファイルを返す。
+     * @return ファイル。段落リストを検査した場合は{@code null}
+     */
+    public Path getPath() {//{{{
+      return path;
+    }//}}}
+
+    /**
+     * ファイル内の段落の位置を返す。
+     * @return 段落の位置
+     */
+    public int getParagraphIndex() {//{{{
+      return paragraphIndex;
+    }//}}}
+
+    /**
+     * <p>
+     * 段落内の行の位置を返す。
+     * </p><p>
+     * WINDOWの場合はウィンドウの行数を超えた最初の行、TOKENの場合は折り返し幅
+     * を超えた単語を含む行である。
+     * </p>
+     * @return 行の位置
+     */
+    public int getLineIndex() {//{{{
+      return lineIndex;
+    }//}}}
+
+    /**
+     * <p>
+     * 行内の文字の位置を返す。
+     * </p><p>
+     * WINDOWの場合はウィンドウの行数を超えた最初の折り返した行の開始位置、
+     * TOKENの場合は折り返し幅を超えた行の開始位置である。<br>
+     * 位置はプレースホルダを置換した後の行の位置とする。
+     * </p>
+     * @return 文字の位置
+     */
+    public int getColumn() {//{{{
+      return column;
+    }//}}}
+
+    /**
+     * 段落を整形した場合の、アクター名行を含む行数を返す。
+     * @return 行数
+     */
+    public int getLineCount() {//{{{
+      return lineCount;
+    }//}}}
+
+    /**
+     * 折り返し幅を超えた行の、インデントを含む幅を返す。
+     * @return 行の幅。WINDOWの場合は0
+     */
+    public float getWidth() {//{{{
+      return width;
+    }//}}}
+
+    @Override
+    public String toString() {//{{{
+      return String.format(
+          "Violation: { type = %s, path = %s, paragraph = %d, line = %d, column = %d, lineCount = %d, width = %s }."
+          , type, path, paragraphIndex, lineIndex, column, lineCount, width);
+    }//}}}
+
+  }//}}}
+
+  /**
+   * 段落ごとに通知されたはみ出しを、行数を数え終えた時点でリストに追加する。
+   */
+  private static final class Listener implements TextFormatter.OverflowListener {//{{{
+
+    private final Path path;
+    private final List<Violation> violations;
+
+    private int paragraphIndex = 0;
+
+    /** ウィンドウの行数を超えた位置。超えていない場合は-1 */
+    private int windowLine = -1;
+    private int windowColumn = 0;
+
+    /** 折り返し幅を超えた位置と幅 */
+    private int[] tokenLines = new int[4];
+    private int[] tokenColumns = new int[4];
+    private float[] tokenWidths = new float[4];
+    private int tokenCount = 0;
+
+    Listener(Path path, List<Violation> violations) {//{{{
+      this.path       = path;
+      this.violations = violations;
+    }//}}}
+
+    void start(int paragraphIndex) {//{{{
+      this.paragraphIndex = paragraphIndex;
+      this.windowLine     = -1;
+      this.tokenCount     = 0;
+    }//}}}
+
+    @Override
+    public void windowOverflow(int line, int column) {//{{{
+      windowLine   = line;
+      windowColumn = column;
+    }//}}}
+
+    @Override
+    public void tokenOverflow(int line, int column, float width) {//{{{
+      if (tokenLines.length <= tokenCount) {
+        tokenLines   = Arrays.copyOf(tokenLines, tokenCount * 2);
+        tokenColumns = Arrays.copyOf(tokenColumns, tokenCount * 2);
+        tokenWidths  = Arrays.copyOf(tokenWidths, tokenCount * 2);
+      }
+      tokenLines[tokenCount]   = line;
+      tokenColumns[tokenCount] = column;
+      tokenWidths[tokenCount]  = width;
+      tokenCount++;
+    }//}}}
+
+    /**
+     * 段落の行数を数え終えた時点で、はみ出しを行の順にリストに追加する。
+     * @param lineCount 段落の行数
+     */
+    void end(int lineCount) {//{{{
+      boolean windowAdded = windowLine < 0;
+      for (int i=0; i<tokenCount; i++) {
+        if (!windowAdded && windowLine < tokenLines[i]) {
+          addWindow(lineCount);
+          windowAdded = true;
+        }
+        violations.add(new Violation(
+              Type.TOKEN, path, paragraphIndex
+              , tokenLines[i], tokenColumns[i], lineCount, tokenWidths[i]));
+      }
+      if (!windowAdded)
+        addWindow(lineCount);
+    }//}}}
+
+    private void addWindow(int lineCount) {//{{{
+      violations.add(new Violation(
+            Type.WINDOW, path, paragraphIndex
+            , windowLine, windowColumn, lineCount, 0));
+    }//}}}
+
+  }//}}}
+
+}
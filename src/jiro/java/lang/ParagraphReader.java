@@ -0,0 +1,106 @@
+package jiro.java.lang;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * テキストを段落単位で読み取るクラス。
+ * </p><p>
+ * #が２文字以上連続する行はコメント行として読み飛ばし、空の行を段落の区切れと
+ * する。<br>
+ * 一度に保持するのは読み取り中の１段落だけであるため、ファイル全体をメモリに
+ * 読み込まずに処理できる。
+ * </p><p>
+ * 空の行で終わらない最後の段落は、既定ではFormattableText.Builder(File)と同様
+ * に読み取られない。<br>
+ * 末尾に空の行を持たない入力(HTTPの本文やエディタの選択範囲など)を読み取る場
+ * 合は、lastParagraphOptionを有効にして最後の段落も読み取る。
+ * </p>
+ */
+public class ParagraphReader implements Closeable {
+
+  private final BufferedReader reader;
+
+  /** 空の行で終わらない最後の段落も読み取るか */
+  private final boolean lastParagraphOption;
+
+  // constructor
+
+  public ParagraphReader(Reader reader) {//{{{
+    this(reader, false);
+  }//}}}
+
+  /**
+   * @param reader 読み取り元
+   * @param lastParagraphOption 空の行で終わらない最後の段落も読み取る場合は
+   * {@code true}
+   */
+  public ParagraphReader(Reader reader, boolean lastParagraphOption) {//{{{
+    this.reader = reader instanceof BufferedReader
+      ? (BufferedReader) reader
+      : new BufferedReader(reader);
+    this.lastParagraphOption = lastParagraphOption;
+  }//}}}
+
+  public ParagraphReader(Path path) throws IOException {//{{{
+    this(Files.newBufferedReader(path, Charset.forName("UTF-8")));
+  }//}}}
+
+  // public methods
+
+  /**
+   * 次の段落を読み取る。
+   * @return 段落の行リスト。これ以上段落が存在しない場合は{@code null}
+   * @throws IOException 読み取りに失敗した場合
+   */
+  public List<String> readParagraph() throws IOException {//{{{
+    List<String> paragraph = new ArrayList<>();
+
+    String line;
+    while ((line = reader.readLine()) != null) {
+      if (line.startsWith("##"))
+        continue;
+
+      if (line.length() <= 0) {
+        if (0 < paragraph.size())
+          return paragraph;
+        continue;
+      }
+
+      paragraph.add(line);
+    }
+
+    if (lastParagraphOption && 0 < paragraph.size())
+      return paragraph;
+    return null;
+  }//}}}
+
+  /**
+   * 残りのすべての段落を読み取る。
+   * @return 段落リスト
+   * @throws IOException 読み取りに失敗した場合
+   */
+  public List<List<String>> readAllParagraphs() throws IOException {//{{{
+    List<List<String>> paragraphList = new ArrayList<>();
+
+    List<String> paragraph;
+    while ((paragraph = readParagraph()) != null)
+      paragraphList.add(paragraph);
+
+    return paragraphList;
+  }//}}}
+
+  @Override
+  public void close() throws IOException {//{{{
+    reader.close();
+  }//}}}
+
+}
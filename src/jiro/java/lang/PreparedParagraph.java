@@ -0,0 +1,75 @@
+package jiro.java.lang;
+
+import java.util.List;
+
+/**
+ * <p>
+ * アクター名の付与とプレースホルダの置換を済ませた段落。
+ * </p><p>
+ * 折り返し幅、インデント、括弧によらない処理の結果であるため、アクター名オプ
+ * ションと変数が同じ複数のTextFormatterで共有できる。<br>
+ * 単語の区切りを保持する場合は、行ごとに最初に必要になった時点で一度だけ区切
+ * る。単語の幅は置換を行ったTextFormatterの文字幅の求め方で求めるため、求め方が異
+ * なるTextFormatterでは各行を走査し直して折り返す。
+ * </p><p>
+ * このクラスはスレッドセーフではない。
+ * </p>
+ */
+final class PreparedParagraph {
+
+  /** 元の段落 */
+  final List<String> paragraph;
+
+  /** 直前の段落から引き継いだアクター名 */
+  final String actorName;
+
+  /** アクター名行を含む置換後の行 */
+  final String[] lines;
+
+  /** 行ごとの単語の区切り。保持しない場合は{@code null} */
+  private final LineBreaker.Words[] words;
+
+  /** 単語の区切りに使用する折り返し器 */
+  private final LineBreaker lineBreaker;
+
+  // constructor
+
+  /**
+   * @param paragraph 元の段落
+   * @param actorName 直前の段落から引き継いだアクター名
+   * @param lines 置換後の行
+   * @param lineBreaker 単語の区切りに使用する折り返し器。単語の区切りを保持し
+   * ない場合は{@code null}
+   */
+  PreparedParagraph(List<String> paragraph, String actorName, String[] lines, LineBreaker lineBreaker) {//{{{
+    this.paragraph   = paragraph;
+    this.actorName   = actorName;
+    this.lines       = lines;
+    this.lineBreaker = lineBreaker;
+    this.words       = lineBreaker != null ? new LineBreaker.Words[lines.length] : null;
+  }//}}}
+
+  // package private methods
+
+  /**
+   * 単語の区切りを保持するかどうかを返す。
+   */
+  boolean isTokenized() {//{{{
+    return words != null;
+  }//}}}
+
+  /**
+   * 行の単語の区切りを返す。
+   * @param index 行の位置
+   * @return 単語の区切り
+   */
+  LineBreaker.Words words(int index) {//{{{
+    LineBreaker.Words w = words[index];
+    if (w == null) {
+      w = lineBreaker.scan(lines[index]);
+      words[index] = w;
+    }
+    return w;
+  }//}}}
+
+}
@@ -0,0 +1,586 @@
+package jiro.java.lang;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * <p>
+ * 複数のテキストファイルの段落を検索する転置索引クラス。
+ * </p><p>
+ * 段落ごとに、話しているアクター名と、ファイル内のウィンドウ番号を保持する。
+ * アクター名とウィンドウ番号は索引作成時のTextFormatterで整形した場合と同じになる。
+ * <br>
+ * 本文はアクター名行を除いた行を対象とし、日本語は単語を空白で区切らないため、
+ * 単語ではなく文字の1-gramと2-gramで索引を作成する。文字列の検索では、検索文
+ * 字列のすべての2-gramを含む段落を索引から絞り込み、その段落の本文だけを照合す
+ * る。
+ * </p><p>
+ * 索引の語から段落へのリスト(ポスティングリスト)は段落番号のint配列で保持する。
+ * <br>
+ * ファイル単位で更新でき、更新したファイルの古い段落は削除済みとして検索から除
+ * 外する。削除済みの段落が有効な段落より多くなった時点で索引を作り直す。
+ * </p><p>
+ * このクラスはスレッドセーフではない。
+ * </p>
+ */
+public class ScriptIndex {
+
+  private final TextFormatter formatter;
+
+  /** ファイルと索引中の位置 */
+  private final Map<Path, FileEntry> files = new HashMap<>();
+
+  /** アクター名の索引 */
+  private final Map<String, Postings> actors = new HashMap<>();
+
+  /** 文字の1-gramの索引 */
+  private final PostingMap unigrams = new PostingMap();
+
+  /** 文字の2-gramの索引 */
+  private final PostingMap bigrams = new PostingMap();
+
+  /** 段落番号ごとのファイル */
+  private FileEntry[] docFiles = new FileEntry[64];
+
+  /** 段落番号ごとのファイル内の段落の位置 */
+  private int[] docParagraphs = new int[64];
+
+  /** 段落番号ごとのファイル内の先頭のウィンドウ番号 */
+  private int[] docWindows = new int[64];
+
+  /** 段落番号ごとのウィンドウ数 */
+  private int[] docWindowCounts = new int[64];
+
+  /** 段落番号ごとのアクター名 */
+  private String[] docActors = new String[64];
+
+  /** 段落番号ごとの改行で連結した本文 */
+  private String[] docTexts = new String[64];
+
+  /** 発行済みの段落番号の数 */
+  private int docCount = 0;
+
+  /** 削除済みの段落番号 */
+  private final BitSet deleted = new BitSet();
+
+  /** 削除済みの段落の数 */
+  private int deletedCount = 0;
+
+  // constructor
+
+  /**
+   * @param formatter アクター名の引き継ぎとウィンドウ番号の計算に使用する
+   * TextFormatter
+   */
+  public ScriptIndex(TextFormatter formatter) {//{{{
+    this.formatter = formatter;
+  }//}}}
+
+  // public methods
+
+  /**
+   * <p>
+   * テキストファイルを読み込み、そのファイルの索引を更新する。
+   * </p><p>
+   * ファイルはFormattableText.Builder(File)と同じ規則で段落に分割する。
+   * </p>
+   * @param path テキストファイル
+   * @throws IOException 読み込みに失敗した場合
+   */
+  public void update(Path path) throws IOException {//{{{
+    try (ScriptLexer lexer = new ScriptLexer(path)) {
+      update(path, lexer.readArena().asList());
+    }
+  }//}}}
+
+  /**
+   * 段落リストでファイルの索引を更新する。
+   * エディタで編集中の内容など、保存前の内容で索引を更新する場合に使用する。
+   * @param path 段落リストを識別するファイル
+   * @param paragraphList 段落リスト
+   */
+  public void update(Path path, List<List<String>> paragraphList) {//{{{
+    removeDocs(files.remove(path));
+
+    FileEntry file = new FileEntry(path, docCount, paragraphList.size());
+    files.put(path, file);
+
+    String actorName = "";
+    int window = 0;
+    for (int i=0; i<paragraphList.size(); i++) {
+      List<String> paragraph = paragraphList.get(i);
+      int windowCount = formatter.countWindows(paragraph, actorName);
+      addDoc(file, i, window, windowCount, speakerOf(paragraph, actorName), paragraph);
+      window += windowCount;
+      actorName = formatter.nextActorName(actorName, paragraph);
+    }
+    file.windowCount = window;
+
+    if (docCount - deletedCount < deletedCount)
+      compact();
+  }//}}}
+
+  /**
+   * ファイルを索引から削除する。
+   * @param path ファイル
+   * @return ファイルが索引に存在した場合は{@code true}
+   */
+  public boolean remove(Path path) {//{{{
+    FileEntry file = files.remove(path);
+    if (file == null)
+      return false;
+
+    removeDocs(file);
+    if (docCount - deletedCount < deletedCount)
+      compact();
+    return true;
+  }//}}}
+
+  /**
+   * 索引に含まれるファイルを返す。
+   * @return 変更不可のファイルの集合
+   */
+  public Set<Path> getPaths() {//{{{
+    return Collections.unmodifiableSet(files.keySet());
+  }//}}}
+
+  /**
+   * 索引に含まれるアクター名を返す。
+   * @return 名前順に並べたアクター名の集合
+   */
+  public Set<String> getActorNames() {//{{{
+    Set<String> names = new TreeSet<>();
+    for (Map.Entry<String, Postings> entry : actors.entrySet()) {
+      Postings postings = entry.getValue();
+      for (int i=0; i<postings.size; i++) {
+        if (!deleted.get(postings.docs[i])) {
+          names.add(entry.getKey());
+          break;
+        }
+      }
+    }
+    return names;
+  }//}}}
+
+  /**
+   * 索引に含まれる段落の数を返す。
+   * @return 段落の数
+   */
+  public int paragraphCount() {//{{{
+    return docCount - deletedCount;
+  }//}}}
+
+  /**
+   * 指定したアクターが話している段落を検索する。
+   * @param actorName アクター名
+   * @return ファイルと段落の位置の順に並べた検索結果
+   */
+  public List<Hit> findByActor(String actorName) {//{{{
+    Postings postings = actors.get(actorName);
+    if (postings == null)
+      return new ArrayList<>();
+    return toHits(postings.docs, postings.size, null);
+  }//}}}
+
+  /**
+   * 本文に文字列を含む段落を検索する。
+   * @param phrase 検索する文字列
+   * @return ファイルと段落の位置の順に並べた検索結果
+   */
+  public List<Hit> find(String phrase) {//{{{
+    return find(null, phrase);
+  }//}}}
+
+  /**
+   * 指定したアクターが話している段落のうち、本文に文字列を含む段落を検索する。
+   * 行をまたぐ文字列には一致しない。
+   * @param actorName アクター名。{@code null}の場合はすべてのアクターを対象とす
+   * る
+   * @param phrase 検索する文字列
+   * @return ファイルと段落の位置の順に並べた検索結果
+   */
+  public List<Hit> find(String actorName, String phrase) {//{{{
+    if (phrase.isEmpty())
+      throw new IllegalArgumentException("検索する文字列が空です。");
+
+    List<Postings> lists = new ArrayList<>();
+    if (actorName != null)
+      lists.add(actors.get(actorName));
+
+    if (phrase.length() == 1) {
+      lists.add(unigrams.get(phrase.charAt(0)));
+    } else {
+      for (int i=0; i+1<phrase.length(); i++)
+        lists.add(bigrams.get(bigram(phrase, i)));
+    }
+
+    if (lists.contains(null))
+      return new ArrayList<>();
+
+    Collections.sort(lists, Comparator.comparingInt(p -> p.size));
+    Postings first = lists.get(0);
+    int[] docs = Arrays.copyOf(first.docs, first.size);
+    int size = first.size;
+    for (int i=1; i<lists.size() && 0 < size; i++)
+      size = intersect(docs, size, lists.get(i));
+
+    // 2-gramを含むだけで連続していない段落を除く
+    return toHits(docs, size, 2 < phrase.length() ? phrase : null);
+  }//}}}
+
+  @Override
+  public String toString() {//{{{
+    return String.format(
+        "ScriptIndex: { files = %d, paragraphs = %d, actors = %d, unigrams = %d, bigrams = %d }."
+        , files.size(), paragraphCount(), actors.size(), unigrams.size, bigrams.size);
+  }//}}}
+
+  // private methods
+
+  /**
+   * 段落を話しているアクター名を返す。
+   * 先頭の行がアクター名行の場合はその名前、そうでない場合は直前の段落から引き
+   * 継いだアクター名とする。
+   */
+  private static String speakerOf(List<String> paragraph, String actorName) {//{{{
+    String top = paragraph.get(0);
+    return top.startsWith("#") ? TextFormatter.toActorName(top) : actorName;
+  }//}}}
+
+  private void addDoc(FileEntry file, int paragraphIndex, int window, int windowCount, String actorName, List<String> paragraph) {//{{{
+    StringBuilder sb = new StringBuilder();
+    int start = paragraph.get(0).startsWith("#") ? 1 : 0;
+    for (int i=start; i<paragraph.size(); i++) {
+      if (start < i)
+        sb.append('\n');
+      sb.append(paragraph.get(i));
+    }
+    addDoc(file, paragraphIndex, window, windowCount, actorName, sb.toString());
+  }//}}}
+
+  private void addDoc(FileEntry file, int paragraphIndex, int window, int windowCount, String actorName, String text) {//{{{
+    if (docFiles.length <= docCount)
+      grow(docCount * 2);
+
+    int doc = docCount++;
+    docFiles[doc]        = file;
+    docParagraphs[doc]   = paragraphIndex;
+    docWindows[doc]      = window;
+    docWindowCounts[doc] = windowCount;
+    docActors[doc]       = actorName;
+    docTexts[doc]        = text;
+
+    if (!actorName.isEmpty())
+      actors.computeIfAbsent(actorName, k -> new Postings()).add(doc);
+
+    for (int i=0; i<text.length(); i++) {
+      char ch = text.charAt(i);
+      if (ch == '\n')
+        continue;
+      unigrams.add(ch, doc);
+      if (i + 1 < text.length() && text.charAt(i + 1) != '\n')
+        bigrams.add(bigram(text, i), doc);
+    }
+  }//}}}
+
+  private void removeDocs(FileEntry file) {//{{{
+    if (file == null)
+      return;
+
+    int end = file.firstDoc + file.paragraphCount;
+    for (int doc=file.firstDoc; doc<end; doc++) {
+      docFiles[doc] = null;
+      docTexts[doc] = null;
+    }
+    deleted.set(file.firstDoc, end);
+    deletedCount += file.paragraphCount;
+  }//}}}
+
+  /**
+   * 削除済みの段落を除いて索引を作り直す。
+   */
+  private void compact() {//{{{
+    FileEntry[] oldFiles = docFiles;
+    int[] oldParagraphs = docParagraphs;
+    int[] oldWindows = docWindows;
+    int[] oldWindowCounts = docWindowCounts;
+    String[] oldActors = docActors;
+    String[] oldTexts = docTexts;
+    int oldCount = docCount;
+
+    int capacity = Math.max(64, docCount - deletedCount);
+    docFiles        = new FileEntry[capacity];
+    docParagraphs   = new int[capacity];
+    docWindows      = new int[capacity];
+    docWindowCounts = new int[capacity];
+    docActors       = new String[capacity];
+    docTexts        = new String[capacity];
+    docCount        = 0;
+    deleted.clear();
+    deletedCount    = 0;
+    actors.clear();
+    unigrams.clear();
+    bigrams.clear();
+
+    // ファイルの段落は連続した段落番号で発行済みのため、先頭の段落で移動先を記録する
+    for (int doc=0; doc<oldCount; doc++) {
+      FileEntry file = oldFiles[doc];
+      if (file == null)
+        continue;
+      if (oldParagraphs[doc] == 0)
+        file.firstDoc = docCount;
+      addDoc(file, oldParagraphs[doc], oldWindows[doc], oldWindowCounts[doc], oldActors[doc], oldTexts[doc]);
+    }
+  }//}}}
+
+  private void grow(int capacity) {//{{{
+    docFiles        = Arrays.copyOf(docFiles, capacity);
+    docParagraphs   = Arrays.copyOf(docParagraphs, capacity);
+    docWindows      = Arrays.copyOf(docWindows, capacity);
+    docWindowCounts = Arrays.copyOf(docWindowCounts, capacity);
+    docActors       = Arrays.copyOf(docActors, capacity);
+    docTexts        = Arrays.copyOf(docTexts, capacity);
+  }//}}}
+
+  /**
+   * 昇順の段落番号の配列と、ポスティングリストの共通部分を配列の先頭に詰める。
+   * ポスティングリストは指数探索で読み飛ばす。
+   * @return 共通部分の数
+   */
+  private static int intersect(int[] docs, int size, Postings postings) {//{{{
+    int[] other = postings.docs;
+    int otherSize = postings.size;
+    int count = 0;
+    int j = 0;
+    for (int i=0; i<size && j<otherSize; i++) {
+      int doc = docs[i];
+      if (other[j] < doc) {
+        int step = 1;
+        int low = j;
+        while (j + step < otherSize && other[j + step] < doc) {
+          low = j + step;
+          step <<= 1;
+        }
+        int found = Arrays.binarySearch(other, low, Math.min(j + step + 1, otherSize), doc);
+        j = found < 0 ? -found - 1 : found;
+      }
+      if (j < otherSize && other[j] == doc)
+        docs[count++] = doc;
+    }
+    return count;
+  }//}}}
+
+  /**
+   * 段落番号を検索結果に変換する。
+   * @param phrase 本文と照合する文字列。照合しない場合は{@code null}
+   */
+  private List<Hit> toHits(int[] docs, int size, String phrase) {//{{{
+    List<Hit> hits = new ArrayList<>();
+    for (int i=0; i<size; i++) {
+      int doc = docs[i];
+      if (deleted.get(doc))
+        continue;
+      if (phrase != null && !docTexts[doc].contains(phrase))
+        continue;
+      hits.add(new Hit(docFiles[doc].path, docParagraphs[doc], docWindows[doc], docWindowCounts[doc], docActors[doc]));
+    }
+
+    // 同じファイルの段落は段落番号の順に並んでいるため、ファイルの順だけを揃える
+    Collections.sort(hits, Comparator.comparing((Hit h) -> h.path).thenComparingInt(h -> h.paragraphIndex));
+    return hits;
+  }//}}}
+
+  private static int bigram(CharSequence text, int index) {//{{{
+    return (text.charAt(index) << 16) | text.charAt(index + 1);
+  }//}}}
+
+  // classes
+
+  /**
+   * 検索結果の段落。
+   */
+  public static final class Hit {//{{{
+
+    private final Path path;
+    private final int paragraphIndex;
+    private final int windowIndex;
+    private final int windowCount;
+    private final String actorName;
+
+    private Hit(Path path, int paragraphIndex, int windowIndex, int windowCount, String actorName) {//{{{
+      this.path           = path;
+      this.paragraphIndex = paragraphIndex;
+      this.windowIndex    = windowIndex;
+      this.windowCount    = windowCount;
+      this.actorName      = actorName;
+    }//}}}
+
+    /**
+     * 段落を含むファイルを返す。
+     * @return ファイル
+     */
+    public Path getPath() {//{{{
+      return path;
+    }//}}}
+
+    /**
+     * ファイル内の段落の位置を返す。
+     * @return 段落の位置
+     */
+    public int getParagraphIndex() {//{{{
+      return paragraphIndex;
+    }//}}}
+
+    /**
+     * ファイルを整形した場合の、段落の先頭のウィンドウ番号を返す。
+     * @return ウィンドウ番号
+     */
+    public int getWindowIndex() {//{{{
+      return windowIndex;
+    }//}}}
+
+    /**
+     * 段落を整形した場合のウィンドウ数を返す。
+     * @return ウィンドウ数
+     */
+    public int getWindowCount() {//{{{
+      return windowCount;
+    }//}}}
+
+    /**
+     * 段落を話しているアクター名を返す。
+     * @return アクター名。アクターが存在しない場合は空文字列
+     */
+    public String getActorName() {//{{{
+      return actorName;
+    }//}}}
+
+    @Override
+    public String toString() {//{{{
+      return String.format(
+          "Hit: { path = %s, paragraph = %d, window = %d, windowCount = %d, actor = %s }."
+          , path, paragraphIndex, windowIndex, windowCount, actorName);
+    }//}}}
+
+  }//}}}
+
+  /**
+   * ファイルと、そのファイルの段落に発行した段落番号の範囲。
+   */
+  private static final class FileEntry {//{{{
+
+    final Path path;
+    final int paragraphCount;
+    int firstDoc;
+    int windowCount = 0;
+
+    FileEntry(Path path, int firstDoc, int paragraphCount) {//{{{
+      this.path           = path;
+      this.firstDoc       = firstDoc;
+      this.paragraphCount = paragraphCount;
+    }//}}}
+
+  }//}}}
+
+  /**
+   * 昇順の段落番号のリスト。
+   */
+  private static final class Postings {//{{{
+
+    int[] docs = new int[4];
+    int size = 0;
+
+    /**
+     * 段落番号を追加する。段落番号は昇順に追加し、同じ番号は１つにまとめる。
+     */
+    void add(int doc) {//{{{
+      if (0 < size && docs[size - 1] == doc)
+        return;
+      if (docs.length <= size)
+        docs = Arrays.copyOf(docs, size * 2);
+      docs[size++] = doc;
+    }//}}}
+
+  }//}}}
+
+  /**
+   * intをキー、ポスティングリストを値とするオープンアドレス法のハッシュ表。
+   */
+  private static final class PostingMap {//{{{
+
+    private int[] keys = new int[256];
+    private Postings[] values = new Postings[256];
+    private int size = 0;
+
+    /**
+     * ポスティングリストを返す。存在しない場合はnullを返す。
+     */
+    Postings get(int key) {//{{{
+      int mask = keys.length - 1;
+      for (int i=mix(key) & mask; values[i] != null; i=(i + 1) & mask) {
+        if (keys[i] == key)
+          return values[i];
+      }
+      return null;
+    }//}}}
+
+    void add(int key, int doc) {//{{{
+      int mask = keys.length - 1;
+      int i = mix(key) & mask;
+      while (values[i] != null && keys[i] != key)
+        i = (i + 1) & mask;
+
+      if (values[i] == null) {
+        if (keys.length <= (size + 1) * 2) {
+          rehash(keys.length * 2);
+          add(key, doc);
+          return;
+        }
+        keys[i]   = key;
+        values[i] = new Postings();
+        size++;
+      }
+      values[i].add(doc);
+    }//}}}
+
+    void clear() {//{{{
+      keys   = new int[256];
+      values = new Postings[256];
+      size   = 0;
+    }//}}}
+
+    private void rehash(int capacity) {//{{{
+      int[] oldKeys = keys;
+      Postings[] oldValues = values;
+      keys   = new int[capacity];
+      values = new Postings[capacity];
+      int mask = capacity - 1;
+      for (int j=0; j<oldKeys.length; j++) {
+        if (oldValues[j] == null)
+          continue;
+        int i = mix(oldKeys[j]) & mask;
+        while (values[i] != null)
+          i = (i + 1) & mask;
+        keys[i]   = oldKeys[j];
+        values[i] = oldValues[j];
+      }
+    }//}}}
+
+    private static int mix(int key) {//{{{
+      int h = key * 0x9E3779B9;
+      return h ^ (h >>> 16);
+    }//}}}
+
+  }//}}}
+
+}
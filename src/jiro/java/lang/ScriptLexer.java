@@ -0,0 +1,260 @@
+package jiro.java.lang;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * メモリマップしたUTF-8のスクリプトファイルを行単位で字句解析するクラス。
+ * </p><p>
+ * 行の種類はデコード前のバイト列から判別するため、コメント行はデコードされる
+ * ことなく読み飛ばされる。<br>
+ * 行の内容はファイルのバイト列を参照するCharSequenceとして返し、文字列へのデ
+ * コードは内容が必要になった時点で行う。
+ * </p><p>
+ * 行の区切りはBufferedReader#readLine()と同じく、LF、CR、CRLFのいずれかとする。
+ * </p>
+ */
+public class ScriptLexer implements Closeable {
+
+  private static final byte SHARP = '#';
+  private static final byte LF    = '\n';
+  private static final byte CR    = '\r';
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private final int limit;
+
+  private int position = 0;
+  private int start    = 0;
+  private int end      = 0;
+  private ScriptToken token = null;
+
+  // constructor
+
+  /**
+   * 渡されたファイルをメモリマップして字句解析器を生成する。
+   * @param path 読み取り対象のUTF-8テキストファイル
+   * @throws IOException 読み取りに失敗した場合
+   */
+  public ScriptLexer(Path path) throws IOException {//{{{
+    channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      long size = channel.size();
+      if (Integer.MAX_VALUE < size)
+        throw new IOException("2GB以上のファイルはメモリマップできません。 - size : " + size);
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      limit  = (int) size;
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }//}}}
+
+  // public methods
+
+  /**
+   * 次の行を字句解析し、その種類を返す。
+   * @return 行の種類。これ以上行が存在しない場合は{@code null}
+   */
+  public ScriptToken next() {//{{{
+    if (limit <= position) {
+      token = null;
+      return null;
+    }
+
+    start = position;
+    int i = position;
+    while (i < limit) {
+      byte b = buffer.get(i);
+      if (b == LF || b == CR)
+        break;
+      i++;
+    }
+    end = i;
+
+    if (i < limit) {
+      i++;
+      if (buffer.get(i - 1) == CR && i < limit && buffer.get(i) == LF)
+        i++;
+    }
+    position = i;
+
+    token = classify();
+    return token;
+  }//}}}
+
+  /**
+   * 現在の行の種類を返す。
+   * @return 行の種類
+   */
+  public ScriptToken token() {//{{{
+    return token;
+  }//}}}
+
+  /**
+   * 現在の行の内容を返す。
+   * 返却値はファイルのバイト列を参照し、文字へのデコードは初めて内容にアクセス
+   * した時点で行われる。
+   * @return 行の内容
+   */
+  public CharSequence text() {//{{{
+    return new Utf8Slice(buffer, start, end - start);
+  }//}}}
+
+  /**
+   * <p>
+   * 残りの行を段落リストとして読み取る。
+   * </p><p>
+   * 結果はParagraphReader#readAllParagraphs()と同じになる。
+   * </p>
+   * @return 段落リスト
+   * @throws IOException デコードに失敗した場合
+   */
+  public List<List<String>> readAllParagraphs() throws IOException {//{{{
+    List<List<String>> paragraphList = new ArrayList<>();
+    List<String> paragraph = new ArrayList<>();
+
+    try {
+      ScriptToken t;
+      while ((t = next()) != null) {
+        switch (t) {
+          case COMMENT:
+            break;
+          case BLANK:
+            if (0 < paragraph.size())
+              paragraphList.add(paragraph);
+            paragraph = new ArrayList<>();
+            break;
+          default:
+            paragraph.add(text().toString());
+            break;
+        }
+      }
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+
+    return paragraphList;
+  }//}}}
+
+  /**
+   * <p>
+   * 残りの行を段落ごとにTextArenaへ読み取る。
+   * </p><p>
+   * 段落の区切りはreadAllParagraphs()と同じだが、行ごとのListを生成しない。
+   * </p>
+   * @return 読み取った段落を保持するTextArena
+   * @throws IOException デコードに失敗した場合
+   */
+  public TextArena readArena() throws IOException {//{{{
+    TextArena.Builder builder = new TextArena.Builder();
+    boolean hasLine = false;
+
+    try {
+      ScriptToken t;
+      while ((t = next()) != null) {
+        switch (t) {
+          case COMMENT:
+            break;
+          case BLANK:
+            if (hasLine)
+              builder.endParagraph();
+            hasLine = false;
+            break;
+          default:
+            builder.addLine(text().toString());
+            hasLine = true;
+            break;
+        }
+      }
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+
+    return builder.build();
+  }//}}}
+
+  @Override
+  public void close() throws IOException {//{{{
+    channel.close();
+  }//}}}
+
+  // private methods
+
+  private ScriptToken classify() {//{{{
+    int length = end - start;
+    if (length <= 0)
+      return ScriptToken.BLANK;
+    if (buffer.get(start) != SHARP)
+      return ScriptToken.TEXT;
+    if (2 <= length && buffer.get(start + 1) == SHARP)
+      return ScriptToken.COMMENT;
+    return ScriptToken.ACTOR;
+  }//}}}
+
+  /**
+   * バイト列の一部を遅延デコードするCharSequence。
+   */
+  private static final class Utf8Slice implements CharSequence {//{{{
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int length;
+    private String decoded = null;
+
+    Utf8Slice(ByteBuffer buffer, int offset, int length) {//{{{
+      this.buffer = buffer;
+      this.offset = offset;
+      this.length = length;
+    }//}}}
+
+    @Override
+    public int length() {//{{{
+      return decode().length();
+    }//}}}
+
+    @Override
+    public char charAt(int index) {//{{{
+      return decode().charAt(index);
+    }//}}}
+
+    @Override
+    public CharSequence subSequence(int start, int end) {//{{{
+      return decode().subSequence(start, end);
+    }//}}}
+
+    @Override
+    public String toString() {//{{{
+      return decode();
+    }//}}}
+
+    private String decode() {//{{{
+      if (decoded == null) {
+        ByteBuffer slice = buffer.duplicate();
+        ((Buffer) slice).limit(offset + length);
+        ((Buffer) slice).position(offset);
+        try {
+          CharBuffer chars = StandardCharsets.UTF_8.newDecoder().decode(slice);
+          decoded = chars.toString();
+        } catch (CharacterCodingException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+      return decoded;
+    }//}}}
+
+  }//}}}
+
+}
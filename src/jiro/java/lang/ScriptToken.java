@@ -0,0 +1,20 @@
+package jiro.java.lang;
+
+/**
+ * スクリプトファイルの行の種類列挙型
+ */
+public enum ScriptToken {
+
+  /** 空の行。段落の区切れを表す。 */
+  BLANK,
+
+  /** #が２文字以上連続する行。コメント行として無視される。 */
+  COMMENT,
+
+  /** #１文字で始まる行。続く文章のアクター名を表す。 */
+  ACTOR,
+
+  /** それ以外の本文の行。 */
+  TEXT;
+
+}
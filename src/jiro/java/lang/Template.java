@@ -0,0 +1,185 @@
+package jiro.java.lang;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * プレースホルダを含む１行の文字列を、固定文字列とプレースホルダの並びに解析
+ * したテンプレートクラス。
+ * </p><p>
+ * プレースホルダは{@code @}に続く変数名で表す。<br>
+ * {@code @name}は常にアクター名のプレースホルダとなり、それ以外の変数名は
+ * 解析時に渡す。変数名が前方で重なる場合は最も長い変数名に一致させる。
+ * </p><p>
+ * 置換は正規表現を使用せずに１回の走査で行うため、アクター名や変数の値に$や\
+ * が含まれていてもそのまま出力される。<br>
+ * 置換した値の中のプレースホルダは再び置換されない。
+ * </p><p>
+ * このクラスは不変クラスである。
+ * </p>
+ */
+public final class Template {
+
+  /** アクター名のプレースホルダの変数名 */
+  public static final String ACTOR_NAME = "name";
+
+  private static final char PREFIX = '@';
+  private static final String[] ACTOR_NAME_ONLY = { ACTOR_NAME };
+
+  /** 固定文字列。プレースホルダの数より１つ多い */
+  private final String[] literals;
+
+  /** プレースホルダの変数名 */
+  private final String[] names;
+
+  private final int literalLength;
+
+  // private constructor
+
+  private Template(String[] literals, String[] names) {//{{{
+    this.literals = literals;
+    this.names    = names;
+
+    int length = 0;
+    for (String literal : literals)
+      length += literal.length();
+    this.literalLength = length;
+  }//}}}
+
+  // public methods
+
+  /**
+   * {@code @name}だけをプレースホルダとして文字列を解析する。
+   * @param line 解析対象の文字列
+   * @return テンプレート
+   */
+  public static Template compile(String line) {//{{{
+    return compile(line, ACTOR_NAME_ONLY);
+  }//}}}
+
+  /**
+   * {@code @name}と渡された変数名をプレースホルダとして文字列を解析する。
+   * @param line 解析対象の文字列
+   * @param variableNames {@code @}を除いた変数名
+   * @return テンプレート
+   */
+  public static Template compile(String line, Collection<String> variableNames) {//{{{
+    return compile(line, sortNames(variableNames));
+  }//}}}
+
+  /**
+   * このテンプレートがプレースホルダを含むかどうかを返す。
+   * @return プレースホルダを含む場合は{@code true}
+   */
+  public boolean hasPlaceholder() {//{{{
+    return 0 < names.length;
+  }//}}}
+
+  /**
+   * プレースホルダを置換した文字列を返す。
+   * @param actorName {@code @name}を置換するアクター名
+   * @param variables 変数名と値のマップ
+   * @return 置換後の文字列
+   */
+  public String render(String actorName, Map<String, String> variables) {//{{{
+    if (!hasPlaceholder())
+      return literals[0];
+
+    StringBuilder sb = new StringBuilder(literalLength + 16 * names.length);
+    render(sb, actorName, variables);
+    return sb.toString();
+  }//}}}
+
+  /**
+   * プレースホルダを置換した文字列をバッファに追加する。
+   * @param sb 追加先のバッファ
+   * @param actorName {@code @name}を置換するアクター名
+   * @param variables 変数名と値のマップ
+   */
+  public void render(StringBuilder sb, String actorName, Map<String, String> variables) {//{{{
+    sb.append(literals[0]);
+    for (int i=0; i<names.length; i++) {
+      String name = names[i];
+      if (ACTOR_NAME.equals(name)) {
+        sb.append(actorName);
+      } else {
+        String value = variables.get(name);
+        if (value == null) sb.append(PREFIX).append(name);
+        else               sb.append(value);
+      }
+      sb.append(literals[i + 1]);
+    }
+  }//}}}
+
+  // package private methods
+
+  /**
+   * 長い順に並べた変数名をプレースホルダとして文字列を解析する。
+   * @param line 解析対象の文字列
+   * @param sortedNames {@code @name}を含む、長い順に並べた変数名
+   * @return テンプレート
+   */
+  static Template compile(String line, String[] sortedNames) {//{{{
+    List<String> literals = null;
+    List<String> names    = null;
+
+    int literalStart = 0;
+    int at = line.indexOf(PREFIX);
+    while (0 <= at) {
+      String name = matchName(line, at + 1, sortedNames);
+      if (name == null) {
+        at = line.indexOf(PREFIX, at + 1);
+        continue;
+      }
+
+      if (literals == null) {
+        literals = new ArrayList<>();
+        names    = new ArrayList<>();
+      }
+      literals.add(line.substring(literalStart, at));
+      names.add(name);
+
+      literalStart = at + 1 + name.length();
+      at = line.indexOf(PREFIX, literalStart);
+    }
+
+    if (literals == null)
+      return new Template(new String[] { line }, new String[0]);
+
+    literals.add(line.substring(literalStart));
+    return new Template(
+        literals.toArray(new String[literals.size()])
+        , names.toArray(new String[names.size()])
+        );
+  }//}}}
+
+  /**
+   * {@code @name}と渡された変数名を長い順に並べた配列を返す。
+   */
+  static String[] sortNames(Collection<String> variableNames) {//{{{
+    String[] sortedNames = new String[variableNames.size() + 1];
+    sortedNames[0] = ACTOR_NAME;
+    int i = 1;
+    for (String name : variableNames)
+      sortedNames[i++] = name;
+
+    Arrays.sort(sortedNames, Comparator.comparingInt(String::length).reversed());
+    return sortedNames;
+  }//}}}
+
+  // private methods
+
+  private static String matchName(String line, int offset, String[] sortedNames) {//{{{
+    for (String name : sortedNames) {
+      if (!name.isEmpty() && line.startsWith(name, offset))
+        return name;
+    }
+    return null;
+  }//}}}
+
+}
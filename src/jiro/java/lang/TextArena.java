@@ -0,0 +1,451 @@
+package jiro.java.lang;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * <p>
+ * 段落リストを１つの文字配列にまとめて保持するクラス。
+ * </p><p>
+ * すべての行の文字は１つのchar配列に連続して格納し、行と段落の境界はint配列の
+ * 位置で表す。<br>
+ * アクター名行(#で始まる行)は文字配列に格納せず、同じ文字列を１つにまとめた
+ * 表の番号で保持する。そのため、同じアクター名が何度現れても文字列は１つしか
+ * 保持しない。
+ * </p><p>
+ * 行ごとのStringやListを保持しないため、List&lt;List&lt;String&gt;&gt;で保持する
+ * 場合と比べてオブジェクト数とメモリ使用量が大幅に少なくなる。<br>
+ * asList()は読み取り専用のビューを返す。行の文字列は最初にアクセスした時点で
+ * 生成して保持し、以降のアクセスでは同じ文字列を返す。
+ * </p><p>
+ * このクラスは不変クラスであり、複数スレッドから共有して使用できる。
+ * </p>
+ */
+public final class TextArena {
+
+  private static final int TEXT_LINE = -1;
+  private static final TextArena EMPTY = new Builder().build();
+
+  /** すべてのテキスト行の文字 */
+  private final char[] chars;
+
+  /** 行の開始位置。行数より１つ多い */
+  private final int[] lineOffsets;
+
+  /** 行ごとのアクター名行の番号。テキスト行の場合はTEXT_LINE */
+  private final int[] actorIds;
+
+  /** アクター名行の表 */
+  private final String[] actorLines;
+
+  /** 段落の開始行。段落数より１つ多い */
+  private final int[] paragraphOffsets;
+
+  /**
+   * 生成済みのテキスト行の文字列。未生成の場合はnull。
+   * Stringは不変なので、複数スレッドから同時に生成されても同じ内容になる。
+   */
+  private final String[] lineCache;
+
+  private final List<List<String>> view = new ParagraphListView();
+
+  // builder
+
+  /**
+   * 行と段落を順に追加してTextArenaを生成するBuilder。
+   */
+  public static final class Builder {//{{{
+
+    private char[] chars = new char[1024];
+    private int charCount = 0;
+
+    private int[] lineOffsets = new int[64];
+    private int[] actorIds = new int[64];
+    private int lineCount = 0;
+
+    private int[] paragraphOffsets = new int[16];
+    private int paragraphCount = 0;
+
+    private final Map<String, Integer> actorIdMap = new HashMap<>();
+    private String[] actorLines = new String[8];
+
+    /**
+     * 現在の段落の末尾に行を追加する。
+     * @param line 行の文字列
+     * @return このBuilder
+     */
+    public Builder addLine(CharSequence line) {//{{{
+      if (lineCount + 1 == lineOffsets.length) {
+        lineOffsets = Arrays.copyOf(lineOffsets, lineOffsets.length * 2);
+        actorIds    = Arrays.copyOf(actorIds, actorIds.length * 2);
+      }
+
+      if (0 < line.length() && line.charAt(0) == '#') {
+        actorIds[lineCount] = internActorLine(line.toString());
+      } else {
+        int length = line.length();
+        ensureCharCapacity(charCount + length);
+        if (line instanceof String) {
+          ((String) line).getChars(0, length, chars, charCount);
+        } else {
+          for (int i=0; i<length; i++)
+            chars[charCount + i] = line.charAt(i);
+        }
+        charCount += length;
+        actorIds[lineCount] = TEXT_LINE;
+      }
+
+      lineCount++;
+      lineOffsets[lineCount] = charCount;
+      return this;
+    }//}}}
+
+    /**
+     * 現在の段落を終了し、次に追加する行から新しい段落とする。
+     * 行を含まない段落も１つの段落として扱う。
+     * @return このBuilder
+     */
+    public Builder endParagraph() {//{{{
+      if (paragraphCount + 1 == paragraphOffsets.length)
+        paragraphOffsets = Arrays.copyOf(paragraphOffsets, paragraphOffsets.length * 2);
+
+      paragraphCount++;
+      paragraphOffsets[paragraphCount] = lineCount;
+      return this;
+    }//}}}
+
+    /**
+     * 段落を追加する。
+     * @param paragraph 段落の行リスト
+     * @return このBuilder
+     */
+    public Builder addParagraph(List<String> paragraph) {//{{{
+      for (String line : paragraph)
+        addLine(line);
+      return endParagraph();
+    }//}}}
+
+    /**
+     * 終了した段落までを保持するTextArenaを生成する。
+     * 終了していない段落の行は含まない。
+     * @return TextArena
+     */
+    public TextArena build() {//{{{
+      int lines = paragraphOffsets[paragraphCount];
+      return new TextArena(
+          Arrays.copyOf(chars, lineOffsets[lines])
+          , Arrays.copyOf(lineOffsets, lines + 1)
+          , Arrays.copyOf(actorIds, lines)
+          , Arrays.copyOf(actorLines, actorIdMap.size())
+          , Arrays.copyOf(paragraphOffsets, paragraphCount + 1)
+          );
+    }//}}}
+
+    private int internActorLine(String line) {//{{{
+      Integer id = actorIdMap.get(line);
+      if (id != null)
+        return id;
+
+      int newId = actorIdMap.size();
+      if (newId == actorLines.length)
+        actorLines = Arrays.copyOf(actorLines, actorLines.length * 2);
+      actorLines[newId] = line;
+      actorIdMap.put(line, newId);
+      return newId;
+    }//}}}
+
+    private void ensureCharCapacity(int capacity) {//{{{
+      if (chars.length < capacity)
+        chars = Arrays.copyOf(chars, Math.max(chars.length * 2, capacity));
+    }//}}}
+
+  }//}}}
+
+  // private constructor
+
+  private TextArena(char[] chars, int[] lineOffsets, int[] actorIds, String[] actorLines, int[] paragraphOffsets) {//{{{
+    this.chars            = chars;
+    this.lineOffsets      = lineOffsets;
+    this.actorIds         = actorIds;
+    this.actorLines       = actorLines;
+    this.paragraphOffsets = paragraphOffsets;
+    this.lineCache        = new String[actorIds.length];
+  }//}}}
+
+  // public methods
+
+  /**
+   * 段落リストをTextArenaに変換する。
+   * asList()で取得したビューを渡した場合は、複製せずに元のTextArenaを返す。
+   * @param paragraphList 段落リスト
+   * @return TextArena
+   */
+  public static TextArena of(List<List<String>> paragraphList) {//{{{
+    TextArena arena = viewOf(paragraphList);
+    if (arena != null)
+      return arena;
+    if (paragraphList.isEmpty())
+      return EMPTY;
+
+    Builder builder = new Builder();
+    for (List<String> paragraph : paragraphList)
+      builder.addParagraph(paragraph);
+    return builder.build();
+  }//}}}
+
+  /**
+   * 段落数を返す。
+   * @return 段落数
+   */
+  public int paragraphCount() {//{{{
+    return paragraphOffsets.length - 1;
+  }//}}}
+
+  /**
+   * 段落の行数を返す。
+   * @param paragraph 段落の番号
+   * @return 行数
+   */
+  public int lineCount(int paragraph) {//{{{
+    return paragraphOffsets[paragraph + 1] - paragraphOffsets[paragraph];
+  }//}}}
+
+  /**
+   * すべての段落の行数の合計を返す。
+   * @return 行数
+   */
+  public int lineCount() {//{{{
+    return actorIds.length;
+  }//}}}
+
+  /**
+   * 段落の行の文字列を返す。
+   * 文字列は最初の呼び出しで生成し、以降の呼び出しでは同じ文字列を返す。
+   * @param paragraph 段落の番号
+   * @param line 段落内の行の番号
+   * @return 行の文字列
+   */
+  public String getLine(int paragraph, int line) {//{{{
+    int index = lineIndex(paragraph, line);
+    int id = actorIds[index];
+    if (id != TEXT_LINE)
+      return actorLines[id];
+
+    String cached = lineCache[index];
+    if (cached != null)
+      return cached;
+
+    int start = lineOffsets[index];
+    String text = new String(chars, start, lineOffsets[index + 1] - start);
+    lineCache[index] = text;
+    return text;
+  }//}}}
+
+  /**
+   * 段落の行がアクター名行かどうかを返す。文字列は生成しない。
+   * @param paragraph 段落の番号
+   * @param line 段落内の行の番号
+   * @return アクター名行の場合は{@code true}
+   */
+  public boolean isActorLine(int paragraph, int line) {//{{{
+    return actorIds[lineIndex(paragraph, line)] != TEXT_LINE;
+  }//}}}
+
+  /**
+   * 保持する文字数を返す。アクター名行の文字は含まない。
+   * @return 文字数
+   */
+  public int charCount() {//{{{
+    return chars.length;
+  }//}}}
+
+  /**
+   * 単語数を返す。アクター名行の単語は含まない。
+   * 単語の区切りはUtilsString#splitToWord(String)と同じで、行末に続く英数字は
+   * 数えない。
+   * @return 単語数
+   */
+  public long wordCount() {//{{{
+    long count = 0;
+    for (char ch : chars) {
+      if (!UtilsChar.isAlphabet(ch))
+        count++;
+    }
+    return count;
+  }//}}}
+
+  /**
+   * 重複を除いたアクター名行の数を返す。
+   * @return アクター名行の数
+   */
+  public int actorLineCount() {//{{{
+    return actorLines.length;
+  }//}}}
+
+  /**
+   * <p>
+   * 段落リストとしての読み取り専用のビューを返す。
+   * </p><p>
+   * 行の文字列は最初のget()で生成され、以降は同じ文字列が返される。<br>
+   * ビューを変更しようとした場合はUnsupportedOperationExceptionが発生する。
+   * </p>
+   * @return 段落リストのビュー
+   */
+  public List<List<String>> asList() {//{{{
+    return view;
+  }//}}}
+
+  @Override
+  public String toString() {//{{{
+    return String.format(
+        "TextArena: { paragraphs = %d, lines = %d, chars = %d, actorLines = %d }."
+        , paragraphCount(), lineCount(), charCount(), actorLineCount());
+  }//}}}
+
+  // package private methods
+
+  /**
+   * 段落リストがasList()で取得したビューであれば、元のTextArenaを返す。
+   * @param paragraphList 段落リスト
+   * @return TextArena。ビューでない場合は{@code null}
+   */
+  static TextArena viewOf(List<List<String>> paragraphList) {//{{{
+    return paragraphList instanceof ParagraphListView
+      ? ((ParagraphListView) paragraphList).arena()
+      : null;
+  }//}}}
+
+  /**
+   * 段落リストの行数の合計を返す。
+   * @param paragraphList 段落リスト
+   * @return 行数
+   */
+  static int lineCount(List<List<String>> paragraphList) {//{{{
+    TextArena arena = viewOf(paragraphList);
+    if (arena != null)
+      return arena.lineCount();
+
+    int count = 0;
+    for (List<String> paragraph : paragraphList)
+      count += paragraph.size();
+    return count;
+  }//}}}
+
+  /**
+   * 段落リストの文字数を返す。アクター名行の文字は含まない。
+   * @param paragraphList 段落リスト
+   * @return 文字数
+   */
+  static long charCount(List<List<String>> paragraphList) {//{{{
+    TextArena arena = viewOf(paragraphList);
+    if (arena != null)
+      return arena.charCount();
+
+    long count = 0;
+    for (List<String> paragraph : paragraphList)
+      count += paragraphCharCount(paragraph);
+    return count;
+  }//}}}
+
+  /**
+   * １段落の文字数を返す。アクター名行の文字は含まない。
+   * @param paragraph 段落の行リスト
+   * @return 文字数
+   */
+  static long paragraphCharCount(List<String> paragraph) {//{{{
+    long count = 0;
+    for (String line : paragraph) {
+      if (!isActorLine(line))
+        count += line.length();
+    }
+    return count;
+  }//}}}
+
+  /**
+   * 段落リストの単語数を返す。数え方はwordCount()と同じである。
+   * @param paragraphList 段落リスト
+   * @return 単語数
+   */
+  static long wordCount(List<List<String>> paragraphList) {//{{{
+    TextArena arena = viewOf(paragraphList);
+    if (arena != null)
+      return arena.wordCount();
+
+    long count = 0;
+    for (List<String> paragraph : paragraphList) {
+      for (String line : paragraph) {
+        if (isActorLine(line))
+          continue;
+        for (int i=0; i<line.length(); i++) {
+          if (!UtilsChar.isAlphabet(line.charAt(i)))
+            count++;
+        }
+      }
+    }
+    return count;
+  }//}}}
+
+  // private methods
+
+  private static boolean isActorLine(String line) {//{{{
+    return 0 < line.length() && line.charAt(0) == '#';
+  }//}}}
+
+  private int lineIndex(int paragraph, int line) {//{{{
+    int lines = lineCount(paragraph);
+    if (line < 0 || lines <= line)
+      throw new IndexOutOfBoundsException("line : " + line + ", size : " + lines);
+    return paragraphOffsets[paragraph] + line;
+  }//}}}
+
+  /**
+   * 段落リストのビュー。
+   */
+  private final class ParagraphListView extends AbstractList<List<String>> implements RandomAccess {//{{{
+
+    @Override
+    public List<String> get(int index) {//{{{
+      if (index < 0 || paragraphCount() <= index)
+        throw new IndexOutOfBoundsException("index : " + index + ", size : " + paragraphCount());
+      return new LineListView(index);
+    }//}}}
+
+    @Override
+    public int size() {//{{{
+      return paragraphCount();
+    }//}}}
+
+    TextArena arena() {//{{{
+      return TextArena.this;
+    }//}}}
+
+  }//}}}
+
+  /**
+   * １段落の行リストのビュー。
+   */
+  private final class LineListView extends AbstractList<String> implements RandomAccess {//{{{
+
+    private final int paragraph;
+
+    LineListView(int paragraph) {//{{{
+      this.paragraph = paragraph;
+    }//}}}
+
+    @Override
+    public String get(int index) {//{{{
+      return getLine(paragraph, index);
+    }//}}}
+
+    @Override
+    public int size() {//{{{
+      return lineCount(paragraph);
+    }//}}}
+
+  }//}}}
+
+}
@@ -0,0 +1,1087 @@
+package jiro.java.lang;
+
+import static jiro.java.lang.UtilsString.*;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ * FormattableTextの整形オプションをコンパイルした整形器クラス。
+ * </p><p>
+ * FormattableText#format()はアクター名付与、アクター名置換、括弧付与、連結、
+ * 折り返し、ウィンドウ分割、空リスト削除の各段階で新しいリストを生成するが、
+ * このクラスはそれらを段落ごとの１回の走査にまとめて行う。
+ * </p><p>
+ * インデント文字列と括弧の幅は生成時に一度だけ計算する。<br>
+ * このクラスは不変クラスであり、複数スレッドから共有して使用できる。
+ * </p>
+ */
+public final class TextFormatter {
+
+  /** １つのメッセージウィンドウに表示できる行数 */
+  public static final int WINDOW_LINE_SIZE = 4;
+
+  /**
+   * 整形処理の版。
+   * 同じ整形オプションでも整形結果が変わる変更(文字幅の表、折り返しや禁則の
+   * 規則など)を行った場合に更新する。
+   */
+  public static final String VERSION = "2";
+
+  /** 保持するテンプレートの最大数 */
+  private static final int TEMPLATE_CACHE_SIZE = 4096;
+
+  private final boolean actorNameOption;
+
+  private final boolean returnOption;
+  private final int returnSize;
+
+  private final boolean indentOption;
+  private final String indent;
+
+  private final boolean bracketsOption;
+  private final String bracketsStart;
+  private final String bracketsEnd;
+  private final int bracketsStartLength;
+
+  private final boolean joiningOption;
+
+  private final boolean kinsokuOption;
+  private final WidthMeasure measure;
+  private final EscapeCodes escapeCodes;
+  private final LineBreaker lineBreaker;
+
+  /** 括弧とインデントの単語の区切り */
+  private final LineBreaker.Words emptyWords;
+  private final LineBreaker.Words bracketsStartWords;
+  private final LineBreaker.Words bracketsEndWords;
+  private final LineBreaker.Words indentWords;
+
+  /** プレースホルダの変数名と値 */
+  private final Map<String, String> variables;
+  private final String[] placeholderNames;
+
+  /**
+   * {@code @}を含む行を解析したテンプレート。
+   * 同じテキストを繰り返し整形する場合に、行ごとの解析を１回で済ませる。
+   * 上限を超えた場合は空にする。
+   */
+  private final Map<String, Template> templates;
+
+  /** 整形結果のキャッシュ。使用しない場合は{@code null} */
+  private final FormatCache cache;
+
+  /** キャッシュのキーに使用する整形オプションの識別文字列 */
+  private final String fingerprint;
+
+  /** actorNameOptionだけを無効にしたTextFormatter。未生成の場合は{@code null} */
+  private volatile TextFormatter withoutActorName = null;
+
+  // package private constructor
+
+  TextFormatter(//{{{
+      boolean actorNameOption
+      , boolean returnOption
+      , int returnSize
+      , boolean indentOption
+      , int indentSize
+      , boolean bracketsOption
+      , Brackets brackets
+      , boolean joiningOption
+      , boolean kinsokuOption
+      , WidthMeasure measure
+      , EscapeCodes escapeCodes
+      , Map<String, String> variables
+      , FormatCache cache
+      )
+  {
+    this.actorNameOption     = actorNameOption;
+    this.returnOption        = returnOption;
+    this.returnSize          = returnSize;
+    this.indentOption        = indentOption;
+    this.bracketsOption      = bracketsOption;
+    this.bracketsStart       = bracketsOption ? brackets.START : "";
+    this.bracketsEnd         = bracketsOption ? brackets.END   : "";
+    this.bracketsStartLength = stringLength(bracketsStart);
+    this.indent              = FormattableText.createIndentString(
+        bracketsOption ? bracketsStartLength : indentSize
+        );
+    this.joiningOption       = joiningOption;
+    this.kinsokuOption       = kinsokuOption;
+    this.measure             = measure;
+    this.escapeCodes         = escapeCodes;
+    this.lineBreaker         = new LineBreaker(
+        returnSize, indentOption, measure.width(indent), kinsokuOption, measure, escapeCodes
+        );
+    this.emptyWords          = lineBreaker.scan("");
+    this.bracketsStartWords  = lineBreaker.scan(bracketsStart);
+    this.bracketsEndWords    = lineBreaker.scan(bracketsEnd);
+    this.indentWords         = lineBreaker.scan(indent);
+    this.variables           = Collections.unmodifiableMap(new TreeMap<>(variables));
+    this.placeholderNames    = Template.sortNames(this.variables.keySet());
+    this.templates           = new ConcurrentHashMap<>();
+    this.cache               = cache;
+    this.fingerprint         = createFingerprint();
+  }//}}}
+
+  /**
+   * actorNameOptionだけが異なるTextFormatterを生成する。
+   * 折り返しの設定やテンプレートは元のTextFormatterと共有する。
+   */
+  private TextFormatter(TextFormatter other, boolean actorNameOption) {//{{{
+    this.actorNameOption     = actorNameOption;
+    this.returnOption        = other.returnOption;
+    this.returnSize          = other.returnSize;
+    this.indentOption        = other.indentOption;
+    this.bracketsOption      = other.bracketsOption;
+    this.bracketsStart       = other.bracketsStart;
+    this.bracketsEnd         = other.bracketsEnd;
+    this.bracketsStartLength = other.bracketsStartLength;
+    this.indent              = other.indent;
+    this.joiningOption       = other.joiningOption;
+    this.kinsokuOption       = other.kinsokuOption;
+    this.measure             = other.measure;
+    this.escapeCodes         = other.escapeCodes;
+    this.lineBreaker         = other.lineBreaker;
+    this.emptyWords          = other.emptyWords;
+    this.bracketsStartWords  = other.bracketsStartWords;
+    this.bracketsEndWords    = other.bracketsEndWords;
+    this.indentWords         = other.indentWords;
+    this.variables           = other.variables;
+    this.placeholderNames    = other.placeholderNames;
+    this.templates           = other.templates;
+    this.cache               = other.cache;
+    this.fingerprint         = createFingerprint();
+  }//}}}
+
+  // public methods
+
+  /**
+   * <p>
+   * 段落リストを整形し、メッセージウィンドウ単位のリストとして返す。
+   * </p><p>
+   * 結果はFormattableText#format()と同じになる。
+   * </p>
+   * @param paragraphList 段落リスト
+   * @return ウィンドウ単位に分割された整形済みリスト
+   */
+  public List<List<String>> format(List<List<String>> paragraphList) {//{{{
+    FormatMetrics.Probe probe = FormatMetrics.start(FormatStage.FORMAT);
+    FormatMetrics.Tally tally = FormatMetrics.breakdown();
+    List<List<String>> windowList = new ArrayList<>(paragraphList.size());
+
+    String actorName = "";
+    for (List<String> paragraph : paragraphList) {
+      formatParagraph(paragraph, actorName, null, windowList, tally);
+      actorName = nextActorName(actorName, paragraph);
+    }
+
+    if (tally != null)
+      tally.flush();
+    probe.end(windowList, 0);
+    return windowList;
+  }//}}}
+
+  /**
+   * <p>
+   * 段落リストを共通のForkJoinPoolで並列に整形する。
+   * </p><p>
+   * 結果は{@link #format(List)}と同じ順序、同じ内容になる。
+   * </p>
+   * @param paragraphList 段落リスト
+   * @return ウィンドウ単位に分割された整形済みリスト
+   * @see #formatParallel(List, ForkJoinPool)
+   */
+  public List<List<String>> formatParallel(List<List<String>> paragraphList) {//{{{
+    return formatParallel(paragraphList, ForkJoinPool.commonPool());
+  }//}}}
+
+  /**
+   * <p>
+   * 段落リストを指定したForkJoinPoolで並列に整形する。
+   * </p><p>
+   * 各段落が引き継ぐアクター名は、直前に#で始まる段落の位置を並列の累積走査で
+   * 求めてから決定するため、段落の整形は互いに独立して行われる。<br>
+   * 結果は{@link #format(List)}と同じ順序、同じ内容になる。
+   * </p>
+   * @param paragraphList 段落リスト
+   * @param pool 整形に使用するスレッドプール
+   * @return ウィンドウ単位に分割された整形済みリスト
+   */
+  public List<List<String>> formatParallel(List<List<String>> paragraphList, ForkJoinPool pool) {//{{{
+    FormatMetrics.Probe probe = FormatMetrics.start(FormatStage.FORMAT);
+    List<List<String>> paragraphs = paragraphList instanceof RandomAccess
+      ? paragraphList
+      : new ArrayList<>(paragraphList);
+    String[] actorNames = inheritedActorNames(paragraphs);
+
+    List<List<List<String>>> formatted;
+    try {
+      formatted = pool.submit(() ->
+          IntStream.range(0, paragraphs.size())
+          .parallel()
+          .mapToObj(i -> {
+            FormatMetrics.Tally tally = FormatMetrics.breakdown();
+            List<List<String>> windows = formatParagraph(paragraphs.get(i), actorNames[i], tally);
+            if (tally != null)
+              tally.flush();
+            return windows;
+          })
+          .collect(Collectors.toList())
+          ).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("並列整形が中断されました。", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+      if (cause instanceof Error)            throw (Error) cause;
+      throw new IllegalStateException(cause);
+    }
+
+    List<List<String>> windowList = new ArrayList<>(paragraphs.size());
+    for (List<List<String>> windows : formatted)
+      windowList.addAll(windows);
+    probe.end(windowList, 0);
+    return windowList;
+  }//}}}
+
+  /**
+   * <p>
+   * １つの段落を整形し、メッセージウィンドウ単位のリストとして返す。
+   * </p><p>
+   * アクター名オプションが有効で、段落の先頭行が#で始まらない場合は、
+   * 引数のアクター名を段落の先頭に付与する。
+   * </p>
+   * @param paragraph 段落
+   * @param actorName 直前の段落から引き継いだアクター名
+   * @return ウィンドウ単位に分割された整形済みリスト
+   */
+  public List<List<String>> formatParagraph(List<String> paragraph, String actorName) {//{{{
+    return formatParagraph(paragraph, actorName, null);
+  }//}}}
+
+  /**
+   * <p>
+   * １つの段落を整形した場合のウィンドウ数を返す。
+   * </p><p>
+   * 結果はformatParagraph(List, String)が返すリストの要素数と同じになるが、折
+   * り返した行の文字列やウィンドウのリストは生成しない。<br>
+   * キャッシュは使用しない。
+   * </p>
+   * @param paragraph 段落
+   * @param actorName 直前の段落から引き継いだアクター名
+   * @return ウィンドウ数
+   */
+  public int countWindows(List<String> paragraph, String actorName) {//{{{
+    Windows windows = new Windows(null);
+    layout(paragraph, actorName, windows);
+    return windows.windowCount();
+  }//}}}
+
+  /**
+   * <p>
+   * 読み取り元から段落を１つずつ読み取って整形し、出力先に書き込む。
+   * </p><p>
+   * 出力の書式はFormattableText#format()の結果のtoString()と同じになる。<br>
+   * 出力先がFlushableの場合は、段落ごとに整形済みのウィンドウをフラッシュする。
+   * </p><p>
+   * 一度に保持するのは１段落分の行だけであるため、使用メモリはファイルサイズで
+   * はなく最も大きな段落の大きさに依存する。
+   * </p>
+   * @param reader 読み取り元
+   * @param out 出力先
+   * @throws IOException 読み書きに失敗した場合
+   */
+  public void format(Reader reader, Appendable out) throws IOException {//{{{
+    format(new ParagraphReader(reader), new AppendableSink(out));
+  }//}}}
+
+  /**
+   * UTF-8のテキストファイルから段落を１つずつ読み取って整形し、出力先に書き込む。
+   * @param path 読み取り対象のテキストファイル
+   * @param out 出力先
+   * @throws IOException 読み書きに失敗した場合
+   * @see #format(Reader, Appendable)
+   */
+  public void format(Path path, Appendable out) throws IOException {//{{{
+    try (ParagraphReader paragraphReader = new ParagraphReader(path)) {
+      format(paragraphReader, new AppendableSink(out));
+    }
+  }//}}}
+
+  /**
+   * 段落リストを整形し、結果をビジタに渡す。
+   * @param paragraphList 段落リスト
+   * @param visitor 整形結果を受け取るビジタ
+   * @throws IOException ビジタの出力に失敗した場合
+   * @throws IllegalArgumentException ビジタが制御文字を扱う必要があるが、この
+   * TextFormatterが制御文字を扱わずに折り返す場合
+   */
+  public void format(List<List<String>> paragraphList, FormatVisitor visitor) throws IOException {//{{{
+    checkVisitor(visitor);
+    FormatMetrics.Probe probe = FormatMetrics.start(FormatStage.FORMAT);
+    FormatMetrics.Tally tally = FormatMetrics.breakdown();
+    long windowCount = 0;
+    long lineCount = 0;
+    long charCount = 0;
+
+    String actorName = "";
+    for (List<String> paragraph : paragraphList) {
+      List<List<String>> windowList = formatParagraph(paragraph, actorName, tally);
+      windowCount += windowList.size();
+      lineCount   += TextArena.lineCount(windowList);
+      charCount   += TextArena.charCount(windowList);
+      visit(windowList, visitor);
+      actorName = nextActorName(actorName, paragraph);
+    }
+    visitor.end();
+
+    if (tally != null)
+      tally.flush();
+    probe.end(windowCount, lineCount, charCount, 0);
+  }//}}}
+
+  /**
+   * 読み取り元から段落を１つずつ読み取って整形し、結果をビジタに渡す。
+   * @param reader 読み取り元
+   * @param visitor 整形結果を受け取るビジタ
+   * @throws IOException 読み取りまたはビジタの出力に失敗した場合
+   */
+  public void format(Reader reader, FormatVisitor visitor) throws IOException {//{{{
+    format(new ParagraphReader(reader), visitor);
+  }//}}}
+
+  /**
+   * <p>
+   * ParagraphReaderから段落を１つずつ読み取って整形し、結果をビジタに渡す。
+   * </p><p>
+   * 空の行で終わらない最後の段落も整形する場合は、lastParagraphOptionを有効に
+   * したParagraphReaderを渡す。
+   * </p>
+   * @param paragraphReader 読み取り元
+   * @param visitor 整形結果を受け取るビジタ
+   * @throws IOException 読み取りまたはビジタの出力に失敗した場合
+   * @throws IllegalArgumentException ビジタが制御文字を扱う必要があるが、この
+   * TextFormatterが制御文字を扱わずに折り返す場合
+   */
+  public void format(ParagraphReader paragraphReader, FormatVisitor visitor) throws IOException {//{{{
+    checkVisitor(visitor);
+    FormatMetrics.Probe probe = FormatMetrics.start(FormatStage.FORMAT);
+    FormatMetrics.Tally tally = FormatMetrics.tally();
+    FormatMetrics.Tally breakdown = tally.isBreakdown() ? tally : null;
+    long windowCount = 0;
+    long lineCount = 0;
+    long charCount = 0;
+
+    String actorName = "";
+    while (true) {
+      long start = System.nanoTime();
+      List<String> paragraph = paragraphReader.readParagraph();
+      if (paragraph == null)
+        break;
+      tally.add(FormatStage.INGEST, System.nanoTime() - start
+          , 1, paragraph.size(), TextArena.paragraphCharCount(paragraph));
+
+      List<List<String>> windowList = formatParagraph(paragraph, actorName, breakdown);
+      windowCount += windowList.size();
+      lineCount   += TextArena.lineCount(windowList);
+      charCount   += TextArena.charCount(windowList);
+      visit(windowList, visitor);
+      actorName = nextActorName(actorName, paragraph);
+    }
+    visitor.end();
+
+    tally.flush();
+    probe.end(windowCount, lineCount, charCount, 0);
+  }//}}}
+
+  /**
+   * UTF-8のテキストファイルから段落を１つずつ読み取って整形し、結果をビジタに渡す。
+   * @param path 読み取り対象のテキストファイル
+   * @param visitor 整形結果を受け取るビジタ
+   * @throws IOException 読み取りまたはビジタの出力に失敗した場合
+   */
+  public void format(Path path, FormatVisitor visitor) throws IOException {//{{{
+    try (ParagraphReader paragraphReader = new ParagraphReader(path)) {
+      format(paragraphReader, visitor);
+    }
+  }//}}}
+
+  /**
+   * 段落を処理した後に次の段落へ引き継がれるアクター名を返す。
+   * @param actorName 直前の段落から引き継いだアクター名
+   * @param paragraph 段落
+   * @return 次の段落へ引き継ぐアクター名
+   */
+  public String nextActorName(String actorName, List<String> paragraph) {//{{{
+    if (actorNameOption && !paragraph.isEmpty()) {
+      String top = paragraph.get(0);
+      if (top.startsWith("#"))
+        return toActorName(top);
+    }
+    return actorName;
+  }//}}}
+
+  /**
+   * アクター名行からアクター名を取り出す。
+   * @param line #で始まるアクター名行
+   * @return アクター名
+   */
+  public static String toActorName(String line) {//{{{
+    int i = 1;
+    while (i < line.length() && line.charAt(i) == ' ')
+      i++;
+    return line.substring(i);
+  }//}}}
+
+  /**
+   * 整形オプションの識別文字列を返す。
+   * 識別文字列が等しいTextFormatterは、同じ入力に対して同じ整形結果を返す。
+   * 識別文字列は整形処理の版を含まないため、版をまたいで比較する場合は
+   * VERSIONと組み合わせて使用する。
+   * @return 整形オプションの識別文字列
+   */
+  public String getFingerprint() {//{{{
+    return fingerprint;
+  }//}}}
+
+  // package private methods
+
+  /**
+   * 渡された文字列を折り返した行を出力先リストに追加する。
+   * @param text 折り返し対象の文字列
+   * @param out 出力先リスト
+   */
+  void carriageReturn(String text, List<String> out) {//{{{
+    lineBreaker.breakLines(text, (t, start, end, indented) -> {
+      String line = t.subSequence(start, end).toString();
+      out.add(indented ? indent.concat(line) : line);
+    });
+  }//}}}
+
+  /**
+   * 段落のアクター名の付与とプレースホルダの置換を行う。
+   * @param paragraph 段落
+   * @param actorName 直前の段落から引き継いだアクター名
+   * @param tokenize 行の単語の区切りを保持するかどうか
+   * @return 置換後の段落
+   */
+  PreparedParagraph prepare(List<String> paragraph, String actorName, boolean tokenize) {//{{{
+    boolean addActor = actorNameOption && !paragraph.get(0).startsWith("#");
+    String[] lines = new String[paragraph.size() + (addActor ? 1 : 0)];
+    int size = 0;
+
+    StringBuilder buffer = new StringBuilder();
+
+    String name = "";
+    if (addActor) {
+      String line = "# " + actorName;
+      name = toActorName(line);
+      lines[size++] = replacePlaceholders(line, name, buffer);
+    }
+
+    for (String line : paragraph) {
+      if (line.startsWith("#"))
+        name = toActorName(line);
+      lines[size++] = replacePlaceholders(line, name, buffer);
+    }
+
+    return new PreparedParagraph(paragraph, actorName, lines, tokenize ? lineBreaker : null);
+  }//}}}
+
+  /**
+   * 置換済みの段落を整形し、ウィンドウリストに追加する。
+   * @param prepared 置換済みの段落
+   * @param windowList 出力先のウィンドウリスト
+   */
+  void formatPrepared(PreparedParagraph prepared, List<List<String>> windowList) {//{{{
+    formatParagraph(prepared.paragraph, prepared.actorName, prepared, windowList, null);
+  }//}}}
+
+  /**
+   * <p>
+   * １つの段落を整形した場合の行数を、行を生成せずに数える。
+   * </p><p>
+   * 整形結果がウィンドウの行数を超える場合と、折り返した行が１つの単語だけで
+   * 折り返し幅を超える場合に、その位置を通知する。<br>
+   * キャッシュは使用しない。
+   * </p>
+   * @param paragraph 段落
+   * @param actorName 直前の段落から引き継いだアクター名
+   * @param listener はみ出しの位置を受け取る
+   * @return アクター名行を含む行数
+   */
+  int check(List<String> paragraph, String actorName, OverflowListener listener) {//{{{
+    Windows windows = new Windows(null, listener);
+    layout(paragraph, actorName, windows);
+    return windows.lineCount();
+  }//}}}
+
+  /**
+   * 置換済みの段落を共有できるかどうかを返す。
+   * アクター名オプションと変数が同じ場合に共有できる。
+   * @param other 比較対象の整形器
+   * @return 共有できる場合は{@code true}
+   */
+  boolean canSharePreparation(TextFormatter other) {//{{{
+    return actorNameOption == other.actorNameOption && variables.equals(other.variables);
+  }//}}}
+
+  boolean returnOption() {//{{{
+    return returnOption;
+  }//}}}
+
+  /**
+   * actorNameOptionを無効にした、それ以外の整形オプションが同じTextFormatterを返
+   * す。
+   * @return actorNameOptionが無効の場合はこのTextFormatter
+   */
+  TextFormatter withoutActorName() {//{{{
+    if (!actorNameOption)
+      return this;
+
+    TextFormatter formatter = withoutActorName;
+    if (formatter == null) {
+      formatter = new TextFormatter(this, false);
+      withoutActorName = formatter;
+    }
+    return formatter;
+  }//}}}
+
+  /**
+   * 制御文字の途中で折り返さないかどうかを返す。
+   * @return 折り返しを行わないか、EscapeCodesを設定している場合は{@code true}
+   */
+  boolean keepsEscapeCodes() {//{{{
+    return !returnOption || escapeCodes != null;
+  }//}}}
+
+  /**
+   * 行に含まれる{@code @name}と変数のプレースホルダを置換する。
+   * @param line 置換対象の行
+   * @param actorName アクター名
+   * @param buffer 置換に使用するバッファ
+   * @return 置換後の行
+   */
+  String replacePlaceholders(String line, String actorName, StringBuilder buffer) {//{{{
+    if (line.indexOf('@') < 0)
+      return line;
+
+    Template template = templates.get(line);
+    if (template == null) {
+      template = Template.compile(line, placeholderNames);
+      if (TEMPLATE_CACHE_SIZE <= templates.size())
+        templates.clear();
+      templates.put(line, template);
+    }
+    if (!template.hasPlaceholder())
+      return line;
+
+    buffer.setLength(0);
+    template.render(buffer, actorName, variables);
+    return buffer.toString();
+  }//}}}
+
+  String indent() {//{{{
+    return indent;
+  }//}}}
+
+  boolean indentOption() {//{{{
+    return indentOption;
+  }//}}}
+
+  /**
+   * 付与する開始括弧を返す。括弧を付与しない場合は空文字列を返す。
+   */
+  String bracketsStart() {//{{{
+    return bracketsStart;
+  }//}}}
+
+  /**
+   * 付与する終了括弧を返す。括弧を付与しない場合は空文字列を返す。
+   */
+  String bracketsEnd() {//{{{
+    return bracketsEnd;
+  }//}}}
+
+  // private methods
+
+  private String createFingerprint() {//{{{
+    return String.format(
+        "actorName=%b,return=%b:%d:%s:%s,indent=%b:%s,brackets=%b:%s:%s,joining=%b,kinsoku=%b,variables=%s"
+        , actorNameOption
+        , returnOption, returnSize, measure, escapeCodes
+        , indentOption, indent
+        , bracketsOption, bracketsStart, bracketsEnd
+        , joiningOption
+        , kinsokuOption
+        , variables
+        );
+  }//}}}
+
+  private void checkVisitor(FormatVisitor visitor) {//{{{
+    if (visitor.requiresEscapeCodes() && !keepsEscapeCodes())
+      throw new IllegalArgumentException(
+          "制御文字を扱うビジタには、EscapeCodesを設定したTextFormatterを使用する必要があります。 - visitor : "
+          + visitor.getClass().getSimpleName());
+  }//}}}
+
+  /**
+   * １段落分のウィンドウリストをビジタに渡す。
+   * 最初のウィンドウの先頭の#で始まる行をアクター名行として扱う。
+   */
+  private static void visit(List<List<String>> windowList, FormatVisitor visitor) throws IOException {//{{{
+    visitor.paragraphStart();
+
+    String actorName = null;
+    String actorLine = null;
+    for (int w=0; w<windowList.size(); w++) {
+      List<String> window = windowList.get(w);
+
+      int from = 0;
+      if (w == 0 && !window.isEmpty() && window.get(0).startsWith("#")) {
+        actorLine = window.get(0);
+        actorName = toActorName(actorLine);
+        from = 1;
+      }
+
+      visitor.windowStart(actorName, actorLine);
+      for (int i=from; i<window.size(); i++)
+        visitor.line(window.get(i));
+      visitor.windowEnd();
+    }
+
+    visitor.paragraphEnd();
+  }//}}}
+
+  /**
+   * 各段落が直前の段落から引き継ぐアクター名を並列の累積走査で求める。
+   */
+  private String[] inheritedActorNames(List<List<String>> paragraphs) {//{{{
+    int size = paragraphs.size();
+    String[] actorNames = new String[size];
+    if (!actorNameOption) {
+      Arrays.fill(actorNames, "");
+      return actorNames;
+    }
+
+    // 各位置までに現れた、#で始まる最後の段落の位置
+    int[] actorIndex = new int[size];
+    Arrays.parallelSetAll(actorIndex, i -> {
+      List<String> paragraph = paragraphs.get(i);
+      return !paragraph.isEmpty() && paragraph.get(0).startsWith("#") ? i : -1;
+    });
+    Arrays.parallelPrefix(actorIndex, Math::max);
+
+    Arrays.parallelSetAll(actorNames, i -> {
+      int index = i == 0 ? -1 : actorIndex[i - 1];
+      return index < 0 ? "" : toActorName(paragraphs.get(index).get(0));
+    });
+    return actorNames;
+  }//}}}
+
+  private List<List<String>> formatParagraph(List<String> paragraph, String actorName, FormatMetrics.Tally tally) {//{{{
+    List<List<String>> windowList = new ArrayList<>(1);
+    formatParagraph(paragraph, actorName, null, windowList, tally);
+    return windowList;
+  }//}}}
+
+  /**
+   * 段落を整形し、ウィンドウリストに追加する。
+   * 置換済みの段落が{@code null}の場合は、段落の置換から行う。<br>
+   * 集計が{@code null}でない場合は、整形の内訳を集計に加算する。
+   */
+  private void formatParagraph(List<String> paragraph, String actorName, PreparedParagraph prepared, List<List<String>> windowList, FormatMetrics.Tally tally) {//{{{
+    if (cache == null) {
+      formatParagraphWithoutCache(paragraph, actorName, prepared, windowList, tally);
+      return;
+    }
+
+    // アクター名を付与しない段落は引き継いだアクター名に依存しない
+    String key = actorNameOption && !paragraph.get(0).startsWith("#") ? actorName : null;
+
+    List<List<String>> cached = cache.get(paragraph, key, fingerprint);
+    if (cached != null) {
+      for (List<String> window : cached)
+        windowList.add(new ArrayList<>(window));
+      return;
+    }
+
+    int from = windowList.size();
+    formatParagraphWithoutCache(paragraph, actorName, prepared, windowList, tally);
+    cache.put(paragraph, key, fingerprint, windowList.subList(from, windowList.size()));
+  }//}}}
+
+  private void formatParagraphWithoutCache(List<String> paragraph, String actorName, PreparedParagraph prepared, List<List<String>> windowList, FormatMetrics.Tally tally) {//{{{
+    Windows windows = new Windows(windowList, null, tally);
+    windows.begin();
+    if (prepared == null) {
+      prepared = prepare(paragraph, actorName, false);
+      windows.lap(FormatStage.FORMAT_PREPARE, 1, prepared.lines.length);
+    }
+    layout(prepared, windows);
+  }//}}}
+
+  private void layout(List<String> paragraph, String actorName, Windows windows) {//{{{
+    layout(prepare(paragraph, actorName, false), windows);
+  }//}}}
+
+  /**
+   * 置換済みの段落を整形した行をウィンドウに振り分ける。
+   */
+  private void layout(PreparedParagraph prepared, Windows windows) {//{{{
+    // 括弧付与、連結、折り返しのいずれかを行う場合はアクター名行を本文と分離する
+    boolean separate = bracketsOption || joiningOption || returnOption;
+
+    String[] lines = prepared.lines;
+    String actor = null;
+    int actorIndex = 0;
+    int[] body = new int[lines.length];
+    int bodySize = 0;
+
+    for (int i=0; i<lines.length; i++) {
+      if (separate && lines[i].startsWith("#")) {
+        if (actor == null) {
+          actor = lines[i];
+          actorIndex = i;
+        }
+        continue;
+      }
+      body[bodySize++] = i;
+    }
+
+    // 付与したアクター名行の分だけ、元の段落の行の位置とずれる
+    int shift = lines.length - prepared.paragraph.size();
+
+    if (actor != null) {
+      windows.source(actorIndex - shift, 0);
+      windows.add(actor);
+    }
+
+    // 単語の区切りを保持している場合は、括弧やインデントを連結した行を走査し
+    // 直さずに折り返す
+    boolean tokenized = returnOption && prepared.isTokenized() && !windows.isCounting();
+
+    // 折り返した行の出力先は段落ごとに１つだけ生成する
+    LineBreaker.LineConsumer sink = returnOption && !windows.isCounting() ? lineSink(windows) : null;
+
+    if (joiningOption) {
+      int capacity = bracketsStart.length() + bracketsEnd.length();
+      for (int i=0; i<bodySize; i++)
+        capacity += lines[body[i]].length();
+
+      StringBuilder sb = new StringBuilder(capacity);
+      LineBreaker.Words[] segments = tokenized ? new LineBreaker.Words[bodySize + 2] : null;
+      if (0 < bodySize) {
+        sb.append(bracketsStart);
+        if (tokenized) segments[0] = bracketsStartWords;
+      }
+      windows.clearSources();
+      for (int i=0; i<bodySize; i++) {
+        windows.addSource(body[i] - shift, sb.length());
+        sb.append(lines[body[i]]);
+        if (tokenized) segments[i + 1] = prepared.words(body[i]);
+      }
+      if (0 < bodySize) {
+        sb.append(bracketsEnd);
+        if (tokenized) segments[bodySize + 1] = bracketsEndWords;
+      } else if (tokenized) {
+        segments = new LineBreaker.Words[0];
+      }
+
+      // 行数を数える場合は連結した文字列を生成しない
+      CharSequence joined = windows.isCounting() ? sb : sb.toString();
+      windows.lap(FormatStage.FORMAT_CONCAT, 0, 1);
+      emit(joined, segments, sink, windows);
+      windows.close();
+      windows.lap(FormatStage.FORMAT_WINDOW_SPLIT, 0, 0);
+      return;
+    }
+
+    StringBuilder concat = windows.isCounting() ? new StringBuilder() : null;
+    LineBreaker.Words[] segments = tokenized ? new LineBreaker.Words[3] : null;
+    int last = bodySize - 1;
+    for (int i=0; i<=last; i++) {
+      CharSequence line = lines[body[i]];
+
+      String head = "";
+      LineBreaker.Words headWords = null;
+      String tail = "";
+      LineBreaker.Words tailWords = null;
+      if (bracketsOption) {
+        if (i == 0)    { head = bracketsStart; headWords = bracketsStartWords; }
+        if (i == last) { tail = bracketsEnd;   tailWords = bracketsEndWords; }
+      }
+      if (returnOption && indentOption && i != 0) {
+        head = indent;
+        headWords = indentWords;
+      }
+
+      if (!head.isEmpty() || !tail.isEmpty()) {
+        if (concat != null) {
+          concat.setLength(0);
+          line = concat.append(head).append(line).append(tail);
+        } else {
+          line = head.concat(lines[body[i]]).concat(tail);
+        }
+      }
+      windows.source(body[i] - shift, head.length());
+
+      if (tokenized) {
+        segments[0] = headWords == null ? emptyWords : headWords;
+        segments[1] = prepared.words(body[i]);
+        segments[2] = tailWords == null ? emptyWords : tailWords;
+      }
+      windows.lap(FormatStage.FORMAT_CONCAT, 0, 1);
+      emit(line, segments, sink, windows);
+    }
+    windows.close();
+    windows.lap(FormatStage.FORMAT_WINDOW_SPLIT, 0, 0);
+  }//}}}
+
+  private void emit(CharSequence line, LineBreaker.Words[] segments, LineBreaker.LineConsumer sink, Windows windows) {//{{{
+    if (windows.isCounting()) {
+      if (returnOption)
+        lineBreaker.breakLines(line, windows);
+      else
+        windows.accept(line, 0, line.length(), false);
+    } else if (!returnOption) {
+      windows.add(line.toString());
+      windows.lap(FormatStage.FORMAT_WINDOW_SPLIT, 0, 1);
+    } else {
+      int before = windows.lines().size();
+      if (segments == null)
+        lineBreaker.breakLines(line, sink);
+      else
+        lineBreaker.breakLines(line, segments, sink);
+      windows.lap(FormatStage.FORMAT_LINE_BREAK, 0, windows.lines().size() - before);
+      windows.flush();
+      windows.lap(FormatStage.FORMAT_WINDOW_SPLIT, 0, 0);
+    }
+  }//}}}
+
+  /**
+   * 折り返した行をウィンドウの行リストに追加する出力先を返す。
+   * 単語の区切りを渡した場合は、文字列を走査せずに折り返す。
+   */
+  private LineBreaker.LineConsumer lineSink(Windows windows) {//{{{
+    return (t, start, end, indented) -> {
+      String line = t.subSequence(start, end).toString();
+      windows.lines().add(indented ? indent.concat(line) : line);
+    };
+  }//}}}
+
+  /**
+   * 行を生成せずに整形した場合のはみ出しの位置を受け取るインタフェース。
+   * 行の位置は元の段落の行の位置、列は置換後の行の文字の位置とする。
+   */
+  interface OverflowListener {
+
+    /**
+     * ウィンドウの行数を超えた最初の行の位置を受け取る。
+     * @param line 行の位置
+     * @param column 列
+     */
+    void windowOverflow(int line, int column);
+
+    /**
+     * 折り返し幅を超えた行の位置を受け取る。
+     * @param line 行の位置
+     * @param column 列
+     * @param width インデントを含む行の幅
+     */
+    void tokenOverflow(int line, int column, float width);
+
+  }
+
+  /**
+   * 行をメッセージウィンドウ単位に振り分ける出力先。
+   * ウィンドウリストに{@code null}を渡した場合は、行を保持せずに行数だけを数え
+   * る。
+   */
+  private static final class Windows implements LineBreaker.LineConsumer {//{{{
+
+    private final List<List<String>> windowList;
+    private List<String> lines = new ArrayList<>(WINDOW_LINE_SIZE);
+    private int lineCount = 0;
+
+    /** はみ出しの位置を受け取る。通知しない場合は{@code null} */
+    private final OverflowListener listener;
+
+    /** 数えている文字列の位置に対応する元の段落の行の位置と開始位置 */
+    private int[] sourceLines;
+    private int[] sourceStarts;
+    private int sourceSize = 0;
+
+    /** 整形の内訳の集計。集計しない場合は{@code null} */
+    private final FormatMetrics.Tally tally;
+
+    Windows(List<List<String>> windowList) {//{{{
+      this(windowList, null, null);
+    }//}}}
+
+    Windows(List<List<String>> windowList, OverflowListener listener) {//{{{
+      this(windowList, listener, null);
+    }//}}}
+
+    Windows(List<List<String>> windowList, OverflowListener listener, FormatMetrics.Tally tally) {//{{{
+      this.windowList = windowList;
+      this.listener   = listener;
+      this.tally      = tally != null && tally.isBreakdown() ? tally : null;
+      if (listener != null) {
+        sourceLines  = new int[4];
+        sourceStarts = new int[4];
+      }
+    }//}}}
+
+    /**
+     * 整形の内訳の計測を開始する。
+     */
+    void begin() {//{{{
+      if (tally != null)
+        tally.begin();
+    }//}}}
+
+    /**
+     * 前回の計測からの時間を整形の内訳に加算する。
+     * @param stage 段階
+     * @param paragraphs 段落数
+     * @param lines 段階の処理結果の行数
+     */
+    void lap(FormatStage stage, int paragraphs, int lines) {//{{{
+      if (tally != null)
+        tally.lap(stage, paragraphs, lines);
+    }//}}}
+
+    void add(String line) {//{{{
+      if (isCounting()) {
+        countLine(0);
+        return;
+      }
+      lines.add(line);
+      flush();
+    }//}}}
+
+    boolean isCounting() {//{{{
+      return windowList == null;
+    }//}}}
+
+    /**
+     * 折り返した行を数える。
+     */
+    @Override
+    public void accept(CharSequence text, int start, int end, boolean indented) {//{{{
+      countLine(start);
+    }//}}}
+
+    @Override
+    public void overflow(CharSequence text, int start, float width) {//{{{
+      if (listener != null)
+        listener.tokenOverflow(sourceLine(start), sourceColumn(start), width);
+    }//}}}
+
+    /**
+     * 次に数える文字列が元の段落の１行に対応することを設定する。
+     * @param line 元の段落の行の位置
+     * @param start 文字列中の行の開始位置
+     */
+    void source(int line, int start) {//{{{
+      clearSources();
+      addSource(line, start);
+    }//}}}
+
+    void clearSources() {//{{{
+      sourceSize = 0;
+    }//}}}
+
+    /**
+     * 次に数える文字列に連結された元の段落の行を追加する。
+     * @param line 元の段落の行の位置
+     * @param start 文字列中の行の開始位置
+     */
+    void addSource(int line, int start) {//{{{
+      if (listener == null)
+        return;
+      if (sourceLines.length <= sourceSize) {
+        sourceLines  = Arrays.copyOf(sourceLines, sourceSize * 2);
+        sourceStarts = Arrays.copyOf(sourceStarts, sourceSize * 2);
+      }
+      sourceLines[sourceSize]  = Math.max(0, line);
+      sourceStarts[sourceSize] = start;
+      sourceSize++;
+    }//}}}
+
+    int lineCount() {//{{{
+      return lineCount;
+    }//}}}
+
+    /**
+     * 行数だけを数えた場合のウィンドウ数を返す。
+     */
+    int windowCount() {//{{{
+      return (lineCount + WINDOW_LINE_SIZE - 1) / WINDOW_LINE_SIZE;
+    }//}}}
+
+    List<String> lines() {//{{{
+      return lines;
+    }//}}}
+
+    /**
+     * ウィンドウの行数を超えた行を次のウィンドウへ送る。
+     */
+    void flush() {//{{{
+      while (WINDOW_LINE_SIZE < lines.size()) {
+        List<String> rest = new ArrayList<>(lines.subList(WINDOW_LINE_SIZE, lines.size()));
+        lines.subList(WINDOW_LINE_SIZE, lines.size()).clear();
+        windowList.add(lines);
+        lines = rest;
+      }
+    }//}}}
+
+    void close() {//{{{
+      if (!isCounting() && 0 < lines.size())
+        windowList.add(lines);
+    }//}}}
+
+    private void countLine(int offset) {//{{{
+      lineCount++;
+      if (listener != null && lineCount == WINDOW_LINE_SIZE + 1)
+        listener.windowOverflow(sourceLine(offset), sourceColumn(offset));
+    }//}}}
+
+    /**
+     * 文字列中の位置を含む元の段落の行の番号を返す。
+     */
+    private int sourceIndex(int offset) {//{{{
+      int i = sourceSize - 1;
+      while (0 < i && offset < sourceStarts[i])
+        i--;
+      return i;
+    }//}}}
+
+    private int sourceLine(int offset) {//{{{
+      return sourceSize == 0 ? 0 : sourceLines[sourceIndex(offset)];
+    }//}}}
+
+    private int sourceColumn(int offset) {//{{{
+      return sourceSize == 0 ? offset : Math.max(0, offset - sourceStarts[sourceIndex(offset)]);
+    }//}}}
+
+  }//}}}
+
+}
@@ -0,0 +1,91 @@
+package jiro.java.lang;
+
+import java.io.IOException;
+
+/**
+ * <p>
+ * 整形結果をFormattableText#toString()と同じ書式のテキストとして出力するビジ
+ * タの基底クラス。
+ * </p><p>
+ * 各行は"paragraph ウィンドウ番号 : 行"の書式で出力する。<br>
+ * アクター名行は整形結果の行をそのまま出力するため、出力はtoString()と同じに
+ * なる。ActorNameTypeがTOP_ONLYの場合は段落の最初のウィンドウだけに、
+ * ALL_WINDOWの場合はすべてのウィンドウに出力する。
+ * </p>
+ */
+public abstract class TextSink implements FormatVisitor {
+
+  private static final String SEP = System.lineSeparator();
+
+  private final ActorNameType actorNameType;
+
+  private int windowNumber = 0;
+  private boolean topWindow = false;
+
+  // constructor
+
+  protected TextSink(ActorNameType actorNameType) {//{{{
+    this.actorNameType = actorNameType;
+  }//}}}
+
+  // public methods
+
+  @Override
+  public void paragraphStart() throws IOException {//{{{
+    topWindow = true;
+  }//}}}
+
+  /**
+   * アクター名行を"# アクター名"としてウィンドウの開始を受け取る。
+   */
+  @Override
+  public void windowStart(String actorName) throws IOException {//{{{
+    windowStart(actorName, actorName == null ? null : "# " + actorName);
+  }//}}}
+
+  @Override
+  public void windowStart(String actorName, String actorLine) throws IOException {//{{{
+    windowNumber++;
+    if (actorLine != null && (topWindow || actorNameType == ActorNameType.ALL_WINDOW)) {
+      writePrefix();
+      write(actorLine);
+      write(SEP);
+    }
+    topWindow = false;
+  }//}}}
+
+  @Override
+  public void line(CharSequence line) throws IOException {//{{{
+    writePrefix();
+    write(line);
+    write(SEP);
+  }//}}}
+
+  /**
+   * 出力したウィンドウの数を返す。
+   * @return ウィンドウの数
+   */
+  public int getWindowCount() {//{{{
+    return windowNumber;
+  }//}}}
+
+  // protected methods
+
+  /**
+   * 文字列を出力する。
+   * @param text 出力する文字列
+   * @throws IOException 出力に失敗した場合
+   */
+  protected abstract void write(CharSequence text) throws IOException;
+
+  // private methods
+
+  private void writePrefix() throws IOException {//{{{
+    write("paragraph ");
+    if (windowNumber < 100) write("0");
+    if (windowNumber < 10)  write("0");
+    write(Integer.toString(windowNumber));
+    write(" : ");
+  }//}}}
+
+}
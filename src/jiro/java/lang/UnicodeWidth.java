@@ -0,0 +1,1083 @@
+package jiro.java.lang;
+
+/**
+ * <p>
+ * コードポイントごとの表示幅の表。
+ * </p><p>
+ * このファイルはtools/gen_unicode_width.pyで生成する。直接編集しないこと。<br>
+ * Unicode 14.0.0 のEast Asian WidthとGeneral Categoryから生成している。
+ * </p><p>
+ * 表は256コードポイント単位のブロックに分け、上位の表でブロックの番号を、下
+ * 位の表でブロック内の値を引く２段の表である。同じ内容のブロックは共有する。
+ * </p>
+ */
+final class UnicodeWidth {
+
+  private static final int BLOCK_SHIFT = 8;
+  private static final int BLOCK_MASK  = 255;
+  private static final int WIDTH_MASK  = 3;
+  private static final int EXTEND      = 4;
+
+  /** STAGE1の各文字からこの値を引いた値がブロック番号 */
+  private static final char STAGE1_OFFSET = 0x4E00;
+
+  /** コードポイントの上位ビットごとのブロック番号 */
+  private static final String STAGE1 =
+    "\u4e00\u4e01\u4e02\u4e03\u4e04\u4e05\u4e06\u4e07\u4e08\u4e09\u4e0a\u4e0b"
+    + "\u4e0c\u4e0d\u4e0e\u4e0f\u4e10\u4e11\u4e12\u4e13\u4e01\u4e01\u4e14\u4e15"
+    + "\u4e16\u4e17\u4e18\u4e19\u4e1a\u4e1b\u4e01\u4e1c\u4e1d\u4e1e\u4e1f\u4e20"
+    + "\u4e21\u4e22\u4e23\u4e24\u4e01\u4e01\u4e01\u4e25\u4e26\u4e27\u4e28\u4e29"
+    + "\u4e2a\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e2b\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e2c\u4e01\u4e2d\u4e2e"
+    + "\u4e2f\u4e30\u4e31\u4e32\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e33"
+    + "\u4e01\u4e01\u4e01\u4e01\u4e01\u4e01\u4e01\u4e01\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e34"
+    + "\u4e01\u4e35\u4e36\u4e37\u4e38\u4e39\u4e3a\u4e3b\u4e3c\u4e3d\u4e01\u4e3e"
+    + "\u4e3f\u4e40\u4e41\u4e42\u4e43\u4e44\u4e45\u4e46\u4e47\u4e48\u4e49\u4e4a"
+    + "\u4e4b\u4e4c\u4e4d\u4e4e\u4e4f\u4e50\u4e51\u4e29\u4e52\u4e53\u4e54\u4e55"
+    + "\u4e01\u4e01\u4e01\u4e56\u4e57\u4e58\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e59\u4e01\u4e01\u4e01\u4e01\u4e5a\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e01\u4e01\u4e5b\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e01\u4e01\u4e5c\u4e5d\u4e29\u4e29\u4e5e\u4e5f\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e60\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e61\u4e62\u4e63\u4e64\u4e65"
+    + "\u4e66\u4e67\u4e68\u4e69\u4e01\u4e01\u4e6a\u4e29\u4e29\u4e29\u4e29\u4e6b"
+    + "\u4e6c\u4e6d\u4e6e\u4e29\u4e29\u4e29\u4e29\u4e6f\u4e70\u4e71\u4e29\u4e29"
+    + "\u4e72\u4e73\u4e74\u4e29\u4e75\u4e76\u4e29\u4e77\u4e78\u4e79\u4e7a\u4e7b"
+    + "\u4e7c\u4e7d\u4e7e\u4e7f\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e80\u4e81\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29"
+    + "\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29\u4e29";
+
+  /** ブロックごとの値。下位2ビットが幅、EXTENDが結合文字フラグ */
+  private static final String[] STAGE2 = {
+    // 0
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111110"
+    + "0000000000000000000000000000000012112112211110212222212222112222"
+    + "1111111111111111111111121111111111111111111111111111111211111111",
+    // 1
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111",
+    // 2
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111211111111111111111112222121211111111111111111111111111111111",
+    // 3
+    "4444444444444444444444444444444444444444444444444444444444444444"
+    + "4444444444444444444444444444444444444444444444441111111122111111"
+    + "2222111111121211111111111111111111211111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111",
+    // 4
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1114444444111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111",
+    // 5
+    "1111111111111111111111111111111111111111111111112111111111111111"
+    + "1111111111111111111111122111111111111111111111111111111111111111"
+    + "1111111111122111244444444444444444444444444444444444444444444414"
+    + "1441441422222222111111111111111111111111111222211111122222222222",
+    // 6
+    "0000001111111111444444444441011111111111111111111111111111111111"
+    + "1111111111144444444444444444444411111111111111114111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111444444401444444114414444111111111111111111",
+    // 7
+    "1111111111111120141111111111111111111111111111114444444444444444"
+    + "4444444444422111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111144444444444122222222222222"
+    + "1111111111111111111111111111111111111111111444444444111111122411",
+    // 8
+    "1111111111111111111111444414444444441444144444221111111111111112"
+    + "1111111111111111111111111444221211111111111222221111111111111111"
+    + "1111111111111112002222224444444411111111111111111111111111111111"
+    + "1111111111444444444444444444444444044444444444444444444444444444",
+    // 9
+    "4445111111111111111111111111111111111111111111111111111111454155"
+    + "5444444445555455144444441111111111441111111111111111111111111111"
+    + "1455211111111221122111111111111111111111121111111212221111224155"
+    + "5444422552255412222222252222112111442211111111111111111111111142",
+    // 10
+    "2445211111122221122111111111111111111111121111111211211211224255"
+    + "5442222442244422242222222111121222222211111111114411141222222222"
+    + "2445211111111121112111111111111111111111121111111211211111224155"
+    + "5444442445255422122222222222222211442211111111111122222221444444",
+    // 11
+    "2455211111111221122111111111111111111111121111111211211111224154"
+    + "5444422552255422222224452222112111442211111111111111111122222222"
+    + "2241211111122211121111222112121122211222111222111111111111222255"
+    + "4552225552555422122222252222222222222211111111111111111111122222",
+    // 12
+    "4555411111111211121111111111111111111111121111111111111111224144"
+    + "4555524442444422222224421112212211442211111111112222222111111111"
+    + "1455111111111211121111111111111111111111121111111111211111224154"
+    + "5555524552554422222225522222211211442211111111112112222222222222",
+    // 13
+    "4455111111111211121111111111111111111111111111111111111111144155"
+    + "5444425552555411222211151111111111442211111111111111111111111111"
+    + "2455211111111111111111122211111111111111111111111121111111112122"
+    + "1111111222422225554442425555555522222211111111112255122222222222",
+    // 14
+    "2111111111111111111111111111111111111111111111111411444444422221"
+    + "1111111444444441111111111111222222222222222222222222222222222222"
+    + "2112121111121111111111111111111111112121111111111411444444444122"
+    + "1111121244444422111111111122111122222222222222222222222222222222",
+    // 15
+    "1111111111111111111111114411111111111111111111111111141414111155"
+    + "1111111121111111111111111111111111111111111112222444444444444445"
+    + "4444414411111444444444442444444444444444444444444444444444444211"
+    + "1111114111111211111111111112222222222222222222222222222222222222",
+    // 16
+    "1111111111111111111111111111111111111111111554444544444454455441"
+    + "1111111111111111111111554411114441555115555555111444411111111111"
+    + "1145544555555415111111111155541111111111111111111111111111111111"
+    + "1111112122222122111111111111111111111111111111111111111111111111",
+    // 17
+    "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222200000000000000000000000000000000"
+    + "0000000000000000000000000000000000000000000000000000000000000000"
+    + "0000000000000000000000000000000000000000000000000000000000000000",
+    // 18
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111112111122111111121211112211111111111111111111111111111111"
+    + "1111111112111122111111111111111111111111111111111211112211111112"
+    + "1211112211111111111111121111111111111111111111111111111111111111",
+    // 19
+    "1111111111111111121111221111111111111111111111111111111111111111"
+    + "1111111111111111111111111112244411111111111111111111111111111222"
+    + "1111111111111111111111111122222211111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111112211111122",
+    // 20
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111122211111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111112222222",
+    // 21
+    "1111111111111111114445222222222111111111111111111144511222222222"
+    + "1111111111111111114422222222222211111111111112111244222222222222"
+    + "1111111111111111111111111111111111111111111111111111445444444455"
+    + "5555554554444444444411111111142211111111112222221111111111222222",
+    // 22
+    "1111111111144404111111111122222211111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111112222222"
+    + "1111144111111111111111111111111111111111141222221111111111111111"
+    + "1111111111111111111111111111111111111111111111111111112222222222",
+    // 23
+    "1111111111111111111111111111111244455554455522225545555554442222"
+    + "1222111111111111111111111111111111111111111111221111122222222222"
+    + "1111111111111111111111111111111111111111111122221111111111111111"
+    + "1111111111222222111111111112221111111111111111111111111111111111",
+    // 24
+    "1111111111111111111111144554221111111111111111111111111111111111"
+    + "1111111111111111111115454444444245455444444445555554444444444224"
+    + "1111111111222222111111111122222211111111111111224444444444444444"
+    + "4444444444444442222222222222222222222222222222222222222222222222",
+    // 25
+    "4444511111111111111111111111111111111111111111111111454444454555"
+    + "5545511111111222111111111111111111111111111444444444111111111112"
+    + "4451111111111111111111111111111115444455445444111111111111111111"
+    + "1111111111111111111111111111111111111145445554544455222222221111",
+    // 26
+    "1111111111111111111111111111111111115555555544444444554422211111"
+    + "1111111111222111111111111111111111111111111111111111111111111111"
+    + "1111111112222222111111111111111111111111111111111111111111122111"
+    + "1111111122222222444144444444444445444444411114111111411544122222",
+    // 27
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "4444444444444444444444444444444444444444444444444444444444444444",
+    // 28
+    "1111111111111111111111221111112211111111111111111111111111111111"
+    + "1111112211111122111111112121212111111111111111111111111111111122"
+    + "1111111111111111111111111111111111111111111111111111121111111111"
+    + "1111121111111111111122111111211111111111111111112211121111111112",
+    // 29
+    "1111111111100400211222212211221122212222110000012122121111121111"
+    + "1111111111111111111111111111111100000200000000001122211111111112"
+    + "1222211111111112111111111111122211111111111121111111111111111111"
+    + "1222222222222222444444444444444444444444444444444222222222222222",
+    // 30
+    "1112121112111111111211211111111112211121111211111111111111111111"
+    + "1111111111111111111221111112222122222222222211112222222222111111"
+    + "1111111112112222222222222211111111111111111111111111111122111111"
+    + "1111111111111111112121111111111111111112111111111111111111111111",
+    // 31
+    "2122111221121112121112111121122221121212222221211111222211112211"
+    + "1111111121112111112111111111111122112222112211221111111111111111"
+    + "1122112211111111111112111211111111111211111111111111111111111112"
+    + "1111111111111111111111111111111111111111111111111111111111111111",
+    // 32
+    "1111111111111111112111111122111111111111122111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111122221112112111111111111",
+    // 33
+    "1111111111111111111111111111111111111112222222222222222222222222"
+    + "1111111111122222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222221222222222222222222222",
+    // 34
+    "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222221111222222222222222222222222222222222222111111111111"
+    + "2222222222222222112222111111111122122222221111111122112211112211"
+    + "2211112221121122221111111111111111222211111111121111111111111221",
+    // 35
+    "1111122112111122111122111111212111111111111111111111111111111111"
+    + "2121111122222222222211111111111122122212222122121111111111111112"
+    + "1111111111111111111211111111112212111111112211111111111111111222"
+    + "1111222222222222222222222222222222121111222222222222222222222222",
+    // 36
+    "1111121111221111111111111111111111111111211111111111111111111211"
+    + "1111111111112121111222121111111111111111111111111111112222222222"
+    + "1111111111111111111112221111111111111111111111112111111111111112"
+    + "1111111111111111111111111111111111111111111111111111111111111111",
+    // 37
+    "1111111111111111111111111112211111111111111111111111111111111111"
+    + "1111111111111111211112222211111111111111111111111111221111111111"
+    + "1111111111111111111111211111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111",
+    // 38
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111144411222221111111",
+    // 39
+    "1111111111111111111111111111111111111121222221221111111111111111"
+    + "1111111111111111111111111111111111111111222222211222222222222224"
+    + "1111111111111111111111122222222211111112111111121111111211111112"
+    + "1111111211111112111111121111111244444444444444444444444444444444",
+    // 40
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111112222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 41
+    "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 42
+    "2222222222222222222222222222222222222222224444662222222222222221"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222442222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 43
+    "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "1111111111111111111111111111111111111111111111111111111111111111",
+    // 44
+    "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222111111111111111111111111111111111111111111111111",
+    // 45
+    "1111111111111111111111111111111111111111111122222222222222222222"
+    + "1111111111111111111111111111111111111111111111144441444444444411"
+    + "1111111111111111111111111111114411111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111114411111122222222",
+    // 46
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111122222112121111122222222222222222222222211111111111111",
+    // 47
+    "1141114111141111111111111111111111155445111142221111111111222222"
+    + "1111111111111111111111111111111111111111111111111111111122222222"
+    + "5511111111111111111111111111111111111111111111111111555555555555"
+    + "5555442222222211111111111122222244444444444444444411111111111114",
+    // 48
+    "1111111111111111111111111111111111111144444444111111111111111111"
+    + "1111111444444444445522222222222122222222222222222222222222222222"
+    + "4445111111111111111111111111111111111111111111111114554444554455"
+    + "5111111111111121111111111122221111111411111111111111111111111112",
+    // 49
+    "1111111111111111111111111111111111111111144444455445544222222222"
+    + "1114111111114522111111111122111111111111111111111111111111154511"
+    + "1111111111111111111111111111111111111111111111114144411441111144"
+    + "1412222222222222222222222221111111111111111544551111154222222222",
+    // 50
+    "2111111221111112211111122222222211111112111111121111111111111111"
+    + "1111111111111111111111111111111111111111111122221111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111155455455154221111111111222222",
+    // 51
+    "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222220000000000000000"
+    + "0000000000000000000000000000000000000000000000000000000000000000",
+    // 52
+    "1111111222222222222111112222214111111111111111111111111211111212"
+    + "1121121111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1112222222222222222111111111111111111111111111111111111111111111",
+    // 53
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111221111111111111111111111111111111111111111111111"
+    + "1111111122222221222222222222222222222222222222221111111111111111",
+    // 54
+    "4444444444444444222222222222222244444444444444442222222222222222"
+    + "2222222222222222222222222222222222222222222222221111121111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111220",
+    // 55
+    "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222221111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111112"
+    + "2211111122111111221111112211122222222222111111122222222220001222",
+    // 56
+    "1111111111112111111111111111111111111112111111111111111111121121"
+    + "1111111111111122111111111111112222222222222222222222222222222222"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111122222",
+    // 57
+    "1112222111111111111111111111111111111111111111111111222111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111112111111111111122212222222222222222222222222222222"
+    + "2222222222222222111111111111111111111111111111111111111111111422",
+    // 58
+    "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "1111111111111111111111111111122211111111111111111111111111111111"
+    + "1111111111111111122222222222222241111111111111111111111111112222",
+    // 59
+    "1111111111111111111111111111111111112222222221111111111111111111"
+    + "1111111111122222111111111111111111111111111111111111114444422222"
+    + "1111111111111111111111111111112111111111111111111111111111111111"
+    + "1111222211111111111111222222222222222222222222222222222222222222",
+    // 60
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111112211111111112222221111111111111111"
+    + "1111111111111111111122221111111111111111111111111111111111112222",
+    // 61
+    "1111111111111111111111111111111111111111222222221111111111111111"
+    + "1111111111111111111111111111111111112222222222211111111111121111"
+    + "1111111111121111111211211111111111211111111111111121111111211222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 62
+    "1111111111111111111111111111111111111111111111111111111222222222"
+    + "1111111111111111111111222222222211111111222222222222222222222222"
+    + "1111112111111111111111111111111111111111111111111211111111122222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 63
+    "1111112212111111111111111111111111111111111111111111112112221221"
+    + "1111111111111111111111211111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111222222221111111112222222222222222"
+    + "2222222222222222222222222222222211111111111111111112112222211111",
+    // 64
+    "1111111111111111111111111111222111111111111111111111111111222221"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "1111111111111111111111111111111111111111111111111111111122221111"
+    + "1111111111111111221111111111111111111111111111111111111111111111",
+    // 65
+    "1444244222224444111121112111111111111111111111111111112244422224"
+    + "1111111112222222111111111222222211111111111111111111111111111111"
+    + "1111111111111111111111111111111122222222222222222222222222222222"
+    + "1111111111111111111111111111111111111442222111111111111222222222",
+    // 66
+    "1111111111111111111111111111111111111111111111111111112221111111"
+    + "1111111111111111111111221111111111111111111111111112222211111111"
+    + "1111111111111111112222222111122222222222211111112222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 67
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111112222222222222222222222222222222222222222222222222222222"
+    + "1111111111111111111111111111111111111111111111111112222222222222"
+    + "1111111111111111111111111111111111111111111111111112222222111111",
+    // 68
+    "1111111111111111111111111111111111114444222222221111111111222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 69
+    "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222211111111111111111111111111111112"
+    + "1111111111111111111111111111111111111111112441221122222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 70
+    "1111111111111111111111111111111111111111222222221111111111111111"
+    + "1111114444444444411111111122222222222222222222221111111111111111"
+    + "1144441111222222222222222222222222222222222222221111111111111111"
+    + "1111111111112222222222222222222211111111111111111111111222222222",
+    // 71
+    "5451111111111111111111111111111111111111111111111111111144444444"
+    + "4444444111111122221111111111111111111111111111114114412222222224"
+    + "4451111111111111111111111111111111111111111111115554444554411011"
+    + "1142222222222022111111111111111111111111122222221111111111222222",
+    // 72
+    "4441111111111111111111111111111111111114444454444444421111111111"
+    + "1111155122222222111111111111111111111111111111111114111222222222"
+    + "4451111111111111111111111111111111111111111111111115554444444445"
+    + "5111111114444154111111111111111121111111111111111111122222222222",
+    // 73
+    "1111111111111111112111111111111111111111111155544455454411111142"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "1111111212111121111111111111112111111111112222221111111111111111"
+    + "1111111111111111111111111111111455544444444222221111111111222222",
+    // 74
+    "4455211111111221122111111111111111111111121111111211211111244155"
+    + "4555522552255522122222252222211111552244444442224444422222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 75
+    "1111111111111111111111111111111111111111111111111111155544444444"
+    + "5544454111111111111111111111214111222222222222222222222222222222"
+    + "1111111111111111111111111111111111111111111111115554444445455554"
+    + "4544111122222222111111111122222222222222222222222222222222222222",
+    // 76
+    "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "1111111111111111111111111111111111111111111111155544442255554454"
+    + "4111111111111111111111111111442222222222222222222222222222222222",
+    // 77
+    "1111111111111111111111111111111111111111111111115554444444455454"
+    + "4111122222222222111111111122222211111111111112222222222222222222"
+    + "1111111111111111111111111111111111111111111454554444445411222222"
+    + "1111111111222222222222222222222222222222222222222222222222222222",
+    // 78
+    "1111111111111111111111111112244455444454444422221111111111111111"
+    + "1111111222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 79
+    "1111111111111111111111111111111111111111111155544444444454412222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222211111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111112222222222221",
+    // 80
+    "1111111221221111111121121111111111111111111111115555552552244541"
+    + "5154111222222222111111111122222222222222222222222222222222222222"
+    + "2222222222222222222222222222222211111111221111111111111111111111"
+    + "1111111111111111155544442244555541115222222222222222222222222222",
+    // 81
+    "1444444444411111111111111111111111111111111111111114444445144441"
+    + "1111111422222222144444455444111111111111111111111111111111111111"
+    + "1111111111444444444444454411111111122222222222221111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111112222222",
+    // 82
+    "1111111112111111111111111111111111111111111111154444444244444454"
+    + "1111112222222222111111111111111111111111111112221111111111111111"
+    + "1111111111111111224444444444444444444444254444444544544222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 83
+    "1111111211211111111111111111111111111111111111111444444222424424"
+    + "4444441422222222111111111122222211111121121111111111111111111111"
+    + "1111111111555552442554541222222211111111112222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 84
+    "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222211111111111111111114455112222222",
+    // 85
+    "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222221222222222222222"
+    + "1111111111111111111111111111111111111111111111111122222222222221",
+    // 86
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111122222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 87
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111121111122222222222"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111",
+    // 88
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 89
+    "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111112222222222222",
+    // 90
+    "1111111111111111111111111111111111111111111111120000000002222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 91
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 92
+    "1111111111111111111111111111111111111111111111111111111112222222"
+    + "1111111111111111111111111111111211111111112222111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111112"
+    + "1111111111222222111111111111111111111111111111224444412222222222",
+    // 93
+    "1111111111111111111111111111111111111111111111114444444111111111"
+    + "1111112222222222111111111121111111211111111111111111111122222111"
+    + "1111111111111111222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 94
+    "2222222222222222222222222222222222222222222222222222222222222222"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111112222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 95
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111122224155555555555555555555555555555555555555555555555"
+    + "5555555522222224444111111111111122222222222222222222222222222222"
+    + "2222222222222222222222222222222222224222222222226622222222222222",
+    // 96
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111222221111111111111222"
+    + "1111111112222222111111111122144100002222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 97
+    "4444444444444444444444444444444444444444444444224444444444444444"
+    + "4444444222222222111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111222222222222222222222222222222222222222222222222222222222222",
+    // 98
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111112222222222",
+    // 99
+    "1111111111111111111111111111111111111112211111111111111111111111"
+    + "1111111111111111111111111111111111111554441115555550000000044444"
+    + "4441144444441111111111111111111111111111114444111111111111111111"
+    + "1111111111111111111111111111111111111111111222222222222222222222",
+    // 100
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1144412222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222211111111111111111111222222222222",
+    // 101
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111122222222211111111111111111111111112222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 102
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111112111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111121122122112211112111111111111212111"
+    + "1111211111111111111111111111111111111111111111111111111111111111",
+    // 103
+    "1111112111122111111112111111121111111111111111111111111111211112"
+    + "1111121222111111121111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111",
+    // 104
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111122111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111",
+    // 105
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111112211111111111111111111111111111111111111111111111111",
+    // 106
+    "4444444444444444444444444444444444444444444444444444444111144444"
+    + "4444444444444444444444444444444444444444444441111111141111111111"
+    + "1111411111112222222222222224444424444444444444442222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 107
+    "1111111111111111111111111111111222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 108
+    "4444444244444444444444444224444444244244444222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 109
+    "1111111111111111111111111111111111111111111112224444444111111122"
+    + "1111111111222211222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 110
+    "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222111111111111111111111111111111422222222222222222"
+    + "1111111111111111111111111111111111111111111144441111111111222221",
+    // 111
+    "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222211111112111121121111111111111112",
+    // 112
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111122111111111444444422222222222222222222222222222222222222222",
+    // 113
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111444444412222111111111122221122222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 114
+    "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222111111111111111"
+    + "1111111111111111111111111111111111111111111111111111122222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 115
+    "2111111111111111111111111111111111111111111111111111111111111122"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 116
+    "1111211111111111111111111111111121121221211111111112111121212222"
+    + "2212222121212111211212212121212121121221111211111112111121111212"
+    + "1111111111211111111111111111222221112111112111111111111111112222"
+    + "2222222222222222222222222222222222222222222222221122222222222222",
+    // 117
+    "1111211111111111111111111111111111111111111122221111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111122222222222211111111111111122111111111111111"
+    + "2111111111111112211111111111111111111111111111111111112222222222",
+    // 118
+    "2222222222211111222222222222222222222222222222112222222222222222"
+    + "2222222222222222222222222222222222222222221111112222222222222222"
+    + "2222222222222222222222222222222222222222222221222222222222222222"
+    + "2222222222222222222222222222222222222211111111111111111111111111",
+    // 119
+    "2222222222222222222222222222222221111111111112222222221222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222122"
+    + "2222222222222222222211111111111122222222222222222222222222222222"
+    + "2222222222211112222211111111111122222222222222222111211122244444",
+    // 120
+    "2222222222222222222222222222222222222222222222222222222222222221"
+    + "2122222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222112",
+    // 121
+    "2222222222222222222222222222222222222222222222222222222222222211"
+    + "1111111111122221222222222222222222222222111111111111111111211111"
+    + "1111111111111111111112211111111111112111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111122222",
+    // 122
+    "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222111111111111111111111111111111111111111111111111"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222221111112111222112222222222211111111111222221111222222222222",
+    // 123
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111222222222222"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111222222222222222222222222222222222222222",
+    // 124
+    "1111111111112222111111111111111111111111111111111111111111111111"
+    + "1111111122222222111111111122222211111111111111111111111111111111"
+    + "1111111122222222111111111111111111111111111111221122222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 125
+    "1111111111112222222222222222222222222222222222222222222222212222"
+    + "2222221222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 126
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111122222222222211111111111111222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 127
+    "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111111111111111111111111111111111111111111111111"
+    + "1111111111111111111211111111111111111111111111111111111111111111"
+    + "1111111111122222222222222222222222222222222222221111111111222222",
+    // 128
+    "2022222222222222222222222222222244444444444444444444444444444444"
+    + "4444444444444444444444444444444444444444444444444444444444444444"
+    + "2222222222222222222222222222222222222222222222222222222222222222"
+    + "2222222222222222222222222222222222222222222222222222222222222222",
+    // 129
+    "4444444444444444444444444444444444444444444444444444444444444444"
+    + "4444444444444444444444444444444444444444444444444444444444444444"
+    + "4444444444444444444444444444444444444444444444444444444444444444"
+    + "4444444444444444444444444444444444444444444444442222222222222222",
+  };
+
+  private static final char[] STAGE1_TABLE = STAGE1.toCharArray();
+  private static final byte[] STAGE2_TABLE = new byte[STAGE2.length << BLOCK_SHIFT];
+
+  static {//{{{
+    for (int b=0; b<STAGE2.length; b++) {
+      String block = STAGE2[b];
+      for (int i=0; i<=BLOCK_MASK; i++)
+        STAGE2_TABLE[(b << BLOCK_SHIFT) | i] = (byte) (block.charAt(i) - '0');
+    }
+  }//}}}
+
+  private UnicodeWidth() {}
+
+  /**
+   * コードポイントの表示幅を返す。
+   * @param codePoint コードポイント
+   * @return 表示幅, 0, 1 または 2
+   */
+  static int of(int codePoint) {//{{{
+    return lookup(codePoint) & WIDTH_MASK;
+  }//}}}
+
+  /**
+   * コードポイントが直前の文字と結合して表示される文字かどうかを返す。
+   * 結合記号、ゼロ幅接合子、異体字セレクタ、絵文字の修飾子などが該当する。
+   * @param codePoint コードポイント
+   * @return 結合する場合は{@code true}
+   */
+  static boolean isExtend(int codePoint) {//{{{
+    return (lookup(codePoint) & EXTEND) != 0;
+  }//}}}
+
+  private static int lookup(int codePoint) {//{{{
+    if (codePoint < 0 || Character.MAX_CODE_POINT < codePoint)
+      return 1;
+    int block = STAGE1_TABLE[codePoint >>> BLOCK_SHIFT] - STAGE1_OFFSET;
+    return STAGE2_TABLE[(block << BLOCK_SHIFT) | (codePoint & BLOCK_MASK)];
+  }//}}}
+
+}
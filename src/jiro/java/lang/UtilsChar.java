@@ -1,16 +1,76 @@
 package jiro.java.lang;
 
-import java.util.regex.*;
-
 /**
+ * <p>
  * 文字の種類を判別するユーティリティメソッドクラス。
+ * </p><p>
+ * 文字の種類は基本多言語面(BMP)のすべての文字についてクラス初期化時に表を作成
+ * し、判別時は表を引くだけで済ませる。
+ * </p>
  **/
 public final class UtilsChar {
 
-  private static final Pattern PATTERN_ALPHABET    = Pattern.compile("[a-zA-Z0-9_\\-]");
-  private static final Pattern PATTERN_WHITE_SPACE = Pattern.compile("\\s");
   private static final String SEP = System.lineSeparator();
 
+  private static final byte ALPHABET    = 1;
+  private static final byte WHITE_SPACE = 1 << 1;
+  private static final byte SEPARATOR   = 1 << 2;
+  private static final byte FULL_WIDTH  = 1 << 3;
+  private static final byte NO_LINE_START = 1 << 4;
+  private static final byte NO_LINE_END   = 1 << 5;
+
+  /** 行頭禁則文字 */
+  private static final String NO_LINE_START_CHARS =
+    "、。，．・：；？！゛゜ヽヾゝゞ々ー〜"
+    + "）」』】〕〉》］｝’”"
+    + "ぁぃぅぇぉっゃゅょゎゕゖァィゥェォッャュョヮヵヶ"
+    + "｡､･ｧｨｩｪｫｬｭｮｯｰ｣";
+
+  /** 行末禁則文字 */
+  private static final String NO_LINE_END_CHARS = "（「『【〔〈《［｛‘“｢";
+
+  /** 文字ごとの種類フラグの表 */
+  private static final byte[] CHAR_CLASS = new byte[Character.MAX_VALUE + 1];
+
+  static {//{{{
+    for (int i=0; i<CHAR_CLASS.length; i++) {
+      char ch = (char) i;
+      byte flags = 0;
+
+      if (
+          ( 'a' <= ch && ch <= 'z' )
+          || ( 'A' <= ch && ch <= 'Z' )
+          || ( '0' <= ch && ch <= '9' )
+          || ch == '_'
+          || ch == '-'
+         )
+        flags |= ALPHABET;
+
+      // 正規表現の \s と同じ文字
+      if (ch == ' ' || ch == '\t' || ch == '\n' || ch == '\u000b' || ch == '\f' || ch == '\r')
+        flags |= WHITE_SPACE;
+
+      if (
+          ch == '!'
+          || ch == '?'
+          || ch == ','
+          || ch == '.'
+          || ( SEP.length() == 1 && ch == SEP.charAt(0) )
+         )
+        flags |= SEPARATOR;
+
+      if (UnicodeWidth.of(ch) == 2)
+        flags |= FULL_WIDTH;
+
+      CHAR_CLASS[i] = flags;
+    }
+
+    for (char ch : NO_LINE_START_CHARS.toCharArray())
+      CHAR_CLASS[ch] |= NO_LINE_START;
+    for (char ch : NO_LINE_END_CHARS.toCharArray())
+      CHAR_CLASS[ch] |= NO_LINE_END;
+  }//}}}
+
   private UtilsChar() {}
 
   /**
@@ -19,11 +79,7 @@ public final class UtilsChar {
    * @return 検査結果 {@code true} または {@code false}
    */
   public static boolean isAlphabet(char ch) {//{{{
-
-    String str = String.valueOf(ch);
-    Matcher m = PATTERN_ALPHABET.matcher(str);
-    return m.find();
-
+    return (CHAR_CLASS[ch] & ALPHABET) != 0;
   }//}}}
 
   /**
@@ -39,15 +95,7 @@ public final class UtilsChar {
    * @return 検査結果 {@code true} または {@code false}
    */
   public static boolean isSeparator(char ch) {//{{{
-
-    return (
-           ch == '!'
-        || ch == '?'
-        || ch == ','
-        || ch == '.'
-        || String.valueOf(ch).equals(SEP)
-        );
-
+    return (CHAR_CLASS[ch] & SEPARATOR) != 0;
   }//}}}
 
   /**
@@ -56,11 +104,42 @@ public final class UtilsChar {
    * @return 検査結果 {@code true} または {@code false}
    */
   public static boolean isWhiteSpace(char ch) {//{{{
+    return (CHAR_CLASS[ch] & WHITE_SPACE) != 0;
+  }//}}}
+
+  /**
+   * <p>
+   * 引数に渡された文字が全角文字かどうかを判別する。
+   * </p><p>
+   * East Asian WidthがW(全角)、F(全角英数)の文字と、曖昧な幅の文字のうちラテ
+   * ン文字、ギリシャ文字、キリル文字以外の記号などを全角文字とする。<br>
+   * 表示幅はUnicodeWidthの表による。
+   * </p>
+   * @param ch 検査対象文字
+   * @return 検査結果 {@code true} または {@code false}
+   */
+  public static boolean isFullWidth(char ch) {//{{{
+    return (CHAR_CLASS[ch] & FULL_WIDTH) != 0;
+  }//}}}
 
-    String str = String.valueOf(ch);
-    Matcher m = PATTERN_WHITE_SPACE.matcher(str);
-    return m.find();
+  /**
+   * 引数に渡された文字が行頭禁則文字かどうかを判別する。
+   * 行頭禁則文字は句読点、閉じ括弧、小書きの仮名など、行の先頭に置かない文字。
+   * @param ch 検査対象文字
+   * @return 検査結果 {@code true} または {@code false}
+   */
+  public static boolean isNoLineStart(char ch) {//{{{
+    return (CHAR_CLASS[ch] & NO_LINE_START) != 0;
+  }//}}}
 
+  /**
+   * 引数に渡された文字が行末禁則文字かどうかを判別する。
+   * 行末禁則文字は開き括弧など、行の末尾に置かない文字。
+   * @param ch 検査対象文字
+   * @return 検査結果 {@code true} または {@code false}
+   */
+  public static boolean isNoLineEnd(char ch) {//{{{
+    return (CHAR_CLASS[ch] & NO_LINE_END) != 0;
   }//}}}
 
 }
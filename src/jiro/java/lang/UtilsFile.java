@@ -0,0 +1,100 @@
+package jiro.java.lang;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <p>
+ * ファイルを一時ファイル経由で置き換えるユーティリティメソッドクラス。
+ * </p><p>
+ * Files.createTempFileで作成したファイルは所有者だけが読み書きできる権限にな
+ * るため、置き換えたファイルの権限が変わってしまう。<br>
+ * このクラスは一時ファイルを通常のファイルと同じ既定の権限で作成し、置き換え
+ * 対象のファイルが存在する場合はPOSIXの権限、所有者、グループを引き継ぐ。
+ * </p>
+ **/
+public final class UtilsFile {
+
+  private UtilsFile() {}
+
+  /**
+   * <p>
+   * ファイルを置き換えるための一時ファイルを、同じディレクトリに作成する。
+   * </p><p>
+   * 置き換え対象のファイルが存在する場合は、POSIXの権限、所有者、グループを
+   * 一時ファイルに設定する。所有者とグループを変更する権限がない場合は、権限
+   * だけを設定する。
+   * </p>
+   * @param file 置き換え対象のファイル
+   * @return 作成した空の一時ファイル
+   * @throws IOException 作成に失敗した場合
+   */
+  public static Path createTempFileFor(Path file) throws IOException {//{{{
+    Path dir = file.toAbsolutePath().getParent();
+    String name = file.getFileName().toString();
+
+    Path tmp;
+    while (true) {
+      tmp = dir.resolve(name + "." + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+      try {
+        Files.createFile(tmp);
+        break;
+      } catch (FileAlreadyExistsException e) {
+        continue;
+      }
+    }
+
+    try {
+      copyAttributes(file, tmp);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(tmp);
+      throw e;
+    }
+    return tmp;
+  }//}}}
+
+  /**
+   * 一時ファイルでファイルを置き換える。
+   * 可能であればアトミックに置き換える。
+   * @param tmp 一時ファイル
+   * @param file 置き換え対象のファイル
+   * @throws IOException 置き換えに失敗した場合
+   */
+  public static void replace(Path tmp, Path file) throws IOException {//{{{
+    try {
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }//}}}
+
+  // private methods
+
+  private static void copyAttributes(Path from, Path to) throws IOException {//{{{
+    if (!Files.exists(from))
+      return;
+
+    PosixFileAttributeView fromView = Files.getFileAttributeView(from, PosixFileAttributeView.class);
+    PosixFileAttributeView toView   = Files.getFileAttributeView(to, PosixFileAttributeView.class);
+    if (fromView == null || toView == null)
+      return;
+
+    PosixFileAttributes attributes = fromView.readAttributes();
+    try {
+      toView.setOwner(attributes.owner());
+      toView.setGroup(attributes.group());
+    } catch (IOException e) {
+      // 他のユーザのファイルは所有者を変更できないため、権限だけを引き継ぐ
+    }
+    // グループの変更で特殊な権限が外れる場合があるため、権限は最後に設定する
+    toView.setPermissions(attributes.permissions());
+  }//}}}
+
+}
@@ -14,9 +14,15 @@ import java.util.stream.*;
 public class UtilsString {
 
   private static final String SEP = System.lineSeparator();
-  private static final char ALPHANUMERIC_CHARACTER = '\u007e';
-  private static final char BACK_SLASH_CHARACTER   = '\u00a5';
-  private static final char TILDA_CHARACTER        = '\u203e';
+
+  /** ゼロ幅接合子 */
+  private static final char ZWJ = '\u200D';
+
+  /** この値未満の文字はすべて幅1。DEL(0x7F)は幅0のため含まない */
+  private static final char ASCII_END = 0x7F;
+
+  /** この値未満の文字は結合文字ではない */
+  private static final char COMBINING_START = 0x0300;
 
   private UtilsString() {}
 
@@ -24,23 +30,79 @@ public class UtilsString {
    * <p>
    * 引数に渡された文字の文字幅の値を返す。
    * </p><p>
-   * 文字幅は半角文字の場合は1、全角文字の場合は2を返す。<br>
+   * 文字幅は半角文字の場合は1、全角文字の場合は2、結合記号などのゼロ幅の文字の
+   * 場合は0を返す。<br>
    * これは等幅フォントにおける横幅の値を意味する。
+   * </p><p>
+   * サロゲートペアの上位、下位サロゲートはそれぞれ1を返す。サロゲートペアを正
+   * しく扱う場合はcharLength(CharSequence, int)を使用する。
    * </p>
    * @param ch 検査対象文字
-   * @return 文字の幅, 1 または 2
+   * @return 文字の幅, 0, 1 または 2
    */
   public static int charLength(char ch) {//{{{
 
-    if (
-        ( ch <= ALPHANUMERIC_CHARACTER        )
-        || ( ch == BACK_SLASH_CHARACTER       )
-        || ( ch == TILDA_CHARACTER            )
-        || ( '\uff61' <= ch && ch <= '\uff9f' ) // 半角カナ
-       )
-      return 1;
-    else
-      return 2;
+    return UnicodeWidth.of(ch);
+
+  }//}}}
+
+  /**
+   * <p>
+   * 文字列の指定位置の文字の文字幅の値を、前後の文字を考慮して返す。
+   * </p><p>
+   * サロゲートペアは上位サロゲートの位置でコードポイントの幅を返し、下位サロ
+   * ゲートの位置では0を返す。<br>
+   * ゼロ幅接合子(ZWJ)に続く文字は直前の文字と１つの絵文字として表示されるため
+   * 0を返す。
+   * </p>
+   * @param text 検査対象文字列
+   * @param index 文字の位置
+   * @return 文字の幅, 0, 1 または 2
+   */
+  public static int charLength(CharSequence text, int index) {//{{{
+
+    char ch = text.charAt(index);
+    if (0 < index && text.charAt(index - 1) == ZWJ)
+      return 0;
+
+    if (Character.isHighSurrogate(ch)) {
+      if (index + 1 < text.length() && Character.isLowSurrogate(text.charAt(index + 1)))
+        return UnicodeWidth.of(Character.toCodePoint(ch, text.charAt(index + 1)));
+    } else if (Character.isLowSurrogate(ch)) {
+      if (0 < index && Character.isHighSurrogate(text.charAt(index - 1)))
+        return 0;
+    }
+    return UnicodeWidth.of(ch);
+
+  }//}}}
+
+  /**
+   * <p>
+   * 文字列の指定位置の文字が、直前の文字と結合して１つの文字として表示されるか
+   * どうかを返す。
+   * </p><p>
+   * サロゲートペアの下位サロゲート、結合記号、異体字セレクタ、絵文字の修飾子、
+   * ゼロ幅接合子と、ゼロ幅接合子に続く文字が該当する。<br>
+   * 結合する文字の直前では単語を区切らず、行を折り返さない。
+   * </p>
+   * @param text 検査対象文字列
+   * @param index 文字の位置
+   * @return 結合する場合は{@code true}
+   */
+  public static boolean isJoinedToPrevious(CharSequence text, int index) {//{{{
+
+    if (index <= 0)
+      return false;
+
+    char ch   = text.charAt(index);
+    char prev = text.charAt(index - 1);
+    if (prev == ZWJ)
+      return true;
+    if (Character.isLowSurrogate(ch))
+      return Character.isHighSurrogate(prev);
+    if (ch < COMBINING_START || isWideRun(ch))
+      return false;
+    return UnicodeWidth.isExtend(Character.codePointAt(text, index));
 
   }//}}}
 
@@ -48,8 +110,12 @@ public class UtilsString {
    * <p>
    * 引数に渡された文字列の文字幅の合計値を返す。
    * </p><p>
-   * 文字幅は半角文字の場合は1、全角文字の場合は2を返す。<br>
+   * 文字幅はcharLength(CharSequence, int)の合計値である。<br>
    * これは等幅フォントにおける横幅の値を意味する。
+   * </p><p>
+   * ASCII文字の連続は表を引かずに文字数をそのまま幅として加算する。<br>
+   * 仮名、漢字、全角英数記号など、常に幅2で結合しない文字の連続も同様に、文字
+   * 数の2倍を幅として加算する。
    * </p>
    * @param str 検査対象文字列
    * @return 文字列の幅
@@ -57,13 +123,52 @@ public class UtilsString {
   public static int stringLength(String str) {//{{{
 
     int count = 0;
-    for (char ch : str.toCharArray()) {
-      count += charLength(ch);
+    int length = str.length();
+    int i = 0;
+    while (i < length) {
+      char ch = str.charAt(i);
+
+      if (ch < ASCII_END && (i == 0 || str.charAt(i - 1) != ZWJ)) {
+        int start = i;
+        do {
+          i++;
+        } while (i < length && str.charAt(i) < ASCII_END);
+        count += i - start;
+        continue;
+      }
+
+      if (isWideRun(ch) && (i == 0 || str.charAt(i - 1) != ZWJ)) {
+        int start = i;
+        do {
+          i++;
+        } while (i < length && isWideRun(str.charAt(i)));
+        count += (i - start) * 2;
+        continue;
+      }
+
+      count += charLength(str, i);
+      i++;
     }
     return count;
 
   }//}}}
 
+  /**
+   * 引数に渡された文字が、前後の文字によらず幅2で、直前の文字と結合しない文字
+   * かどうかを返す。
+   * 和文の句読点、仮名(結合用の濁点、半濁点を除く)、CJK統合漢字と拡張A、全角
+   * 英数記号が該当する。
+   */
+  private static boolean isWideRun(char ch) {//{{{
+    if (ch < 0x3000)
+      return false;
+    if (ch <= 0x30FF)
+      return ch <= 0x3029 || (0x3041 <= ch && ch <= 0x3096) || 0x309B <= ch;
+    if (ch <= 0x9FFF)
+      return 0x3400 <= ch && (ch <= 0x4DBF || 0x4E00 <= ch);
+    return 0xFF01 <= ch && ch <= 0xFF60;
+  }//}}}
+
   /**
    * <p>
    * 引数に渡された文字列を単語単位で区切ったリストとして返す。
@@ -79,29 +184,20 @@ public class UtilsString {
    */
   public static List<String> splitToWord(String text) {//{{{
 
-    char[] chars = text.toCharArray();
-    String[] array = text.split("");
-
+    // 区切り文字、空白文字、その他の文字は直前までの英数字と合わせて１つの単語
+    // になるため、単語の境界だけを探して部分文字列を切り出す
+    // 結合文字やサロゲートペアの途中では区切らない
     List<String> list = new ArrayList<>();
-    StringBuilder sb = new StringBuilder();
+    int start  = 0;
+    int length = text.length();
 
-    for (char ch : chars) {
+    for (int i=0; i<length; i++) {
 
-      if (isAlphabet(ch)) {
-        sb.append(ch);
+      if (isAlphabet(text.charAt(i)) || (i + 1 < length && isJoinedToPrevious(text, i + 1)))
         continue;
-      }
-
-      if (isSeparator(ch) || isWhiteSpace(ch)) {
-        sb.append(ch);
-        list.add(sb.toString());
-        sb.setLength(0);
-        continue;
-      }
 
-      sb.append(ch);
-      list.add(sb.toString());
-      sb.setLength(0);
+      list.add(text.substring(start, i + 1));
+      start = i + 1;
 
     }
 
@@ -221,10 +317,10 @@ public class UtilsString {
       for (String line : l) {
 
         if (line.startsWith("#")) {
-          name = line.replaceAll("^# *", "");
+          name = TextFormatter.toActorName(line);
         }
 
-        String newLine = line.replaceAll("@name", name);
+        String newLine = Template.compile(line).render(name, Collections.emptyMap());
         newList.add(newLine);
 
       }
@@ -247,7 +343,7 @@ public class UtilsString {
 
       String top = list.get(0);
       if (top.startsWith("#")) {
-        name = top.replaceAll("^# *", "");
+        name = TextFormatter.toActorName(top);
       } else {
         newList.add("# " + name);
       }
@@ -0,0 +1,59 @@
+package jiro.java.lang;
+
+/**
+ * <p>
+ * 折り返しに使用する文字幅の求め方を表すインタフェース。
+ * </p><p>
+ * 幅の単位は実装によって異なり、折り返し幅(returnSize)も同じ単位で指定する。
+ * <br>
+ * MONOSPACEは等幅フォントの桁数(半角1、全角2)を返す。FontWidthはフォントの
+ * 送り幅をピクセル単位で返す。
+ * </p><p>
+ * 実装は複数スレッドから共有して使用できなければならない。<br>
+ * toString()は整形オプションの識別文字列に使用するため、幅の求め方が異なる実
+ * 装は異なる文字列を返さなければならない。
+ * </p>
+ */
+public interface WidthMeasure {
+
+  /** UtilsString#charLength(CharSequence, int)の桁数を幅とする */
+  WidthMeasure MONOSPACE = new WidthMeasure() {//{{{
+
+    @Override
+    public float width(CharSequence text, int index) {//{{{
+      return UtilsString.charLength(text, index);
+    }//}}}
+
+    @Override
+    public String toString() {//{{{
+      return "monospace";
+    }//}}}
+
+  };//}}}
+
+  /**
+   * <p>
+   * 文字列の指定位置の文字の幅を、前後の文字を考慮して返す。
+   * </p><p>
+   * サロゲートペアの下位サロゲートや、ゼロ幅接合子に続く文字など、直前の文字
+   * と１つの文字として表示される文字は0を返す。
+   * </p>
+   * @param text 文字列
+   * @param index 文字の位置
+   * @return 文字の幅
+   */
+  float width(CharSequence text, int index);
+
+  /**
+   * 文字列の幅の合計を返す。
+   * @param text 文字列
+   * @return 文字列の幅
+   */
+  default float width(CharSequence text) {//{{{
+    float width = 0;
+    for (int i=0; i<text.length(); i++)
+      width += width(text, i);
+    return width;
+  }//}}}
+
+}
@@ -0,0 +1,174 @@
+#!/usr/bin/env python3
+# -*- coding: utf-8 -*-
+"""
+src/jiro/java/lang/UnicodeWidth.java を生成する。
+
+Pythonのunicodedataに含まれるEast Asian WidthとGeneral Categoryから、コード
+ポイントごとの表示幅と結合文字フラグを求め、256コードポイント単位の２段の表と
+して出力する。
+
+    python3 tools/gen_unicode_width.py > src/jiro/java/lang/UnicodeWidth.java
+
+幅の規則:
+  - 0x00-0x7E は 1 (これまでの動作と同じ)
+  - 制御文字(0x7F-0x9F)、書式文字(Cf)、結合記号(Mn, Me)、ハングルの中声・終声、
+    絵文字の肌色修飾子は 0
+  - East Asian Width が W, F は 2
+  - East Asian Width が A(曖昧)は、U+0530未満の文字(ラテン、ギリシャ、キリル)
+    は 1、それ以外の記号などは 2 (日本語のフォントでの表示に合わせる)
+  - オーバーライン(U+203E)は 1 (これまでの動作と同じ)
+  - 未割り当てのCJK統合漢字の領域は 2
+  - それ以外は 1
+"""
+
+import sys
+import unicodedata
+
+MAX = 0x110000
+BLOCK = 256
+EXTEND = 4
+
+# \u000a や \u005c はJavaのソースとして解釈されるため、ブロック番号に加算して
+# 出力する
+STAGE1_OFFSET = 0x4E00
+ZWJ = 0x200D
+
+
+def width(cp):
+    if cp <= 0x7E:
+        return 1
+    if 0xD800 <= cp <= 0xDFFF:
+        # 単独のサロゲートはcharごとの幅の合計がペアで2になるように1とする
+        return 1
+    if cp == 0x203E:
+        return 1
+
+    ch = chr(cp)
+    cat = unicodedata.category(ch)
+    if cat in ('Cc', 'Cf', 'Mn', 'Me'):
+        return 0
+    if 0x1160 <= cp <= 0x11FF or 0xD7B0 <= cp <= 0xD7FF:
+        return 0
+    if 0x1F3FB <= cp <= 0x1F3FF:
+        return 0
+
+    eaw = unicodedata.east_asian_width(ch)
+    if eaw in ('W', 'F'):
+        return 2
+    if eaw == 'A':
+        return 1 if cp < 0x0530 and cat.startswith('L') else 2
+    if cat == 'Cn' and (
+            0x3400 <= cp <= 0x4DBF
+            or 0x4E00 <= cp <= 0x9FFF
+            or 0xF900 <= cp <= 0xFAFF
+            or 0x20000 <= cp <= 0x3FFFD):
+        return 2
+    return 1
+
+
+def is_extend(cp):
+    if 0xD800 <= cp <= 0xDFFF:
+        return False
+    cat = unicodedata.category(chr(cp))
+    return (
+        cat in ('Mn', 'Me', 'Mc')
+        or cp == ZWJ
+        or 0x1F3FB <= cp <= 0x1F3FF
+        or 0xE0020 <= cp <= 0xE007F
+    )
+
+
+def main():
+    values = [width(cp) | (EXTEND if is_extend(cp) else 0) for cp in range(MAX)]
+
+    blocks = []
+    block_index = {}
+    stage1 = []
+    for start in range(0, MAX, BLOCK):
+        block = ''.join(str(v) for v in values[start:start + BLOCK])
+        if block not in block_index:
+            block_index[block] = len(blocks)
+            blocks.append(block)
+        stage1.append(block_index[block])
+
+    out = sys.stdout
+    w = out.write
+    w('package jiro.java.lang;\n\n')
+    w('/**\n')
+    w(' * <p>\n')
+    w(' * コードポイントごとの表示幅の表。\n')
+    w(' * </p><p>\n')
+    w(' * このファイルはtools/gen_unicode_width.pyで生成する。直接編集しないこと。<br>\n')
+    w(' * Unicode %s のEast Asian WidthとGeneral Categoryから生成している。\n' % unicodedata.unidata_version)
+    w(' * </p><p>\n')
+    w(' * 表は%dコードポイント単位のブロックに分け、上位の表でブロックの番号を、下\n' % BLOCK)
+    w(' * 位の表でブロック内の値を引く２段の表である。同じ内容のブロックは共有する。\n')
+    w(' * </p>\n')
+    w(' */\n')
+    w('final class UnicodeWidth {\n\n')
+    w('  private static final int BLOCK_SHIFT = %d;\n' % (BLOCK.bit_length() - 1))
+    w('  private static final int BLOCK_MASK  = %d;\n' % (BLOCK - 1))
+    w('  private static final int WIDTH_MASK  = 3;\n')
+    w('  private static final int EXTEND      = %d;\n\n' % EXTEND)
+
+    w('  /** STAGE1の各文字からこの値を引いた値がブロック番号 */\n')
+    w('  private static final char STAGE1_OFFSET = 0x%04X;\n\n' % STAGE1_OFFSET)
+    w('  /** コードポイントの上位ビットごとのブロック番号 */\n')
+    w('  private static final String STAGE1 =\n')
+    line = ''
+    lines = []
+    for idx in stage1:
+        line += '\\u%04x' % (STAGE1_OFFSET + idx)
+        if len(line) >= 72:
+            lines.append(line)
+            line = ''
+    if line:
+        lines.append(line)
+    w('    "' + '"\n    + "'.join(lines) + '";\n\n')
+
+    w('  /** ブロックごとの値。下位2ビットが幅、EXTENDが結合文字フラグ */\n')
+    w('  private static final String[] STAGE2 = {\n')
+    for i, block in enumerate(blocks):
+        parts = [block[j:j + 64] for j in range(0, BLOCK, 64)]
+        w('    // %d\n' % i)
+        w('    "' + '"\n    + "'.join(parts) + '",\n')
+    w('  };\n\n')
+
+    w('  private static final char[] STAGE1_TABLE = STAGE1.toCharArray();\n')
+    w('  private static final byte[] STAGE2_TABLE = new byte[STAGE2.length << BLOCK_SHIFT];\n\n')
+    w('  static {//{{{\n')
+    w('    for (int b=0; b<STAGE2.length; b++) {\n')
+    w('      String block = STAGE2[b];\n')
+    w('      for (int i=0; i<=BLOCK_MASK; i++)\n')
+    w("        STAGE2_TABLE[(b << BLOCK_SHIFT) | i] = (byte) (block.charAt(i) - '0');\n")
+    w('    }\n')
+    w('  }//}}}\n\n')
+    w('  private UnicodeWidth() {}\n\n')
+    w('  /**\n')
+    w('   * コードポイントの表示幅を返す。\n')
+    w('   * @param codePoint コードポイント\n')
+    w('   * @return 表示幅, 0, 1 または 2\n')
+    w('   */\n')
+    w('  static int of(int codePoint) {//{{{\n')
+    w('    return lookup(codePoint) & WIDTH_MASK;\n')
+    w('  }//}}}\n\n')
+    w('  /**\n')
+    w('   * コードポイントが直前の文字と結合して表示される文字かどうかを返す。\n')
+    w('   * 結合記号、ゼロ幅接合子、異体字セレクタ、絵文字の修飾子などが該当する。\n')
+    w('   * @param codePoint コードポイント\n')
+    w('   * @return 結合する場合は{@code true}\n')
+    w('   */\n')
+    w('  static boolean isExtend(int codePoint) {//{{{\n')
+    w('    return (lookup(codePoint) & EXTEND) != 0;\n')
+    w('  }//}}}\n\n')
+    w('  private static int lookup(int codePoint) {//{{{\n')
+    w('    if (codePoint < 0 || Character.MAX_CODE_POINT < codePoint)\n')
+    w('      return 1;\n')
+    w('    int block = STAGE1_TABLE[codePoint >>> BLOCK_SHIFT] - STAGE1_OFFSET;\n')
+    w('    return STAGE2_TABLE[(block << BLOCK_SHIFT) | (codePoint & BLOCK_MASK)];\n')
+    w('  }//}}}\n\n')
+    w('}\n')
+
+
+if __name__ == '__main__':
+    main()